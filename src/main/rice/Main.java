@@ -2,10 +2,12 @@ package main.rice;
 
 import main.rice.basegen.BaseSetGenerator;
 import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.concisegen.LazyConciseSetGenerator;
 import main.rice.node.APyNode;
 import main.rice.parse.ConfigFile;
 import main.rice.parse.ConfigFileParser;
 import main.rice.parse.InvalidConfigException;
+import main.rice.test.CoverageReducer;
 import main.rice.test.TestCase;
 import main.rice.test.TestResults;
 import main.rice.test.Tester;
@@ -15,6 +17,28 @@ import java.util.*;
 
 public class Main {
 
+    /**
+     * What generateTests() does when the projected number of test executions exceeds the
+     * budget given with --budget.
+     */
+    public enum OverBudget {
+
+        /**
+         * Throws an InvalidConfigException before generating anything.
+         */
+        REFUSE,
+
+        /**
+         * Prints a warning and generates the full base set anyway.
+         */
+        WARN,
+
+        /**
+         * Samples the semi-exhaustive test set down to fit within the budget.
+         */
+        SAMPLE
+    }
+
     /**
      *
      * Using these arguments, main() should delegate to generateTests() (described below)
@@ -27,6 +51,19 @@ public class Main {
      *                  1) A string containing the path to the config file.
      *                  2) A string containing the path to the directory containing the buggy implementations.
      *                  3) A string containing the path to the reference solution.
+     *              Optionally followed by:
+     *                  --lazy  only run the tests that the set cover actually needs
+     *                  --budget N  the maximum number of test executions (tests times
+     *                              implementations) to allow
+     *                  --over-budget refuse|warn|sample  what to do when the base set
+     *                              would exceed the budget (default: refuse)
+     *                  --seed N  the seed for random generation, overriding any seed
+     *                              given in the config file
+     *                  --gen-threads N  the number of threads used to generate random
+     *                              tests (default: 1)
+     *                  --reduce-coverage N  keep at most N tests per distinct path
+     *                              through the reference solution; tests that don't
+     *                              finish on it within 10 s are kept untraced
      * @throws IOException
      * @throws InvalidConfigException
      */
@@ -67,8 +104,43 @@ public class Main {
         // make base set generator
         BaseSetGenerator baseSetGen = new BaseSetGenerator(nodes, numRanTests);
 
-        // store the output of generating a base set
-        List<TestCase> baseSet = baseSetGen.genBaseSet();
+        // combine the exhaustive values the way the config asks for
+        baseSetGen.setExMode(parsedConfig.getExMode(), parsedConfig.getStrength());
+
+        // seed random generation, if asked to, so that the base set is reproducible
+        List<String> flags = Arrays.asList(args).subList(3, args.length);
+        String seed = flagValue(flags, "--seed");
+        if (seed != null) {
+            baseSetGen.setSeed(Long.parseLong(seed));
+        } else if (parsedConfig.getSeed() != null) {
+            baseSetGen.setSeed(parsedConfig.getSeed());
+        }
+        String genThreads = flagValue(flags, "--gen-threads");
+        if (genThreads != null) {
+            baseSetGen.setNumThreads(Integer.parseInt(genThreads));
+        }
+
+        // store the output of generating a base set; with --budget, first make sure that
+        // running it won't take more test executions than allowed
+        String budget = flagValue(flags, "--budget");
+        List<TestCase> baseSet;
+        if (budget == null) {
+            baseSet = baseSetGen.genBaseSet();
+        } else {
+            String policy = flagValue(flags, "--over-budget");
+            baseSet = genBaseSetWithinBudget(baseSetGen, numRanTests,
+                Tester.listImpls(buggyDirPath).size(), Long.parseLong(budget),
+                (policy == null) ? OverBudget.REFUSE
+                    : OverBudget.valueOf(policy.toUpperCase()));
+        }
+
+        // with --reduce-coverage, drop tests that exercise the reference solution exactly
+        // the same way as enough earlier ones
+        String perSignature = flagValue(flags, "--reduce-coverage");
+        if (perSignature != null) {
+            baseSet = new CoverageReducer(funcName, solutionPath,
+                Integer.parseInt(perSignature)).reduce(baseSet);
+        }
 
         // construct appropriate tester
         Tester test = new Tester(funcName, solutionPath, buggyDirPath, baseSet);
@@ -76,6 +148,11 @@ public class Main {
         // compute the expected results
         test.computeExpectedResults();
 
+        // with --lazy, fill in the results on demand while finding the concise test set
+        if (flags.contains("--lazy")) {
+            return new LazyConciseSetGenerator(test).setCover();
+        }
+
         // store results of calling runTests()
         TestResults testResults = test.runTests();
 
@@ -83,4 +160,78 @@ public class Main {
         Set<TestCase> conciseTestSet = ConciseSetGenerator.setCover(testResults);
         return conciseTestSet;
     }
+
+    /**
+     * Generates the base set, unless the projected number of test executions (the size
+     * of the base set times the number of implementations) exceeds the budget, in which
+     * case the policy decides what happens instead. The projection is computed from the
+     * nodes' domains without generating anything. With the SAMPLE policy, every random
+     * test is kept, so the budget must at least cover those.
+     *
+     * @param baseSetGen the generator for the base set
+     * @param numRand    the number of random test cases in the base set
+     * @param numImpls   the number of implementations that each test will be run on
+     * @param budget     the maximum number of test executions to allow
+     * @param policy     what to do if the budget would be exceeded
+     * @return the base set, possibly sampled down to fit within the budget
+     * @throws InvalidConfigException if the budget would be exceeded and the policy is
+     *                                REFUSE, or the policy is SAMPLE and the random tests
+     *                                alone would exceed the budget
+     */
+    public static List<TestCase> genBaseSetWithinBudget(BaseSetGenerator baseSetGen,
+        int numRand, int numImpls, long budget, OverBudget policy)
+        throws InvalidConfigException {
+        long numTests = baseSetGen.estimateBaseSetSize();
+        long projected = APyNode.saturatedMultiply(numTests, numImpls);
+
+        // With no implementations, nothing will be run at all
+        if (numImpls == 0 || projected <= budget) {
+            return baseSetGen.genBaseSet();
+        }
+
+        String msg = "projected " + projected + " test executions (" + numTests
+            + " tests x " + numImpls + " implementations) exceeds the budget of "
+            + budget;
+        switch (policy) {
+            case REFUSE:
+                throw new InvalidConfigException(msg);
+            case WARN:
+                System.err.println("Warning: " + msg);
+                return baseSetGen.genBaseSet();
+            default:
+                // Keep all of the random tests, and fill the rest of the budget with a
+                // sample of the semi-exhaustive tests
+                long randExecs = APyNode.saturatedMultiply(numRand, numImpls);
+                if (randExecs > budget) {
+                    throw new InvalidConfigException(msg + ", and even the " + numRand
+                        + " random tests alone would take " + randExecs
+                        + " test executions; lower the number of random tests or raise "
+                        + "the budget");
+                }
+                long numExTests = budget / numImpls - numRand;
+                System.err.println("Warning: " + msg + "; sampling " + numExTests
+                    + " semi-exhaustive tests");
+                return baseSetGen.genSampledBaseSet((int) Math.min(numExTests,
+                    Integer.MAX_VALUE), baseSetGen.newRand());
+        }
+    }
+
+    /**
+     * Finds the value of a command-line flag that takes one, e.g. "--budget 1000".
+     *
+     * @param flags the optional command-line arguments
+     * @param name  the name of the flag
+     * @return the argument following the flag, or null if the flag isn't present
+     * @throws IllegalArgumentException if the flag is the last argument
+     */
+    private static String flagValue(List<String> flags, String name) {
+        int index = flags.indexOf(name);
+        if (index < 0) {
+            return null;
+        }
+        if (index == flags.size() - 1) {
+            throw new IllegalArgumentException(name + " requires a value");
+        }
+        return flags.get(index + 1);
+    }
 }
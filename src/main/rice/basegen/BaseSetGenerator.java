@@ -1,13 +1,19 @@
 package main.rice.basegen;
 
+import main.rice.node.AIterablePyNode;
 import main.rice.node.APyNode;
 import main.rice.obj.APyObj;
+import main.rice.obj.PyObjInterner;
 import main.rice.test.TestCase;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A class that is used to generate a "base" set of test cases, comprised of the union
@@ -31,6 +37,42 @@ public class BaseSetGenerator {
      */
     private Set<TestCase> baseSet;
 
+    /**
+     * The number of random test cases generated from each RNG stream split off of the
+     * master RNG (see genRandTests()).
+     */
+    public static final int CHUNK_SIZE = 64;
+
+    /**
+     * The seed for the master RNG, or null if random generation should not be
+     * reproducible.
+     */
+    private Long seed;
+
+    /**
+     * The number of threads used to generate random test cases; 1 means generate them
+     * on the calling thread
+     */
+    private int numThreads = 1;
+
+    /**
+     * How the parameters' exhaustive values are combined into the semi-exhaustive test
+     * set
+     */
+    private ExMode exMode = ExMode.PRODUCT;
+
+    /**
+     * The strength of the covering array when exMode is T_WISE
+     */
+    private int strength = 2;
+
+    /**
+     * The largest number of combinations of values for t parameters for which
+     * estimateExTestCount() builds the covering array's rows, rather than falling back
+     * to the size of the full product
+     */
+    private static final long MAX_ESTIMATE_TUPLES = 1 << 20;
+
     /**
      * Constructor for a BaseSetGenerator, which initializes the fields.
      *
@@ -43,6 +85,58 @@ public class BaseSetGenerator {
         this.baseSet = new HashSet<>();
     }
 
+    /**
+     * Seeds random generation, so that every subsequent call to genRandTests() (and so
+     * to genBaseSet()) generates the same random test cases.
+     *
+     * @param seed the seed for the master RNG
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the number of threads used to generate random test cases;
+     * Runtime.getRuntime().availableProcessors() makes use of every core. The results do
+     * not depend on the number of threads.
+     *
+     * @param numThreads the number of threads; must be positive
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("number of threads must be positive");
+        }
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Sets how the parameters' exhaustive values are combined into the semi-exhaustive
+     * test set: either every combination of them (the default), or a t-wise covering
+     * array (see CoveringArrayGenerator).
+     *
+     * @param exMode   how the exhaustive values are combined
+     * @param strength the strength, t, of the covering array; ignored unless exMode is
+     *                 T_WISE
+     */
+    public void setExMode(ExMode exMode, int strength) {
+        if (exMode == ExMode.T_WISE && strength < 1) {
+            throw new IllegalArgumentException("strength must be positive");
+        }
+        this.exMode = exMode;
+        this.strength = strength;
+    }
+
+    /**
+     * Creates an RNG for the random choices made outside of genRandTests() (e.g. by
+     * sampleExTests()), which is seeded if this generator has been seeded.
+     *
+     * @return a new RNG
+     */
+    public SplittableRandom newRand() {
+        return (this.seed == null) ? new SplittableRandom()
+            : new SplittableRandom(this.seed);
+    }
+
     /**
      * Generates a the base test set (the union of the semi-exhaustive and random test
      * sets) according to the type and domain specifications in the input list of nodes.
@@ -52,6 +146,9 @@ public class BaseSetGenerator {
      * @return the base test set (as a List, so that we can use indices in the Tester)
      */
     public List<TestCase> genBaseSet() {
+        // Fail before the (possibly expensive) semi-exhaustive tests are generated if the
+        // random tests can't be
+        this.checkRanTestCount();
         this.baseSet = this.genExTests();
         this.genRandTests();
 
@@ -61,59 +158,426 @@ public class BaseSetGenerator {
 
     /**
      * Exbaustively generates a set of all valid test cases within the exhaustive
-     * domains stored within the nodes.
+     * domains stored within the nodes; in T_WISE mode (see setExMode()), generates a
+     * covering array over the exhaustive domains instead.
      *
      * @return a set of valid test cases according to the given specifications
      */
     public Set<TestCase> genExTests() {
-        // For each parameter, generate the set of all possible arguments
-        List<Set<? extends APyObj>> possibleArgs = new ArrayList<>();
+        if (this.exMode == ExMode.T_WISE) {
+            return new CoveringArrayGenerator(this.nodes, this.strength)
+                .genCoveringArray();
+        }
+
+        // Collect every combination of arguments (selecting one valid argument for each
+        // parameter) as it is generated
+        Set<TestCase> tests = new HashSet<>();
+        Iterator<TestCase> iter = this.iterExTests();
+        while (iter.hasNext()) {
+            tests.add(iter.next());
+        }
+        return tests;
+    }
+
+    /**
+     * Lazily generates all valid test cases within the exhaustive domains stored within
+     * the nodes, one at a time; unlike genExTests(), never holds more than one test case
+     * in memory (unless the caller does).
+     *
+     * @return an iterator over the semi-exhaustive test set
+     */
+    public Iterator<TestCase> iterExTests() {
+        return new ExTestIterator(this.nodes);
+    }
+
+    /**
+     * Lazily generates all valid test cases within the exhaustive domains stored within
+     * the nodes, as a stream; see iterExTests().
+     *
+     * @return a stream over the semi-exhaustive test set
+     */
+    public Stream<TestCase> streamExTests() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+            this.iterExTests(),
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Computes the number of test cases in the semi-exhaustive test set, without
+     * generating them.
+     *
+     * @return the number of test cases in the semi-exhaustive test set
+     * @throws ArithmeticException if the number doesn't fit in a long
+     */
+    public long exTestCount() {
+        long count = 1;
+        for (APyNode<?> node : this.nodes) {
+            count = Math.multiplyExact(count, node.exSize());
+        }
+        return count;
+    }
+
+    /**
+     * Estimates the number of test cases in the semi-exhaustive test set before anything
+     * is generated; exact unless the number doesn't fit in a long, in which case returns
+     * Long.MAX_VALUE. Never an underestimate, so that it can be checked against a budget.
+     *
+     * <p>In T_WISE mode (see setExMode()), builds the rows of the covering array, which
+     * only needs the sizes of the exhaustive domains and is cheap next to running the
+     * test cases, and counts them. Rows can coincide once their unused slots are filled
+     * in, so this is an upper bound on the size of the covering array, and is usually
+     * exact. If the domains are too large to build the rows quickly, returns the size of
+     * the full product instead, which is also an upper bound.
+     *
+     * @return the number of test cases in the semi-exhaustive test set, or
+     * Long.MAX_VALUE if it is larger than that
+     */
+    public long estimateExTestCount() {
+        long[] sizes = new long[this.nodes.size()];
+        long count = 1;
+        for (int param = 0; param < sizes.length; param++) {
+            sizes[param] = this.nodes.get(param).estimateExSize();
+            count = APyNode.saturatedMultiply(count, sizes[param]);
+        }
+        if (this.exMode != ExMode.T_WISE || sizes.length <= this.strength || count == 0) {
+            return count;
+        }
+
+        // Only build the rows if there are few enough combinations of values to track
+        long[] sorted = sizes.clone();
+        Arrays.sort(sorted);
+        long numTuples = 1;
+        for (int idx = sorted.length - this.strength; idx < sorted.length; idx++) {
+            numTuples = APyNode.saturatedMultiply(numTuples, sorted[idx]);
+        }
+        if (numTuples > MAX_ESTIMATE_TUPLES) {
+            return count;
+        }
+        int[] intSizes = new int[sizes.length];
+        for (int param = 0; param < sizes.length; param++) {
+            intSizes[param] = (int) sizes[param];
+        }
+        return Math.min(count,
+            CoveringArrayGenerator.buildRows(intSizes, this.strength).size());
+    }
+
+    /**
+     * Estimates the size of the base test set (the semi-exhaustive test set plus the
+     * random test cases) before anything is generated; see estimateExTestCount().
+     *
+     * @return the number of test cases in the base test set, or Long.MAX_VALUE if it is
+     * larger than that
+     */
+    public long estimateBaseSetSize() {
+        long exCount = this.estimateExTestCount();
+        return (exCount > Long.MAX_VALUE - this.numRand) ? Long.MAX_VALUE
+            : exCount + this.numRand;
+    }
+
+    /**
+     * Reports how many element sequences the iterable nodes (lists, tuples, sets, and
+     * strings) in the trees have built so far while enumerating their exhaustive
+     * domains; see AIterablePyNode.getNumSeqsBuilt().
+     *
+     * @return the number of element sequences built so far
+     */
+    public long numSeqsBuilt() {
+        long count = 0;
+        for (AIterablePyNode<?, ?> node : this.iterableNodes()) {
+            count = APyNode.saturatedAdd(count, node.getNumSeqsBuilt());
+        }
+        return count;
+    }
+
+    /**
+     * Computes how many element sequences the old generate-then-filter enumeration would
+     * build to enumerate the exhaustive domain of each iterable node in the trees once;
+     * see AIterablePyNode.countSeqsBuiltByFilter(). Comparing this with numSeqsBuilt()
+     * after genBaseSet() shows how much the enumeration saves.
+     *
+     * @return the number of element sequences the old enumeration would build, or
+     * Long.MAX_VALUE if it is larger than that
+     */
+    public long numSeqsBuiltByFilter() {
+        long count = 0;
+        for (AIterablePyNode<?, ?> node : this.iterableNodes()) {
+            try {
+                count = APyNode.saturatedAdd(count, node.countSeqsBuiltByFilter());
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Collects the iterable nodes in the trees, in preorder.
+     *
+     * @return the iterable nodes
+     */
+    private List<AIterablePyNode<?, ?>> iterableNodes() {
+        List<AIterablePyNode<?, ?>> found = new ArrayList<>();
+        Deque<APyNode<?>> toVisit = new ArrayDeque<>(this.nodes);
+        while (!toVisit.isEmpty()) {
+            APyNode<?> node = toVisit.pop();
+            if (node instanceof AIterablePyNode) {
+                found.add((AIterablePyNode<?, ?>) node);
+            }
+            if (node.getRightChild() != null) {
+                toVisit.push(node.getRightChild());
+            }
+            if (node.getLeftChild() != null) {
+                toVisit.push(node.getLeftChild());
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Computes the number of distinct test cases that random generation can produce,
+     * without generating them.
+     *
+     * @return the number of test cases in the random domain, or Long.MAX_VALUE if it is
+     * larger than that
+     */
+    public long ranTestCount() {
+        long count = 1;
         for (APyNode<?> node : this.nodes) {
-            Set<? extends APyObj> args = node.genExVals();
-            possibleArgs.add(args);
+            count = APyNode.saturatedMultiply(count, node.ranSize());
+        }
+        return count;
+    }
+
+    /**
+     * Generates the index-th test case in the random domain, in the same mixed-radix
+     * order as genExTest() uses for the semi-exhaustive test set.
+     *
+     * @param index the index of the test case to be generated, between 0 and
+     *              ranTestCount() - 1
+     * @return the index-th test case
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public TestCase genRanTest(long index) {
+        long count = this.ranTestCount();
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index " + index
+                + " out of bounds for random domain of size " + count);
+        }
+
+        // Decode one argument at a time, starting with the least significant
+        APyObj[] args = new APyObj[this.nodes.size()];
+        long rest = index;
+        for (int param = this.nodes.size() - 1; param >= 0; param--) {
+            APyNode<?> node = this.nodes.get(param);
+            long size = node.ranSize();
+            args[param] = node.genRanValAt(rest % size);
+            rest /= size;
+        }
+        return new TestCase(new ArrayList<>(Arrays.asList(args)));
+    }
+
+    /**
+     * Generates the index-th test case in the semi-exhaustive test set, without
+     * generating the ones before it. The index is decoded as a mixed-radix number whose
+     * i-th digit (with the last parameter least significant) is the index of the i-th
+     * argument within its node's exhaustive domain. This makes it possible to split the
+     * semi-exhaustive test set into ranges of indices, or to sample from it.
+     *
+     * @param index the index of the test case to be generated, between 0 and
+     *              exTestCount() - 1
+     * @return the index-th test case
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    public TestCase genExTest(long index) {
+        long count = this.exTestCount();
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("index " + index
+                + " out of bounds for exhaustive test set of size " + count);
+        }
+
+        // Decode one argument at a time, starting with the least significant
+        APyObj[] args = new APyObj[this.nodes.size()];
+        long rest = index;
+        for (int param = this.nodes.size() - 1; param >= 0; param--) {
+            APyNode<?> node = this.nodes.get(param);
+            long size = node.exSize();
+            args[param] = node.genExValAt(rest % size);
+            rest /= size;
+        }
+        return new TestCase(new ArrayList<>(Arrays.asList(args)));
+    }
+
+    /**
+     * Samples test cases uniformly at random, without replacement, from the
+     * semi-exhaustive test set, generating only the sampled test cases.
+     *
+     * <p>If the semi-exhaustive test set is too large to index (see exTestCount()), each
+     * argument is instead drawn independently and uniformly from its node's exhaustive
+     * domain, which is uniform over the semi-exhaustive test set too; repeats are
+     * astronomically unlikely, but are redrawn. A node whose own exhaustive domain is
+     * too large to count only contributes its first Long.MAX_VALUE values (see
+     * APyNode.genExValAt()). In T_WISE mode (see setExMode()), the sample is taken from
+     * the covering array instead.
+     *
+     * @param numTests the number of test cases to sample; if this is at least the size
+     *                 of the semi-exhaustive test set, all of it is returned
+     * @param rand     the RNG used to choose the test cases
+     * @return the sampled test cases
+     */
+    public Set<TestCase> sampleExTests(int numTests, RandomGenerator rand) {
+        if (this.exMode == ExMode.T_WISE) {
+            return this.sampleCoveringArray(numTests, rand);
+        }
+
+        long[] sizes = new long[this.nodes.size()];
+        long count = 1;
+        for (int param = 0; param < sizes.length; param++) {
+            sizes[param] = this.nodes.get(param).estimateExSize();
+            count = APyNode.saturatedMultiply(count, sizes[param]);
         }
 
-        // Generate all possible combinations of arguments (selecting one valid argument
-        // for each parameter)
-        List<List<APyObj>> combos = generateArgCombos(possibleArgs, 0);
         Set<TestCase> tests = new HashSet<>();
+        if (count < Long.MAX_VALUE) {
+            for (long index : APyNode.sampleIndices(rand, count,
+                (int) Math.min(numTests, count))) {
+                tests.add(this.genExTest(index));
+            }
+            return tests;
+        }
 
-        // Encapsulate the results within TestCase objects and return
-        for (List<APyObj> combo : combos) {
-            tests.add(new TestCase(combo));
+        // The semi-exhaustive test set holds far more than numTests test cases
+        while (tests.size() < numTests) {
+            List<APyObj> args = new ArrayList<>();
+            for (int param = 0; param < sizes.length; param++) {
+                args.add(this.nodes.get(param).genExValAt(rand.nextLong(sizes[param])));
+            }
+            tests.add(new TestCase(args));
         }
         return tests;
     }
 
+    /**
+     * Samples test cases uniformly at random, without replacement, from the covering
+     * array used as the semi-exhaustive test set in T_WISE mode, so that the sample
+     * still consists of the test cases chosen for their coverage (though it no longer
+     * covers every combination).
+     *
+     * @param numTests the number of test cases to sample; if this is at least the size
+     *                 of the covering array, all of it is returned
+     * @param rand     the RNG used to choose the test cases
+     * @return the sampled test cases
+     */
+    private Set<TestCase> sampleCoveringArray(int numTests, RandomGenerator rand) {
+        List<TestCase> array = new ArrayList<>(this.genExTests());
+        Set<TestCase> tests = new HashSet<>();
+        for (long index : APyNode.sampleIndices(rand, array.size(),
+            Math.min(numTests, array.size()))) {
+            tests.add(array.get((int) index));
+        }
+        return tests;
+    }
+
+    /**
+     * Generates a smaller base test set, for when the full semi-exhaustive test set is
+     * too large to run: the union of a uniform sample of the semi-exhaustive test set
+     * (see sampleExTests()) and the usual random test cases.
+     *
+     * @param numExTests the number of test cases to sample from the semi-exhaustive
+     *                   test set
+     * @param rand       the RNG used to choose the sampled test cases
+     * @return the base test set (as a List, so that we can use indices in the Tester)
+     */
+    public List<TestCase> genSampledBaseSet(int numExTests, RandomGenerator rand) {
+        this.baseSet = this.sampleExTests(numExTests, rand);
+        this.genRandTests();
+        return new ArrayList<>(this.baseSet);
+    }
+
     /**
      * Randomly generates a list of valid test cases of size numTests, according to the
      * random domains stored within the nodes. Each output test case encapsulates a list
      * of arguments (APyObjs), where the i-th argument is typified by the i-th element in
      * nodes.
      *
+     * <p>Test cases are generated in chunks of CHUNK_SIZE, each from its own RNG stream
+     * split off of a master RNG in chunk order; with more than one thread (see
+     * setNumThreads()), the chunks are generated in parallel. Duplicates are dropped as
+     * the chunks are generated, and the survivors are added in the order in which they
+     * were first generated. If a seed has been set (see setSeed()), the output therefore
+     * depends only on the seed, the nodes, and the existing base set, and not on the
+     * number of threads or how the chunks happen to be scheduled.
+     *
+     * <p>If the random tests would take up more than half of the part of the random
+     * domain that isn't already in the base set, so that most of the generated tests
+     * would be repeats, and every node generates its random values uniformly (see
+     * APyNode.isRanUniform()), the test cases are instead sampled from the random domain
+     * by index, without replacement (see sampleRandTests()), which doesn't change their
+     * distribution. Otherwise, repeats are rejected as usual, so that the shape of the
+     * random tests doesn't depend on how many of them are wanted.
+     *
      * @return a list of valid test cases, according to the given specifications
+     * @throws IllegalStateException if the random domain doesn't hold numRand test
+     *                               cases that aren't already in the base set
      */
     public Set<TestCase> genRandTests() {
         // Get the goal size for the base test set
         int goalSize = this.baseSet.size() + this.numRand;
         Set<TestCase> randSet = new HashSet<>();
+        SplittableRandom master = this.newRand();
 
-        // Randomly generate one test at a time until we've generated enough. Need to
-        // continually check the size in case we randomly generate the same test twice
-        while (this.baseSet.size() < goalSize) {
+        // Fail fast if there aren't enough random tests, and don't waste time rejecting
+        // repeats if there are barely enough
+        long ranCount = this.checkRanTestCount();
+        long freeCount = this.freeRanTestCount(ranCount, goalSize);
+        if (APyNode.nearlySaturated(this.numRand, freeCount) && this.isRanUniform()) {
+            this.sampleRandTests(master, ranCount, goalSize, randSet);
+            return randSet;
+        }
+        ForkJoinPool pool = (this.numThreads > 1) ? new ForkJoinPool(this.numThreads)
+            : null;
 
-            // Randomly generate each argument
-            List<APyObj> args = new ArrayList<>();
-            for (APyNode<?> node : this.nodes) {
-                APyObj arg = node.genRandVal();
-                args.add(arg);
-            }
+        // Randomly generate enough chunks to reach the goal size, then repeat in case we
+        // randomly generated the same test twice (or a test that was already there)
+        try {
+            while (this.baseSet.size() < goalSize) {
+                int numNeeded = goalSize - this.baseSet.size();
+                int numChunks = (numNeeded + CHUNK_SIZE - 1) / CHUNK_SIZE;
 
-            // Wrap arguments in a TestCase object and add to the base set, making sure
-            // that it isn't a duplicate of an object in the exhaustive set
-            TestCase test = new TestCase(args);
-            if (this.baseSet.add(test)) {
-                randSet.add(test);
+                // Split off each chunk's stream on this thread, in chunk order, so that
+                // a chunk's tests don't depend on which thread generates it (or when)
+                List<SplittableRandom> streams = new ArrayList<>(numChunks);
+                for (int idx = 0; idx < numChunks; idx++) {
+                    streams.add(master.split());
+                }
+
+                // Map each new test to the earliest position (across all of the chunks)
+                // at which it was generated; the base set isn't modified until every
+                // chunk is done, so it's safe to read it concurrently
+                ConcurrentMap<TestCase, Long> firstPositions = new ConcurrentHashMap<>();
+                IntStream chunkIdxs = IntStream.range(0, numChunks);
+                if (pool == null) {
+                    chunkIdxs.forEach(chunkIdx -> this.genRandChunk(streams.get(chunkIdx),
+                        chunkIdx, firstPositions));
+                } else {
+                    pool.submit(() -> chunkIdxs.parallel().forEach(chunkIdx ->
+                        this.genRandChunk(streams.get(chunkIdx), chunkIdx,
+                            firstPositions))).join();
+                }
+
+                // Add the new tests in the order in which they were first generated,
+                // without overshooting the goal
+                firstPositions.entrySet().stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(numNeeded)
+                    .forEachOrdered(entry -> {
+                        TestCase test = intern(entry.getKey());
+                        this.baseSet.add(test);
+                        randSet.add(test);
+                    });
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
             }
         }
 
@@ -125,45 +589,175 @@ public class BaseSetGenerator {
     }
 
     /**
-     * Helper function for generateTest; a recursive algorithm for generating all possible
-     * combinations of arguments across multiple parameters. Uses an additional input,
-     * index, to keep track of which arguments have already been combined.
+     * Checks that the random domain holds at least numRand test cases.
      *
-     * @param possibleArgs a list of sets, where the i-th set contains all possible
-     *                     arguments (as PyObjs) for the i-th parameter
-     * @param index        the next index within possibleArgs for which we need to
-     *                     generate all possible combinations
-     * @return all possible combinations of args, where the i-th element in each sublist
-     * within the returned list is an element of the i-th set in possibleArgs
+     * @return the number of test cases in the random domain (see ranTestCount())
+     * @throws IllegalStateException if the random domain holds fewer than numRand test
+     *                               cases
      */
-    private List<List<APyObj>> generateArgCombos(
-        List<Set<? extends APyObj>> possibleArgs, int index) {
+    private long checkRanTestCount() {
+        long ranCount = this.ranTestCount();
+        if (ranCount < this.numRand) {
+            throw new IllegalStateException("the random domain holds only " + ranCount
+                + " test cases, so it cannot supply " + this.numRand + " random tests");
+        }
+        return ranCount;
+    }
 
-        // BASE CASE: index is greater than the last index in possibleArgs ->
-        // no args remain -> return one empty combination
-        if (index == possibleArgs.size()) {
-            List<List<APyObj>> combos = new ArrayList<>();
-            combos.add(new ArrayList<APyObj>());
-            return combos;
+    /**
+     * Computes the number of test cases in the random domain that aren't already in the
+     * base set, checking that it is at least numRand. Finding the overlap means checking
+     * every test case in the base set against the random domain, so it's only done when
+     * it can matter: when the base set and the random tests together would fill more
+     * than half of the random domain. Otherwise, neither whether there are enough random
+     * tests nor whether the random domain is nearly saturated (see genRandTests()) can
+     * depend on the overlap, and the whole random domain is counted.
+     *
+     * @param ranCount the number of test cases in the random domain
+     * @param goalSize the goal size of the base set
+     * @return the number of test cases in the random domain that aren't in the base set,
+     * or ranCount if the overlap doesn't matter
+     * @throws IllegalStateException if fewer than numRand test cases in the random
+     *                               domain aren't already in the base set
+     */
+    private long freeRanTestCount(long ranCount, int goalSize) {
+        if (this.baseSet.isEmpty() || !APyNode.nearlySaturated(goalSize, ranCount)) {
+            return ranCount;
         }
 
-        // RECURSIVE CASE: index is within the bounds of possibleArgs ->
-        // Get all combinations of the later args
-        List<List<APyObj>> laterCombos = generateArgCombos(possibleArgs, index + 1);
+        // Every node's random domain is no larger than the whole random domain, which
+        // is now known to be small, so it's cheap to generate
+        List<Set<? extends APyObj>> ranVals = new ArrayList<>();
+        for (APyNode<?> node : this.nodes) {
+            ranVals.add(node.genRanVals());
+        }
+        long overlap = 0;
+        for (TestCase test : this.baseSet) {
+            boolean inRanDomain = true;
+            for (int param = 0; inRanDomain && param < ranVals.size(); param++) {
+                inRanDomain = ranVals.get(param).contains(test.getArgs().get(param));
+            }
+            if (inRanDomain) {
+                overlap++;
+            }
+        }
 
-        // Get all possible args for the current index
-        Set<? extends APyObj> currArgs = possibleArgs.get(index);
+        long freeCount = ranCount - overlap;
+        if (freeCount < this.numRand) {
+            throw new IllegalStateException("the random domain holds only " + freeCount
+                + " test cases that aren't already in the base set, so it cannot supply "
+                + this.numRand + " random tests");
+        }
+        return freeCount;
+    }
 
-        // For every existing combination, add every possible arg in currArs
-        List<List<APyObj>> allCombos = new ArrayList<>();
-        for (APyObj arg : currArgs) {
-            for (List<APyObj> combo : laterCombos) {
-                // Make sure to clone so as to not mutate the original
-                List<APyObj> comboClone = new ArrayList<>(combo);
-                comboClone.add(0, arg);
-                allCombos.add(comboClone);
+    /**
+     * @return true if every node generates its random values uniformly (see
+     * APyNode.isRanUniform()), so that every random test case is equally likely
+     */
+    private boolean isRanUniform() {
+        for (APyNode<?> node : this.nodes) {
+            if (!node.isRanUniform()) {
+                return false;
             }
         }
-        return allCombos;
+        return true;
+    }
+
+    /**
+     * Adds random test cases to the base set until it reaches the goal size, by walking
+     * a random permutation of the indices of the random domain (see genRanTest()) and
+     * skipping the test cases that are already there; the permutation is built lazily,
+     * so only the visited indices cost anything.
+     *
+     * @param rand     the RNG used to build the permutation
+     * @param ranCount the number of test cases in the random domain
+     * @param goalSize the goal size of the base set
+     * @param randSet  the set that each added test case is also added to
+     * @throws IllegalStateException if the whole random domain is visited before the
+     *                               goal size is reached
+     */
+    private void sampleRandTests(RandomGenerator rand, long ranCount, int goalSize,
+        Set<TestCase> randSet) {
+        // Maps each position that has been swapped (Fisher-Yates style) to the index
+        // that is now there; every other position still holds its own index
+        Map<Long, Long> swapped = new HashMap<>();
+        for (long pos = 0; pos < ranCount && this.baseSet.size() < goalSize; pos++) {
+            long pick = pos + rand.nextLong(ranCount - pos);
+            long index = swapped.getOrDefault(pick, pick);
+            swapped.put(pick, swapped.getOrDefault(pos, pos));
+
+            TestCase test = intern(this.genRanTest(index));
+            if (this.baseSet.add(test)) {
+                randSet.add(test);
+            }
+        }
+
+        if (this.baseSet.size() < goalSize) {
+            throw new IllegalStateException("the random domain holds only "
+                + randSet.size() + " test cases that aren't already in the base set, so "
+                + "it cannot supply " + this.numRand + " random tests");
+        }
+    }
+
+    /**
+     * Randomly generates a single chunk of test cases, according to the random domains
+     * stored within the nodes; the test cases may repeat one another, or existing test
+     * cases. Safe to call from multiple threads at once, as long as each has its own RNG.
+     *
+     * @param rand     the RNG stream that every random choice in the chunk is drawn from
+     * @param numTests the number of test cases to generate
+     * @return the generated test cases, in the order in which they were generated
+     */
+    List<TestCase> genRandChunk(RandomGenerator rand, int numTests) {
+        List<TestCase> chunk = new ArrayList<>(numTests);
+        for (int i = 0; i < numTests; i++) {
+
+            // Randomly generate each argument; interning waits until the duplicates
+            // have been dropped (see intern())
+            List<APyObj> args = new ArrayList<>();
+            for (APyNode<?> node : this.nodes) {
+                args.add(node.genRandVal(rand));
+            }
+            chunk.add(new TestCase(args));
+        }
+        return chunk;
+    }
+
+    /**
+     * Randomly generates a single chunk of test cases, recording the position of each
+     * one that isn't already in the base set unless it was generated at an earlier
+     * position (in this chunk or another one).
+     *
+     * @param rand           the RNG stream that every random choice in the chunk is
+     *                       drawn from
+     * @param chunkIdx       the index of the chunk
+     * @param firstPositions maps each new test case to the earliest position at which
+     *                       it has been generated so far
+     */
+    private void genRandChunk(RandomGenerator rand, int chunkIdx,
+        ConcurrentMap<TestCase, Long> firstPositions) {
+        List<TestCase> chunk = this.genRandChunk(rand, CHUNK_SIZE);
+        for (int idx = 0; idx < chunk.size(); idx++) {
+            TestCase test = chunk.get(idx);
+            if (!this.baseSet.contains(test)) {
+                firstPositions.merge(test, (long) chunkIdx * CHUNK_SIZE + idx, Math::min);
+            }
+        }
+    }
+
+    /**
+     * Interns each of a test case's arguments, since random tests tend to repeat the
+     * same values (and elements) many times over.
+     *
+     * @param test the test case
+     * @return an equal test case whose arguments are all interned
+     */
+    private static TestCase intern(TestCase test) {
+        List<APyObj> args = new ArrayList<>();
+        for (APyObj arg : test.getArgs()) {
+            args.add(PyObjInterner.intern(arg));
+        }
+        return new TestCase(args);
     }
 }
\ No newline at end of file
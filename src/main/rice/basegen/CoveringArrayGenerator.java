@@ -0,0 +1,334 @@
+package main.rice.basegen;
+
+import main.rice.node.APyNode;
+import main.rice.obj.APyObj;
+import main.rice.test.TestCase;
+
+import java.util.*;
+
+/**
+ * A class that is used to generate a t-wise covering array over the exhaustive domains
+ * of a function's parameters: a set of test cases in which every combination of
+ * exhaustive values for every t of the parameters appears at least once. Most bugs are
+ * triggered by the interaction of only a few parameters, so a covering array catches
+ * most of what the full cartesian product would, with far fewer test cases.
+ *
+ * <p>The array is built one parameter at a time, as in the IPOG (in-parameter-order)
+ * strategy: it starts with every combination of the first t parameters' values; each
+ * subsequent parameter is first added to the existing rows, choosing for each row the
+ * value that covers the most new combinations ("horizontal growth"), and then any
+ * combinations that are still uncovered are covered by filling in unused slots in the
+ * rows, or by adding new rows ("vertical growth"). The result depends only on the
+ * number of values of each parameter, so it is the same every time.
+ */
+public class CoveringArrayGenerator {
+
+    /**
+     * Marks a slot in a row whose value doesn't matter (yet)
+     */
+    private static final int DONT_CARE = -1;
+
+    /**
+     * The nodes that will be used to generate each parameter's exhaustive values
+     */
+    private final List<APyNode<?>> nodes;
+
+    /**
+     * The number of parameters whose combinations must all be covered, t
+     */
+    private final int strength;
+
+    /**
+     * Constructor for a CoveringArrayGenerator.
+     *
+     * @param nodes    the nodes that will be used to generate each parameter's
+     *                 exhaustive values
+     * @param strength the number of parameters whose combinations must all be covered,
+     *                 t; if this is at least the number of parameters, the covering
+     *                 array is the full cartesian product
+     */
+    public CoveringArrayGenerator(List<APyNode<?>> nodes, int strength) {
+        if (strength < 1) {
+            throw new IllegalArgumentException("strength must be positive");
+        }
+        this.nodes = nodes;
+        this.strength = strength;
+    }
+
+    /**
+     * Generates the covering array, where the i-th argument of each test case is one of
+     * the exhaustive values of the i-th node.
+     *
+     * @return the test cases in the covering array
+     * @throws IllegalStateException if the combinations of values for some t parameters
+     *                               are too many to keep track of
+     */
+    public Set<TestCase> genCoveringArray() {
+        // Generate each parameter's exhaustive values, in index order
+        List<List<? extends APyObj>> vals = new ArrayList<>();
+        int[] sizes = new int[this.nodes.size()];
+        for (int param = 0; param < this.nodes.size(); param++) {
+            List<? extends APyObj> paramVals = this.nodes.get(param).genExValsInOrder();
+            if (paramVals.isEmpty()) {
+                // No test case can have a value for this parameter
+                return new HashSet<>();
+            }
+            vals.add(paramVals);
+            sizes[param] = paramVals.size();
+        }
+
+        // Build the rows of value indices, then look up the values; any slot that still
+        // doesn't matter gets the first value
+        Set<TestCase> tests = new HashSet<>();
+        for (int[] row : buildRows(sizes, this.strength)) {
+            List<APyObj> args = new ArrayList<>();
+            for (int param = 0; param < row.length; param++) {
+                args.add(vals.get(param).get(Math.max(row[param], 0)));
+            }
+            tests.add(new TestCase(args));
+        }
+        return tests;
+    }
+
+    /**
+     * Builds a t-wise covering array over parameters with the given numbers of values.
+     * Each row holds, for each parameter, the index of its value, or DONT_CARE if any
+     * value will do.
+     *
+     * @param sizes    the number of values of each parameter; all positive
+     * @param strength the number of parameters whose combinations must all be covered
+     * @return the rows of the covering array
+     * @throws IllegalStateException if the combinations of values for some t parameters
+     *                               are too many to keep track of
+     */
+    static List<int[]> buildRows(int[] sizes, int strength) {
+        int numParams = sizes.length;
+        int t = Math.min(strength, numParams);
+
+        // Start with every combination of the first t parameters' values
+        List<int[]> rows = new ArrayList<>();
+        int[] row = new int[numParams];
+        Arrays.fill(row, DONT_CARE);
+        addProduct(sizes, t, 0, row, rows);
+
+        // Then add the remaining parameters one at a time
+        for (int param = t; param < numParams; param++) {
+            extend(rows, sizes, param, t);
+        }
+        return rows;
+    }
+
+    /**
+     * Adds a row for every combination of the values of the parameters from param to
+     * numParams - 1, with the earlier parameters' values taken from the input row.
+     *
+     * @param sizes     the number of values of each parameter
+     * @param numParams the number of parameters to combine
+     * @param param     the next parameter to choose a value for
+     * @param row       the values chosen so far
+     * @param rows      the list to add the rows to
+     */
+    private static void addProduct(int[] sizes, int numParams, int param, int[] row,
+        List<int[]> rows) {
+        if (param == numParams) {
+            rows.add(row.clone());
+            return;
+        }
+        for (int val = 0; val < sizes[param]; val++) {
+            row[param] = val;
+            addProduct(sizes, numParams, param + 1, row, rows);
+        }
+        row[param] = DONT_CARE;
+    }
+
+    /**
+     * Adds a parameter to a t-wise covering array over the parameters before it, so that
+     * every combination of its values with the values of any t - 1 earlier parameters
+     * is covered.
+     *
+     * @param rows  the rows of the covering array; modified in place
+     * @param sizes the number of values of each parameter
+     * @param param the parameter to be added
+     * @param t     the number of parameters whose combinations must all be covered
+     */
+    private static void extend(List<int[]> rows, int[] sizes, int param, int t) {
+        // Keep track of the uncovered combinations for each set of t - 1 earlier
+        // parameters, encoded as mixed-radix numbers (see tupleKey())
+        List<int[]> combos = combinations(param, t - 1);
+        List<BitSet> uncovered = new ArrayList<>();
+        for (int[] combo : combos) {
+            int numTuples = sizes[param];
+            for (int other : combo) {
+                try {
+                    numTuples = Math.multiplyExact(numTuples, sizes[other]);
+                } catch (ArithmeticException e) {
+                    throw new IllegalStateException("too many combinations of "
+                        + "exhaustive values to build a " + t + "-wise covering array");
+                }
+            }
+            BitSet tuples = new BitSet(numTuples);
+            tuples.set(0, numTuples);
+            uncovered.add(tuples);
+        }
+
+        // Horizontal growth: give each existing row the value that covers the most
+        // uncovered combinations, leaving it open if no value covers any
+        for (int[] row : rows) {
+            int bestVal = DONT_CARE;
+            int bestGain = 0;
+            for (int val = 0; val < sizes[param]; val++) {
+                int gain = 0;
+                for (int idx = 0; idx < combos.size(); idx++) {
+                    int key = tupleKey(row, combos.get(idx), sizes, param, val);
+                    if (key >= 0 && uncovered.get(idx).get(key)) {
+                        gain++;
+                    }
+                }
+                if (gain > bestGain) {
+                    bestVal = val;
+                    bestGain = gain;
+                }
+            }
+            row[param] = bestVal;
+            markCovered(row, combos, uncovered, sizes, param);
+        }
+
+        // Vertical growth: cover each remaining combination by filling in the open slots
+        // of a compatible row, or else by adding a new row
+        for (int idx = 0; idx < combos.size(); idx++) {
+            int[] combo = combos.get(idx);
+            BitSet tuples = uncovered.get(idx);
+            for (int key = tuples.nextSetBit(0); key >= 0;
+                key = tuples.nextSetBit(key + 1)) {
+                // Decode the combination, starting with the least significant value
+                int[] tuple = new int[combo.length + 1];
+                int rest = key;
+                tuple[combo.length] = rest % sizes[param];
+                rest /= sizes[param];
+                for (int pos = combo.length - 1; pos >= 0; pos--) {
+                    tuple[pos] = rest % sizes[combo[pos]];
+                    rest /= sizes[combo[pos]];
+                }
+
+                int[] target = findCompatibleRow(rows, combo, param, tuple);
+                if (target == null) {
+                    target = new int[sizes.length];
+                    Arrays.fill(target, DONT_CARE);
+                    rows.add(target);
+                }
+                for (int pos = 0; pos < combo.length; pos++) {
+                    target[combo[pos]] = tuple[pos];
+                }
+                target[param] = tuple[combo.length];
+                markCovered(target, combos, uncovered, sizes, param);
+            }
+        }
+    }
+
+    /**
+     * Finds a row that either already has, or has open slots for, the given values.
+     *
+     * @param rows  the rows of the covering array
+     * @param combo the earlier parameters whose values are given
+     * @param param the parameter being added
+     * @param tuple the values of the parameters in combo, followed by the value of param
+     * @return the first compatible row, or null if there is none
+     */
+    private static int[] findCompatibleRow(List<int[]> rows, int[] combo, int param,
+        int[] tuple) {
+        for (int[] row : rows) {
+            boolean compatible = row[param] == DONT_CARE
+                || row[param] == tuple[combo.length];
+            for (int pos = 0; compatible && pos < combo.length; pos++) {
+                int val = row[combo[pos]];
+                compatible = val == DONT_CARE || val == tuple[pos];
+            }
+            if (compatible) {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Marks every combination that a row covers (for the parameter being added) as
+     * covered.
+     *
+     * @param row       the row
+     * @param combos    every set of t - 1 earlier parameters
+     * @param uncovered the uncovered combinations for each set in combos
+     * @param sizes     the number of values of each parameter
+     * @param param     the parameter being added
+     */
+    private static void markCovered(int[] row, List<int[]> combos, List<BitSet> uncovered,
+        int[] sizes, int param) {
+        if (row[param] == DONT_CARE) {
+            return;
+        }
+        for (int idx = 0; idx < combos.size(); idx++) {
+            int key = tupleKey(row, combos.get(idx), sizes, param, row[param]);
+            if (key >= 0) {
+                uncovered.get(idx).clear(key);
+            }
+        }
+    }
+
+    /**
+     * Encodes the combination of a row's values for a set of earlier parameters and a
+     * value for the parameter being added, as a mixed-radix number (with the value for
+     * the parameter being added least significant).
+     *
+     * @param row   the row
+     * @param combo the earlier parameters
+     * @param sizes the number of values of each parameter
+     * @param param the parameter being added
+     * @param val   the value for the parameter being added
+     * @return the encoded combination, or -1 if the row has an open slot for one of the
+     * parameters in combo
+     */
+    private static int tupleKey(int[] row, int[] combo, int[] sizes, int param, int val) {
+        int key = 0;
+        for (int other : combo) {
+            if (row[other] == DONT_CARE) {
+                return -1;
+            }
+            key = key * sizes[other] + row[other];
+        }
+        return key * sizes[param] + val;
+    }
+
+    /**
+     * Lists every way to choose k of the numbers from 0 to n - 1.
+     *
+     * @param n the number of numbers
+     * @param k the number of numbers to choose
+     * @return the combinations, each in increasing order, in lexicographic order
+     */
+    private static List<int[]> combinations(int n, int k) {
+        List<int[]> combos = new ArrayList<>();
+        addCombinations(n, new int[k], 0, 0, combos);
+        return combos;
+    }
+
+    /**
+     * Helper for combinations(): adds every combination that starts with the numbers
+     * already chosen.
+     *
+     * @param n      the number of numbers
+     * @param combo  the numbers chosen so far, in its first pos slots
+     * @param pos    the next slot to fill
+     * @param next   the smallest number that can fill it
+     * @param combos the list to add the combinations to
+     */
+    private static void addCombinations(int n, int[] combo, int pos, int next,
+        List<int[]> combos) {
+        if (pos == combo.length) {
+            combos.add(combo.clone());
+            return;
+        }
+        for (int num = next; num < n; num++) {
+            combo[pos] = num;
+            addCombinations(n, combo, pos + 1, num + 1, combos);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package main.rice.basegen;
+
+/**
+ * The ways that a BaseSetGenerator can combine the parameters' exhaustive values into
+ * the semi-exhaustive test set.
+ */
+public enum ExMode {
+
+    /**
+     * Every combination of the parameters' exhaustive values (the cartesian product),
+     * which grows exponentially with the number of parameters.
+     */
+    PRODUCT,
+
+    /**
+     * A t-wise covering array (see CoveringArrayGenerator): every combination of
+     * exhaustive values for every t of the parameters appears in at least one test case,
+     * which grows roughly logarithmically with the number of parameters.
+     */
+    T_WISE
+}
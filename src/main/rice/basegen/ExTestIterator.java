@@ -0,0 +1,120 @@
+package main.rice.basegen;
+
+import main.rice.node.APyNode;
+import main.rice.obj.APyObj;
+import main.rice.test.TestCase;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator over the semi-exhaustive test set: every combination of arguments
+ * (selecting one valid argument from the exhaustive domain of each parameter), yielded
+ * one TestCase at a time. Rather than building every combination up front, the iterator
+ * keeps a single "odometer" of indices (one per parameter) into the lists of possible
+ * arguments, and advances it after each test case, so besides the possible arguments
+ * themselves it only needs O(#params) memory. Every combination is yielded exactly once,
+ * in the same order as BaseSetGenerator.genExTest() numbers them.
+ */
+public class ExTestIterator implements Iterator<TestCase> {
+
+    /**
+     * A list of lists, where the i-th list contains all possible arguments for the i-th
+     * parameter
+     */
+    private final List<List<? extends APyObj>> possibleArgs;
+
+    /**
+     * The index into each list of possible arguments of the next test case's argument
+     */
+    private final int[] indices;
+
+    /**
+     * Whether there is a next test case
+     */
+    private boolean hasNext;
+
+    /**
+     * Constructor for an ExTestIterator; generates the possible arguments for each
+     * parameter (but not their combinations).
+     *
+     * @param nodes the nodes that will be used to perform generation, one per parameter
+     */
+    public ExTestIterator(List<APyNode<?>> nodes) {
+        this(nodes, 0);
+    }
+
+    /**
+     * Constructor for an ExTestIterator that starts partway through, e.g. to resume an
+     * interrupted run or to cover one shard of the exhaustive domain.
+     *
+     * @param nodes the nodes that will be used to perform generation, one per parameter
+     * @param start the index of the first test case to be yielded
+     */
+    public ExTestIterator(List<APyNode<?>> nodes, long start) {
+        this.possibleArgs = new ArrayList<>();
+        this.hasNext = true;
+        for (APyNode<?> node : nodes) {
+            // Generate the arguments in index order; parameters of the same type share
+            // them (see APyNode.shareExVals())
+            List<? extends APyObj> args = node.genExValsInOrder();
+            this.possibleArgs.add(args);
+            if (args.isEmpty()) {
+                // No combinations at all
+                this.hasNext = false;
+            }
+        }
+
+        // Set the odometer to the starting index, with the last parameter changing
+        // fastest
+        this.indices = new int[nodes.size()];
+        long rest = start;
+        for (int param = this.indices.length - 1; param >= 0 && this.hasNext; param--) {
+            int size = this.possibleArgs.get(param).size();
+            this.indices[param] = (int) (rest % size);
+            rest /= size;
+        }
+        if (rest > 0 || start < 0) {
+            // Past the end
+            this.hasNext = false;
+        }
+    }
+
+    /**
+     * @return true if there is another test case; false otherwise
+     */
+    @Override
+    public boolean hasNext() {
+        return this.hasNext;
+    }
+
+    /**
+     * @return the next test case
+     */
+    @Override
+    public TestCase next() {
+        if (!this.hasNext) {
+            throw new NoSuchElementException();
+        }
+
+        // Select the current argument for each parameter
+        List<APyObj> args = new ArrayList<>(this.indices.length);
+        for (int param = 0; param < this.indices.length; param++) {
+            args.add(this.possibleArgs.get(param).get(this.indices[param]));
+        }
+
+        // Advance the odometer, with the last parameter changing fastest
+        this.hasNext = false;
+        for (int param = this.indices.length - 1; param >= 0; param--) {
+            this.indices[param]++;
+            if (this.indices[param] < this.possibleArgs.get(param).size()) {
+                this.hasNext = true;
+                break;
+            }
+            this.indices[param] = 0;
+        }
+        return new TestCase(args);
+    }
+}
@@ -0,0 +1,175 @@
+package main.rice.concisegen;
+
+import main.rice.test.TestCase;
+import main.rice.test.Tester;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Computes the same concise test set as ConciseSetGenerator, but without first running
+ * every test case on every implementation. Instead, the results matrix is filled in on
+ * demand:
+ *
+ * <p>1. Each implementation is probed with the test cases in order until one of them
+ * catches it. This is enough to find the full set of incorrect implementations (a
+ * correct implementation still has to pass every test case).
+ *
+ * <p>2. The greedy set cover then runs lazily. A test case can cover at most the
+ * still-uncovered implementations that it hasn't been seen to pass; the test case with
+ * the highest such bound has its unknown cells (restricted to uncovered
+ * implementations) filled in, and this repeats until the test case with the highest
+ * bound is fully known. Its bound is then exact and beats every other test case's
+ * bound, so it is exactly the test case that the eager greedy algorithm would pick.
+ *
+ * <p>Cells for implementations that are already covered are never run.
+ */
+public class LazyConciseSetGenerator {
+
+    /**
+     * The tester used to run individual cells
+     */
+    private final Tester tester;
+
+    /**
+     * The number of cells that were run during the last call to setCover()
+     */
+    private int numRun = 0;
+
+    /**
+     * The number of cells that were never run during the last call to setCover()
+     */
+    private int numSkipped = 0;
+
+    /**
+     * The indices of the implementations that were caught during the last call to
+     * setCover()
+     */
+    private Set<Integer> wrongSet = new HashSet<>();
+
+    /**
+     * Constructor for a LazyConciseSetGenerator.
+     *
+     * @param tester the tester used to run individual cells; its expected results must
+     *               already be available
+     */
+    public LazyConciseSetGenerator(Tester tester) {
+        this.tester = tester;
+    }
+
+    /**
+     * Finds an approximately minimal set of test cases that catches every incorrect
+     * implementation, running only the cells that the greedy algorithm needs.
+     *
+     * @return a set of test cases that is an approximately minimal set covering
+     * @throws IOException if the implementations or their output cannot be accessed
+     * @throws InterruptedException if the process is interrupted
+     */
+    public Set<TestCase> setCover() throws IOException, InterruptedException {
+        List<TestCase> tests = this.tester.getTests();
+        this.numRun = 0;
+        this.wrongSet = new HashSet<>();
+
+        int numImpls = this.tester.startOnDemand();
+        Set<TestCase> hittingSet = new HashSet<>();
+        try {
+            // cells[i][j] is whether the j-th test caught the i-th implementation, or
+            // null if that cell hasn't been run
+            Boolean[][] cells = new Boolean[numImpls][tests.size()];
+
+            // Probe each implementation until some test case catches it
+            for (int implIndex = 0; implIndex < numImpls; implIndex++) {
+                for (int testIndex = 0; testIndex < tests.size(); testIndex++) {
+                    if (this.run(cells, testIndex, implIndex)) {
+                        this.wrongSet.add(implIndex);
+                        break;
+                    }
+                }
+            }
+
+            // Select test cases until every incorrect implementation is covered
+            Set<Integer> uncovered = new HashSet<>(this.wrongSet);
+            while (!uncovered.isEmpty()) {
+                // Find the test case that could cover the most uncovered files; ties go
+                // to the lowest index, as in ConciseSetGenerator
+                int bestCase = -1;
+                int bestBound = 0;
+                for (int testIndex = 0; testIndex < tests.size(); testIndex++) {
+                    int bound = 0;
+                    for (int implIndex : uncovered) {
+                        if (cells[implIndex][testIndex] != Boolean.FALSE) {
+                            bound++;
+                        }
+                    }
+                    if (bound > bestBound) {
+                        bestBound = bound;
+                        bestCase = testIndex;
+                    }
+                }
+
+                // If its bound isn't exact yet, fill in its unknown cells and try again
+                boolean exact = true;
+                for (int implIndex : uncovered) {
+                    if (cells[implIndex][bestCase] == null) {
+                        this.run(cells, bestCase, implIndex);
+                        exact = false;
+                    }
+                }
+                if (!exact) {
+                    continue;
+                }
+
+                // Otherwise, select it and remove all covered files
+                final int selected = bestCase;
+                uncovered.removeIf(implIndex -> cells[implIndex][selected]);
+                hittingSet.add(tests.get(selected));
+            }
+        } finally {
+            this.tester.finishOnDemand();
+        }
+
+        this.numSkipped = numImpls * tests.size() - this.numRun;
+        return hittingSet;
+    }
+
+    /**
+     * @return the number of cells that were run during the last call to setCover()
+     */
+    public int getNumRun() {
+        return this.numRun;
+    }
+
+    /**
+     * @return the number of cells that were never run during the last call to
+     * setCover()
+     */
+    public int getNumSkipped() {
+        return this.numSkipped;
+    }
+
+    /**
+     * @return the indices of the implementations that were caught during the last call
+     * to setCover()
+     */
+    public Set<Integer> getWrongSet() {
+        return this.wrongSet;
+    }
+
+    /**
+     * Runs a single cell and records its result.
+     *
+     * @param cells     the results matrix to fill in
+     * @param testIndex the index of the test case to be run
+     * @param implIndex the index of the implementation to be tested
+     * @return true if the test caught the implementation; false otherwise
+     * @throws IOException if the implementation or its output cannot be accessed
+     * @throws InterruptedException if the process is interrupted
+     */
+    private boolean run(Boolean[][] cells, int testIndex, int implIndex)
+        throws IOException, InterruptedException {
+        boolean caught = this.tester.runCell(testIndex, implIndex);
+        cells[implIndex][testIndex] = caught;
+        this.numRun++;
+        return caught;
+    }
+}
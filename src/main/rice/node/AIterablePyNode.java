@@ -5,8 +5,11 @@ import main.rice.obj.APyObj;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.random.RandomGenerator;
 
 /**
  * An abstract class whose instances represent generators for iterable Python objects
@@ -27,6 +30,12 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
      */
     protected APyNode<InnerType> leftChild;
 
+    /**
+     * The number of element sequences built so far while enumerating the exhaustive
+     * domain (see getNumSeqsBuilt())
+     */
+    private final LongAdder numSeqsBuilt = new LongAdder();
+
     /**
      * @return the left child node
      */
@@ -43,27 +52,192 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
      * @return a set of OuterTypes comprising the exhaustive domain
      */
     @Override
-    public Set<OuterType> genExVals() {
-        Set<InnerType> innerVals = this.leftChild.genExVals();
+    protected Set<OuterType> computeExVals() {
+        List<InnerType> innerVals = this.genInnerExVals();
         return this.genPerms(innerVals);
     }
 
+    /**
+     * Lazily generates all valid OuterType objects within the exhaustive domain, one at
+     * a time, in index order; yields the same objects as genExVals(), without ever
+     * holding them all.
+     *
+     * @return an iterator over the exhaustive domain
+     */
+    @Override
+    public Iterator<OuterType> iterExVals() {
+        SequenceIterator<InnerType> seqs = this.newSequenceIterator(
+            this.genInnerExVals());
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return seqs.hasNext();
+            }
+
+            @Override
+            public OuterType next() {
+                List<InnerType> seq = seqs.next();
+                AIterablePyNode.this.numSeqsBuilt.increment();
+                return AIterablePyNode.this.genObj(seq);
+            }
+        };
+    }
+
+    /**
+     * Reports how many element sequences (lists of elements, before they are wrapped in
+     * OuterType objects) enumerating the exhaustive domain has built so far, through
+     * genExVals(), iterExVals(), or genExValAt(), for comparison with
+     * countSeqsBuiltByFilter().
+     *
+     * @return the number of element sequences built so far
+     */
+    public long getNumSeqsBuilt() {
+        return this.numSeqsBuilt.sum();
+    }
+
+    /**
+     * Computes how many element sequences the old generate-then-filter enumeration would
+     * build to enumerate the exhaustive domain once (see
+     * SequenceIterator.countGenerateThenFilter()), for comparison with getNumSeqsBuilt().
+     * Overridden by nodes whose old enumeration dropped repeats along the way.
+     *
+     * @return the number of element sequences the old enumeration would build
+     * @throws ArithmeticException if the number doesn't fit in a long
+     */
+    public long countSeqsBuiltByFilter() {
+        return SequenceIterator.countGenerateThenFilter(this.innerExSize(),
+            this.exDomainMax());
+    }
+
+    /**
+     * Counts an element sequence built by genExValAt() towards getNumSeqsBuilt().
+     */
+    protected void recordSeqBuilt() {
+        this.numSeqsBuilt.increment();
+    }
+
+    /**
+     * Generates all of the distinct elements that the objects in the exhaustive domain
+     * can contain, in index order (see genInnerExValAt()).
+     *
+     * @return the list of possible elements
+     */
+    protected List<InnerType> genInnerExVals() {
+        return this.leftChild.genExValsInOrder();
+    }
+
+    /**
+     * Creates the iterator over the element sequences of the objects in the exhaustive
+     * domain, of exactly the lengths in the exhaustive domain; overridden by nodes whose
+     * objects don't care about the order of their elements.
+     *
+     * @param innerVals the possible elements
+     * @return an iterator over the element sequences
+     */
+    protected SequenceIterator<InnerType> newSequenceIterator(List<InnerType> innerVals) {
+        return new SequenceIterator<>(innerVals, this.exLengths(), false);
+    }
+
+    /**
+     * Computes the number of OuterType objects in the exhaustive domain: for each valid
+     * length L, there are n^L sequences of n possible elements.
+     *
+     * @return the number of OuterType objects in the exhaustive domain
+     * @throws ArithmeticException if the number doesn't fit in a long
+     */
+    @Override
+    public long exSize() {
+        long innerSize = this.innerExSize();
+        long size = 0;
+        for (int length : this.exLengths()) {
+            size = Math.addExact(size, power(innerSize, length));
+        }
+        return size;
+    }
+
+    /**
+     * Generates the index-th OuterType object in the exhaustive domain. Objects are
+     * ordered first by length, and then by the indices of their elements (as a base-n
+     * number, with the first element most significant).
+     *
+     * @param index the index of the object to be generated
+     * @return the index-th OuterType object in the exhaustive domain
+     * @throws IndexOutOfBoundsException if index is not between 0 and exSize() - 1
+     */
+    @Override
+    public OuterType genExValAt(long index) {
+        this.checkExIndex(index, this.estimateExSize());
+        long innerSize = this.estimateInnerExSize();
+
+        // Find the length, then decode the rest of the index one element at a time
+        long rest = index;
+        for (int length : this.exLengths()) {
+            long count = saturatedPower(innerSize, length);
+            if (rest >= count) {
+                rest -= count;
+                continue;
+            }
+
+            List<InnerType> list = new ArrayList<>();
+            for (int idx = length - 1; idx >= 0; idx--) {
+                long place = saturatedPower(innerSize, idx);
+                list.add(this.genInnerExValAt(rest / place));
+                rest %= place;
+            }
+            this.recordSeqBuilt();
+            return this.genObj(list);
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    /**
+     * @return the number of distinct elements that the objects in the exhaustive domain
+     * can contain
+     */
+    protected long innerExSize() {
+        return this.leftChild.exSize();
+    }
+
+    /**
+     * @return the number of distinct elements that the objects in the exhaustive domain
+     * can contain, or Long.MAX_VALUE if it is larger than that
+     */
+    protected long estimateInnerExSize() {
+        try {
+            return this.innerExSize();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Generates the index-th distinct element that the objects in the exhaustive domain
+     * can contain.
+     *
+     * @param index the index of the element to be generated
+     * @return the index-th element
+     */
+    protected InnerType genInnerExValAt(long index) {
+        return this.leftChild.genExValAt(index);
+    }
+
     /**
      * Generates a single valid OuterType object within the random domain; begins by
      * randomly generating a valid length (as constrained by the random domain), and then
      * randomly generates valid elements.
      *
+     * @param rand the RNG used to make the random choices
      * @return a single OuterType object selected from the random domain
      */
     @Override
-    public OuterType genRandVal() {
+    public OuterType genRandVal(RandomGenerator rand) {
         // Randomly select the size, n
-        int length = this.ranDomainChoice().intValue();
+        int length = this.ranDomainChoice(rand).intValue();
 
         // Randomly select n inner values
         List<InnerType> list = new ArrayList<>();
         for (int idx = 0; idx < length; idx++) {
-            InnerType childVal = this.genRandInnerVal();
+            InnerType childVal = this.genRandInnerVal(rand);
             list.add(childVal);
         }
         return this.genObj(list);
@@ -72,10 +246,11 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
     /**
      * Helper function for generating one random InnerType object.
      *
+     * @param rand the RNG used to make the random choices
      * @return a randomly-generated object of type InnerType
      */
-    protected InnerType genRandInnerVal() {
-        return this.leftChild.genRandVal();
+    protected InnerType genRandInnerVal(RandomGenerator rand) {
+        return this.leftChild.genRandVal(rand);
     }
 
     /**
@@ -88,71 +263,22 @@ public abstract class AIterablePyNode<OuterType extends AIterablePyObj<InnerType
     protected abstract OuterType genObj(List<InnerType> innerVals);
 
     /**
-     * Generates all permutations of the specified innerVals of length up to and including
-     * the max value in this.exDomain.
-     *
-     * @param innerVals the set of values that can be contained within the iterable being
-     *                  generated
-     * @return all permutations of the elements in innerVals of length up to and including
-     * the max value in this.exDomain
-     */
-    protected Set<OuterType> genPerms(Set<InnerType> innerVals) {
-        // Create all lists up to (and including) the maximum length
-        int maxLength = this.exDomainMax();
-        Set<OuterType> valPerms = this.genPermsHelper(maxLength, innerVals);
-
-        // Remove lists of lengths that are not found in this.domain
-        Set<OuterType> finalPerms = new HashSet<>();
-        for (OuterType perm : valPerms) {
-            if (this.exDomain.contains(perm.getValue().size())) {
-                finalPerms.add(perm);
-            }
-        }
-        return finalPerms;
-    }
-
-    /**
-     * Helper function for genListPerms; generates all permutations of the specified
-     * innerVals of length up to and including the input size.
+     * Generates all permutations of the specified innerVals whose lengths are in
+     * this.exDomain. Only the requested lengths are built; shorter permutations are
+     * never built on the way to longer ones.
      *
-     * @param size      the max size permutation to be generated
-     * @param innerVals the set of values that can be contained within the iterable being
-     *                  randomly-generated
-     * @return all permutations of innerVals up to and including the max size
-     */
-    private Set<OuterType> genPermsHelper(int size,
-        Set<InnerType> innerVals) {
-
-        // BASE CASE: size 0 -> return a set containing only the empty list
-        if (size == 0) {
-            Set<OuterType> perms = new HashSet<>();
-            perms.add(this.genObj(new ArrayList<>()));
-            return perms;
-        }
-
-        // RECURSIVE CASE:
-        // Get all permutations that are of length size - 1
-        Set<OuterType> oneShorter = genPermsHelper(size - 1, innerVals);
-
-        // Iterate over each shorter list, adding each possible single element to it
-        Set<OuterType> perms = new HashSet<>(oneShorter);
-        for (OuterType listObj : oneShorter) {
-            // Extract the internal ArrayList representation
-            List<InnerType> list = new ArrayList<>(listObj.getValue());
-            if (list.size() < size - 1) {
-                // For efficiency, let's avoid generating duplicates
-                continue;
-            }
-
-            // Construct all new lists that result from adding val (a possible inner val)
-            // to list
-            for (InnerType val : innerVals) {
-                // Make sure to clone list so as not to mutate the original
-                List<InnerType> listClone = new ArrayList<>(list);
-                listClone.add(val);
-                perms.add(this.genObj(listClone));
-            }
+     * @param innerVals the distinct values that can be contained within the iterable
+     *                  being generated
+     * @return all permutations of the elements in innerVals whose lengths are in
+     * this.exDomain
+     */
+    protected Set<OuterType> genPerms(List<InnerType> innerVals) {
+        Set<OuterType> perms = new HashSet<>();
+        SequenceIterator<InnerType> seqs = this.newSequenceIterator(innerVals);
+        while (seqs.hasNext()) {
+            perms.add(this.genObj(seqs.next()));
         }
+        this.numSeqsBuilt.add(seqs.getNumBuilt());
         return perms;
     }
 }
@@ -2,9 +2,22 @@ package main.rice.node;
 
 import main.rice.obj.APyObj;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An abstract class whose instances represent templates for creating Python objects. Each
@@ -27,9 +40,34 @@ public abstract class APyNode<ObjType extends APyObj> {
     protected List<Number> ranDomain;
 
     /**
-     * The RNG used for random generation.
+     * The RNG used for random generation, unless the caller provides its own.
      */
-    protected Random rand = new Random();
+    protected RandomGenerator rand = new Random();
+
+    /**
+     * The memoized results of genExVals() and genExValsInOrder(); may be shared with
+     * structurally identical nodes (see shareExVals()).
+     */
+    private ExValsMemo exValsMemo = new ExValsMemo();
+
+    /**
+     * Counts the changes to this node's exhaustive domain, so that a memoized signature
+     * (see exSignature()) is only rebuilt after a change to this node or one of its
+     * descendants (see exVersion()).
+     */
+    private volatile long exDomainVersion;
+
+    /**
+     * The memoized result of exSignature(), or null if it hasn't been built yet;
+     * replaced (rather than modified) so that it can be read without locking.
+     */
+    private volatile SignatureMemo signatureMemo;
+
+    /**
+     * The memoized result of ranSpace(), or null if it hasn't been built yet; replaced
+     * (rather than modified) so that it can be read without locking.
+     */
+    private volatile RanSpaceMemo ranSpaceMemo;
 
     /**
      * @return the left child node
@@ -52,6 +90,10 @@ public abstract class APyNode<ObjType extends APyObj> {
      */
     public void setExDomain(List<Number> domain) {
         this.exDomain = domain;
+        this.exDomainVersion++;
+
+        // Stop sharing a memoized result that no longer applies to this node
+        this.exValsMemo = new ExValsMemo();
     }
 
     /**
@@ -78,18 +120,329 @@ public abstract class APyNode<ObjType extends APyObj> {
     }
 
     /**
-     * Generates all valid PyObjs of type ObjType within the exhaustive domain.
+     * Generates all valid PyObjs of type ObjType within the exhaustive domain. The
+     * result is memoized until the exhaustive domain of this node or of one of its
+     * descendants changes, and may be shared with structurally identical nodes (see
+     * shareExVals()), so it cannot be modified.
+     *
+     * @return an unmodifiable set of PyObjs of type ObjType comprising the exhaustive
+     * domain
+     */
+    @SuppressWarnings("unchecked")
+    public Set<ObjType> genExVals() {
+        String signature = this.exSignature();
+        ExValsMemo memo = this.exValsMemo;
+        synchronized (memo) {
+            this.refreshExVals(memo, signature);
+            if (memo.vals == null) {
+                memo.vals = Collections.unmodifiableSet(this.computeExVals());
+            }
+            return (Set<ObjType>) memo.vals;
+        }
+    }
+
+    /**
+     * Forgets a memoized result of genExVals() or genExValsInOrder() if it was generated
+     * for a different domain; the caller must hold the memo's lock.
+     *
+     * @param memo      the memo
+     * @param signature the signature (see exSignature()) of this node's domain
+     */
+    private void refreshExVals(ExValsMemo memo, String signature) {
+        if (!signature.equals(memo.signature)) {
+            memo.vals = null;
+            memo.list = null;
+            memo.signature = signature;
+        }
+    }
+
+    /**
+     * Generates all valid PyObjs of type ObjType within the exhaustive domain, without
+     * memoization; called by genExVals() when its memoized result is out of date.
      *
      * @return a set of PyObjs of type ObjType comprising the exhaustive domain
      */
-    public abstract Set<ObjType> genExVals();
+    protected abstract Set<ObjType> computeExVals();
 
     /**
-     * Generates a single valid PyObj of type ObjType within the random domain.
+     * Describes everything that determines the exhaustive domain of this node (see
+     * buildExSignature()). Two nodes with the same signature generate the same
+     * exhaustive values. The signature is memoized until the exhaustive domain of this
+     * node or of one of its descendants changes, so a memoized genExVals() result can
+     * be checked without rebuilding the description of the whole tree.
+     *
+     * @return the signature of this node's exhaustive domain
+     */
+    public String exSignature() {
+        long version = this.exVersion();
+        SignatureMemo memo = this.signatureMemo;
+        if (memo == null || memo.version != version) {
+            memo = new SignatureMemo(version, this.buildExSignature());
+            this.signatureMemo = memo;
+        }
+        return memo.signature;
+    }
+
+    /**
+     * Counts the changes to the exhaustive domains of this node and its descendants.
+     * Each change only ever increases one of the counts, so the total changes whenever
+     * any of the domains does.
+     *
+     * @return the total number of changes to the exhaustive domains in this subtree
+     */
+    private long exVersion() {
+        long version = this.exDomainVersion;
+        if (this.getLeftChild() != null) {
+            version += this.getLeftChild().exVersion();
+        }
+        if (this.getRightChild() != null) {
+            version += this.getRightChild().exVersion();
+        }
+        return version;
+    }
+
+    /**
+     * Builds a description of everything that determines the exhaustive domain of this
+     * node: its class, its exhaustive domain, and the signatures of its children.
+     *
+     * @return the signature of this node's exhaustive domain
+     */
+    protected String buildExSignature() {
+        StringBuilder signature = new StringBuilder(this.getClass().getSimpleName());
+        signature.append(this.exDomain);
+        APyNode<?> left = this.getLeftChild();
+        APyNode<?> right = this.getRightChild();
+        if (left != null || right != null) {
+            signature.append('(');
+            if (left != null) {
+                signature.append(left.exSignature());
+            }
+            if (right != null) {
+                signature.append(", ").append(right.exSignature());
+            }
+            signature.append(')');
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Finds structurally identical subtrees (those with the same exSignature()) among
+     * the input trees, e.g. several parameters of type list(int) with the same domain,
+     * and makes them share a single memoized result of genExVals(), so that their
+     * exhaustive values are only generated once.
+     *
+     * @param nodes the roots of the trees
+     */
+    public static void shareExVals(List<? extends APyNode<?>> nodes) {
+        Map<String, ExValsMemo> memos = new HashMap<>();
+        for (APyNode<?> node : nodes) {
+            shareExVals(node, memos);
+        }
+    }
+
+    /**
+     * Helper for shareExVals(): makes the input node and its descendants share the
+     * memoized result of the first node seen with the same signature.
+     *
+     * @param node  the root of the subtree, or null
+     * @param memos the memoized results seen so far, by signature
+     */
+    private static void shareExVals(APyNode<?> node, Map<String, ExValsMemo> memos) {
+        if (node == null) {
+            return;
+        }
+        node.exValsMemo = memos.computeIfAbsent(node.exSignature(),
+            signature -> node.exValsMemo);
+        shareExVals(node.getLeftChild(), memos);
+        shareExVals(node.getRightChild(), memos);
+    }
+
+    /**
+     * Lazily generates all valid PyObjs of type ObjType within the exhaustive domain, one
+     * at a time; yields the same objects as genExVals(), each exactly once, in index
+     * order (see genExValAt()). Overridden by nodes whose domains are too large to hold
+     * all at once.
+     *
+     * @return an iterator over the exhaustive domain
+     */
+    public Iterator<ObjType> iterExVals() {
+        return this.genExVals().iterator();
+    }
+
+    /**
+     * Lazily generates all valid PyObjs of type ObjType within the exhaustive domain, as
+     * a stream; see iterExVals().
+     *
+     * @return a stream over the exhaustive domain
+     */
+    public Stream<ObjType> streamExVals() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this.iterExVals(),
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Generates all valid PyObjs of type ObjType within the exhaustive domain, in index
+     * order, so that the index-th element is the one returned by genExValAt(index). Like
+     * genExVals(), the result is memoized and may be shared with structurally identical
+     * nodes, so several parameters of the same type only generate their values once;
+     * domains too large to hold should be indexed with genExValAt() instead.
+     *
+     * @return an unmodifiable list of PyObjs of type ObjType comprising the exhaustive
+     * domain
+     */
+    @SuppressWarnings("unchecked")
+    public List<ObjType> genExValsInOrder() {
+        String signature = this.exSignature();
+        ExValsMemo memo = this.exValsMemo;
+        synchronized (memo) {
+            this.refreshExVals(memo, signature);
+            if (memo.list == null) {
+                List<ObjType> vals = new ArrayList<>();
+                this.iterExVals().forEachRemaining(vals::add);
+                memo.list = Collections.unmodifiableList(vals);
+            }
+            return (List<ObjType>) memo.list;
+        }
+    }
+
+    /**
+     * Computes the number of distinct PyObjs in the exhaustive domain, i.e. the size of
+     * the set returned by genExVals(), without generating them.
+     *
+     * @return the number of PyObjs in the exhaustive domain
+     * @throws ArithmeticException if the number doesn't fit in a long
+     */
+    public long exSize() {
+        return this.genExVals().size();
+    }
+
+    /**
+     * Estimates the number of PyObjs in the exhaustive domain before anything is
+     * generated, e.g. to check that a config is feasible. The estimate is exact whenever
+     * exSize() is; if the number doesn't fit in a long, returns Long.MAX_VALUE as an
+     * upper bound rather than throwing.
+     *
+     * @return the number of PyObjs in the exhaustive domain, or Long.MAX_VALUE if it is
+     * larger than that
+     */
+    public long estimateExSize() {
+        try {
+            return this.exSize();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Generates the index-th PyObj in the exhaustive domain, without generating the ones
+     * before it. Each index from 0 to exSize() - 1 yields a different element of the set
+     * returned by genExVals(), always in the same order. If the exhaustive domain is too
+     * large for exSize() to count, the first Long.MAX_VALUE PyObjs in it can still be
+     * generated, i.e. the indices from 0 to estimateExSize() - 1.
+     *
+     * @param index the index of the PyObj to be generated
+     * @return the index-th PyObj in the exhaustive domain
+     * @throws IndexOutOfBoundsException if index is not between 0 and
+     *                                   estimateExSize() - 1
+     */
+    public ObjType genExValAt(long index) {
+        // Leaf domains are small, so it's simplest to generate all of them once and
+        // index into them
+        List<ObjType> vals = this.genExValsInOrder();
+        this.checkExIndex(index, vals.size());
+        return vals.get((int) index);
+    }
+
+    /**
+     * Builds a copy of this tree whose exhaustive domains are this tree's random domains,
+     * so that the random domain can be counted and indexed the same way as the
+     * exhaustive domain (see ranSize() and genRanValAt()).
+     *
+     * @return a copy of this tree with its random domains in place of its exhaustive
+     * domains
+     */
+    public abstract APyNode<ObjType> ranSpace();
+
+    /**
+     * Computes the number of distinct PyObjs in the random domain, i.e. the number of
+     * values that genRandVal() can possibly return. Memoized until the random domain of
+     * this node or of one of its descendants is replaced.
+     *
+     * @return the number of PyObjs in the random domain, or Long.MAX_VALUE if it is
+     * larger than that
+     */
+    public long ranSize() {
+        return this.ranSpaceMemo().size;
+    }
+
+    /**
+     * Generates all PyObjs in the random domain, i.e. every value that genRandVal() can
+     * possibly return. Memoized along with ranSize().
+     *
+     * @return an unmodifiable set of the PyObjs in the random domain
+     */
+    @SuppressWarnings("unchecked")
+    public Set<ObjType> genRanVals() {
+        return ((APyNode<ObjType>) this.ranSpaceMemo().space).genExVals();
+    }
+
+    /**
+     * Decides whether genRandVal() returns every PyObj in the random domain with the
+     * same probability, in which case sampling the random domain by index (see
+     * genRanValAt()) doesn't change the distribution of the generated values. Nodes
+     * that first choose a length, and then the elements, are not uniform in general.
+     *
+     * @return true if random generation is uniform over the random domain
+     */
+    public boolean isRanUniform() {
+        return false;
+    }
+
+    /**
+     * Generates the index-th PyObj in the random domain (in the same order as
+     * genExValAt() would if the random domain were the exhaustive domain). Each index
+     * from 0 to ranSize() - 1 yields a different PyObj.
+     *
+     * @param index the index of the PyObj to be generated
+     * @return the index-th PyObj in the random domain
+     * @throws IndexOutOfBoundsException if index is not between 0 and ranSize() - 1
+     */
+    @SuppressWarnings("unchecked")
+    public ObjType genRanValAt(long index) {
+        return ((APyNode<ObjType>) this.ranSpaceMemo().space).genExValAt(index);
+    }
+
+    /**
+     * Generates a single valid PyObj of type ObjType within the random domain, using
+     * this node's own RNG (see setSeed()).
      *
      * @return a single PyObj of type ObjType selected from the random domain
      */
-    public abstract ObjType genRandVal();
+    public ObjType genRandVal() {
+        return this.genRandVal(this.rand);
+    }
+
+    /**
+     * Generates a single valid PyObj of type ObjType within the random domain, making
+     * every random choice (including those of descendant nodes) with the input RNG, so
+     * that the result depends only on the state of that RNG. Each thread that generates
+     * values in parallel should use its own RNG, e.g. one split from a common
+     * SplittableRandom.
+     *
+     * @param rand the RNG used to make the random choices
+     * @return a single PyObj of type ObjType selected from the random domain
+     */
+    public abstract ObjType genRandVal(RandomGenerator rand);
+
+    /**
+     * Seeds the RNG used by genRandVal(), so that the sequence of values it generates
+     * is reproducible.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.rand = new SplittableRandom(seed);
+    }
 
     /**
      * Finds and returns the maximum value in the exhaustive domain.
@@ -107,14 +460,357 @@ public abstract class APyNode<ObjType extends APyObj> {
         return maxLength;
     }
 
+    /**
+     * Finds the lengths (or sizes) in the exhaustive domain that compound nodes generate
+     * objects of: those from 0 up to the maximum value in the exhaustive domain that
+     * appear in the exhaustive domain.
+     *
+     * @return the valid lengths, in increasing order
+     */
+    protected List<Integer> exLengths() {
+        List<Integer> lengths = new ArrayList<>();
+        int maxLength = this.exDomainMax();
+        for (int length = 0; length <= maxLength; length++) {
+            if (this.exDomain.contains(length)) {
+                lengths.add(length);
+            }
+        }
+        return lengths;
+    }
+
+    /**
+     * Checks that an index into the exhaustive domain is in bounds.
+     *
+     * @param index the index
+     * @param size  the number of PyObjs in the exhaustive domain
+     * @throws IndexOutOfBoundsException if index is not between 0 and size - 1
+     */
+    protected void checkExIndex(long index, long size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index
+                + " out of bounds for exhaustive domain of size " + size);
+        }
+    }
+
+    /**
+     * Computes base to the power exp.
+     *
+     * @param base the base
+     * @param exp  the (non-negative) exponent
+     * @return base to the power exp
+     * @throws ArithmeticException if the result doesn't fit in a long
+     */
+    protected static long power(long base, int exp) {
+        long result = 1;
+        for (int i = 0; i < exp; i++) {
+            result = Math.multiplyExact(result, base);
+        }
+        return result;
+    }
+
+    /**
+     * Computes base to the power exp, returning Long.MAX_VALUE instead of overflowing.
+     * When decoding an index below Long.MAX_VALUE, a saturated count or place value
+     * still gives the right answer, since the true value is larger than the index too.
+     *
+     * @param base the (non-negative) base
+     * @param exp  the (non-negative) exponent
+     * @return base to the power exp, or Long.MAX_VALUE if that doesn't fit in a long
+     */
+    protected static long saturatedPower(long base, int exp) {
+        try {
+            return power(base, exp);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Multiplies two non-negative numbers, returning Long.MAX_VALUE instead of
+     * overflowing.
+     *
+     * @param a the first number
+     * @param b the second number
+     * @return a * b, or Long.MAX_VALUE if that doesn't fit in a long
+     */
+    public static long saturatedMultiply(long a, long b) {
+        if (a == 0 || b == 0) {
+            return 0;
+        }
+        return (a > Long.MAX_VALUE / b) ? Long.MAX_VALUE : a * b;
+    }
+
+    /**
+     * Adds two non-negative numbers, returning Long.MAX_VALUE instead of overflowing.
+     *
+     * @param a the first number
+     * @param b the second number
+     * @return a + b, or Long.MAX_VALUE if that doesn't fit in a long
+     */
+    public static long saturatedAdd(long a, long b) {
+        return (a > Long.MAX_VALUE - b) ? Long.MAX_VALUE : a + b;
+    }
+
+    /**
+     * Computes the number of ways to choose k of n items, returning Long.MAX_VALUE
+     * instead of overflowing (see saturatedPower()).
+     *
+     * @param n the number of items
+     * @param k the number of items to choose
+     * @return n choose k, 0 if k is greater than n, or Long.MAX_VALUE if n choose k
+     * doesn't fit in a long
+     */
+    protected static long saturatedBinomial(long n, int k) {
+        try {
+            return binomial(n, k);
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Computes the number of ways to choose k of n items.
+     *
+     * @param n the number of items
+     * @param k the number of items to choose
+     * @return n choose k, or 0 if k is greater than n
+     * @throws ArithmeticException if the result doesn't fit in a long
+     */
+    protected static long binomial(long n, int k) {
+        if (k < 0 || k > n) {
+            return 0;
+        }
+        BigInteger result = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            result = result.multiply(BigInteger.valueOf(n - i))
+                .divide(BigInteger.valueOf(i + 1));
+        }
+        return result.longValueExact();
+    }
+
+    /**
+     * Chooses numWanted distinct indices between 0 and size - 1, uniformly at random,
+     * without generating the ones that aren't chosen (Robert Floyd's algorithm).
+     *
+     * @param rand      the RNG used to choose the indices
+     * @param size      the number of indices to choose from
+     * @param numWanted the number of indices to choose; at most size
+     * @return the chosen indices
+     */
+    public static Set<Long> sampleIndices(RandomGenerator rand, long size,
+        int numWanted) {
+        Set<Long> indices = new HashSet<>();
+        for (long bound = size - numWanted; bound < size; bound++) {
+            long index = rand.nextLong(bound + 1);
+            if (!indices.add(index)) {
+                indices.add(bound);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Decides whether drawing numWanted distinct values from a space of the given size
+     * by rejecting repeats would waste too many draws, so that the values should be
+     * sampled without replacement instead (see sampleIndices()).
+     *
+     * @param numWanted the number of distinct values wanted
+     * @param size      the number of values in the space
+     * @return true if more than half of the space is wanted
+     */
+    public static boolean nearlySaturated(long numWanted, long size) {
+        return numWanted > size / 2;
+    }
+
+    /**
+     * Finds the rank-th (in lexicographic order) way to choose k of n items.
+     *
+     * @param n    the number of items
+     * @param k    the number of items to choose
+     * @param rank the rank of the combination, between 0 and (n choose k) - 1 (and below
+     *             Long.MAX_VALUE)
+     * @return the indices of the chosen items, in increasing order
+     */
+    protected static List<Long> unrankCombination(long n, int k, long rank) {
+        List<Long> chosen = new ArrayList<>();
+        long next = 0;
+        for (int slot = 0; slot < k; slot++) {
+            // Skip over all of the combinations whose next item is before the chosen one
+            while (true) {
+                long withNext = saturatedBinomial(n - next - 1, k - slot - 1);
+                if (rank < withNext) {
+                    break;
+                }
+                rank -= withNext;
+                next++;
+            }
+            chosen.add(next);
+            next++;
+        }
+        return chosen;
+    }
+
     /**
      * Makes a random choice from the random domain.
      *
+     * @param rand the RNG used to make the choice
      * @return a random element from the random domain
      */
-    protected Number ranDomainChoice() {
+    protected Number ranDomainChoice(RandomGenerator rand) {
         assert (this.ranDomain.size() > 0);
-        int choice = this.rand.nextInt(this.ranDomain.size());
+        int choice = rand.nextInt(this.ranDomain.size());
         return this.ranDomain.get(choice);
     }
-}
\ No newline at end of file
+
+    /**
+     * Copies this node's random domain into both domains of a copy of this node, for
+     * use by ranSpace().
+     *
+     * @param copy a copy of this node, whose children are already copies made by
+     *             ranSpace()
+     * @param <N>  the type of the copy
+     * @return the copy
+     */
+    protected <N extends APyNode<ObjType>> N withRanDomain(N copy) {
+        copy.setExDomain(this.ranDomain);
+        copy.setRanDomain(this.ranDomain);
+        return copy;
+    }
+
+    /**
+     * Returns the memoized result of ranSpace(), rebuilding it if the random domain of
+     * this node or of one of its descendants has been replaced since it was built.
+     *
+     * @return the memoized random space
+     */
+    private RanSpaceMemo ranSpaceMemo() {
+        List<List<Number>> domains = new ArrayList<>();
+        this.collectRanDomains(domains);
+        RanSpaceMemo memo = this.ranSpaceMemo;
+        if (memo == null || !memo.isFor(domains)) {
+            APyNode<ObjType> space = this.ranSpace();
+            memo = new RanSpaceMemo(domains, space, space.estimateExSize());
+            this.ranSpaceMemo = memo;
+        }
+        return memo;
+    }
+
+    /**
+     * Collects the random domains of this node and its descendants, in preorder.
+     *
+     * @param domains the list to add the random domains to
+     */
+    private void collectRanDomains(List<List<Number>> domains) {
+        domains.add(this.ranDomain);
+        if (this.getLeftChild() != null) {
+            this.getLeftChild().collectRanDomains(domains);
+        }
+        if (this.getRightChild() != null) {
+            this.getRightChild().collectRanDomains(domains);
+        }
+    }
+
+    /**
+     * A memoized result of ranSpace(), along with the random domains that it was built
+     * from and the number of PyObjs in it.
+     */
+    private static class RanSpaceMemo {
+
+        /**
+         * The random domains (see collectRanDomains()) that space was built from;
+         * compared by identity, since setRanDomain() replaces a domain rather than
+         * modifying it
+         */
+        private final List<List<Number>> domains;
+
+        /**
+         * The memoized random space
+         */
+        private final APyNode<?> space;
+
+        /**
+         * The number of PyObjs in space, or Long.MAX_VALUE if it is larger than that
+         */
+        private final long size;
+
+        /**
+         * Constructor for a RanSpaceMemo.
+         *
+         * @param domains the random domains that space was built from
+         * @param space   the random space
+         * @param size    the number of PyObjs in space
+         */
+        private RanSpaceMemo(List<List<Number>> domains, APyNode<?> space, long size) {
+            this.domains = domains;
+            this.space = space;
+            this.size = size;
+        }
+
+        /**
+         * @param domains the current random domains of the tree
+         * @return true if this memo was built from exactly those domains
+         */
+        private boolean isFor(List<List<Number>> domains) {
+            if (domains.size() != this.domains.size()) {
+                return false;
+            }
+            for (int idx = 0; idx < domains.size(); idx++) {
+                if (domains.get(idx) != this.domains.get(idx)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A memoized result of exSignature(), along with the version of the exhaustive
+     * domains (see exVersion()) that it was built from.
+     */
+    private static class SignatureMemo {
+
+        /**
+         * The value of exVersion() when signature was built
+         */
+        private final long version;
+
+        /**
+         * The memoized signature
+         */
+        private final String signature;
+
+        /**
+         * Constructor for a SignatureMemo.
+         *
+         * @param version   the value of exVersion() when signature was built
+         * @param signature the signature
+         */
+        private SignatureMemo(long version, String signature) {
+            this.version = version;
+            this.signature = signature;
+        }
+    }
+
+    /**
+     * A memoized result of genExVals() and genExValsInOrder(), along with the signature
+     * of the domain that they were generated for.
+     */
+    private static class ExValsMemo {
+
+        /**
+         * The signature (see exSignature()) of the domain that vals and list were
+         * generated for, or null if nothing has been generated yet
+         */
+        private String signature;
+
+        /**
+         * The memoized result of genExVals(), or null if it hasn't been built yet
+         */
+        private Set<?> vals;
+
+        /**
+         * The memoized result of genExValsInOrder(), or null if it hasn't been built yet
+         */
+        private List<?> list;
+    }
+}
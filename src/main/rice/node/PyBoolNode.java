@@ -2,8 +2,9 @@ package main.rice.node;
 
 import main.rice.obj.PyBoolObj;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * A representation of a leaf node for generating PyBoolObjs. Assumes that the domains
@@ -18,21 +19,44 @@ public class PyBoolNode extends APyNode<PyBoolObj> {
      * @return a set of PyBoolObjs comprising the exhaustive domain
      */
     @Override
-    public Set<PyBoolObj> genExVals() {
-        Set<PyBoolObj> vals = new HashSet<>();
+    protected Set<PyBoolObj> computeExVals() {
+        Set<PyBoolObj> vals = new LinkedHashSet<>();
         for (Number value : this.exDomain) {
-            vals.add(new PyBoolObj((value.intValue() > 0)));
+            vals.add(PyBoolObj.valueOf(value.intValue() > 0));
         }
         return vals;
     }
 
+    /**
+     * Builds a copy of this node whose exhaustive domain is its random domain.
+     *
+     * @return a copy of this node with its random domain in place of its exhaustive
+     * domain
+     */
+    @Override
+    public PyBoolNode ranSpace() {
+        return this.withRanDomain(new PyBoolNode());
+    }
+
+    /**
+     * Random generation chooses uniformly from the random domain, so it is uniform
+     * whenever no two elements of the random domain yield the same value.
+     *
+     * @return true if every element of the random domain yields a different value
+     */
+    @Override
+    public boolean isRanUniform() {
+        return this.ranSize() == this.ranDomain.size();
+    }
+
     /**
      * Generates a single valid PyBoolObj within the random domain.
      *
+     * @param rand the RNG used to make the random choices
      * @return a single PyBoolObj selected from the random domain
      */
     @Override
-    public PyBoolObj genRandVal() {
-        return new PyBoolObj(this.ranDomainChoice().intValue() > 0);
+    public PyBoolObj genRandVal(RandomGenerator rand) {
+        return PyBoolObj.valueOf(this.ranDomainChoice(rand).intValue() > 0);
     }
 }
\ No newline at end of file
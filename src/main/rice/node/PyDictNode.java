@@ -5,8 +5,12 @@ import main.rice.obj.PyDictObj;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * A representation of a node for generating PyDictObjs.
@@ -63,122 +67,233 @@ public class PyDictNode<KeyType extends APyObj, ValType extends APyObj>
 
     /**
      * Generates all valid PyDictObjs within the exhaustive domain; begins by generating
-     * all valid keys and values, and then generates all permutations of (key, value)
-     * pairs of valid length (as constrained by the exhaustive domain).
+     * all valid keys and values, and then builds each dictionary of valid size (as
+     * constrained by the exhaustive domain) exactly once; see iterExVals().
      *
      * @return a set of PyDictObjs comprising the exhaustive domain
      */
     @Override
-    public Set<PyDictObj<KeyType, ValType>> genExVals() {
+    protected Set<PyDictObj<KeyType, ValType>> computeExVals() {
+        Set<PyDictObj<KeyType, ValType>> dicts = new HashSet<>();
+        this.iterExVals().forEachRemaining(dicts::add);
+        return dicts;
+    }
+
+    /**
+     * Lazily generates all valid PyDictObjs within the exhaustive domain, one at a time:
+     * for each valid size k, chooses each combination of k distinct keys, and then each
+     * assignment of values to those keys, which is the same as index order.
+     *
+     * @return an iterator over the exhaustive domain
+     */
+    @Override
+    public Iterator<PyDictObj<KeyType, ValType>> iterExVals() {
         // Generate all valid keys and values
-        Set<KeyType> keyVals = this.leftChild.genExVals();
-        Set<ValType> valVals = this.rightChild.genExVals();
+        List<KeyType> keyVals = this.leftChild.genExValsInOrder();
+        List<ValType> valVals = this.rightChild.genExValsInOrder();
+        return new DictIterator(keyVals, valVals);
+    }
 
-        // Generate all permutations of valid (key, value) pairs of valid length
-        return this.genDictPerms(keyVals, valVals);
+    /**
+     * Computes the number of PyDictObjs in the exhaustive domain: for each valid size k,
+     * there are (K choose k) sets of keys, each of which can be mapped to V^k
+     * combinations of values.
+     *
+     * @return the number of PyDictObjs in the exhaustive domain
+     * @throws ArithmeticException if the number doesn't fit in a long
+     */
+    @Override
+    public long exSize() {
+        long keySize = this.leftChild.exSize();
+        long valSize = this.rightChild.exSize();
+        long size = 0;
+        for (int length : this.exLengths()) {
+            size = Math.addExact(size,
+                Math.multiplyExact(binomial(keySize, length), power(valSize, length)));
+        }
+        return size;
+    }
+
+    /**
+     * Generates the index-th PyDictObj in the exhaustive domain. Dictionaries are ordered
+     * first by size, then lexicographically by the indices of their keys, and then by the
+     * indices of their values (as a base-V number, with the first key's value most
+     * significant).
+     *
+     * @param index the index of the dictionary to be generated
+     * @return the index-th PyDictObj in the exhaustive domain
+     * @throws IndexOutOfBoundsException if index is not between 0 and exSize() - 1
+     */
+    @Override
+    public PyDictObj<KeyType, ValType> genExValAt(long index) {
+        this.checkExIndex(index, this.estimateExSize());
+        long keySize = this.leftChild.estimateExSize();
+        long valSize = this.rightChild.estimateExSize();
+
+        // Find the size, then split the rest of the index into keys and values
+        long rest = index;
+        for (int length : this.exLengths()) {
+            long numVals = saturatedPower(valSize, length);
+            long count = saturatedMultiply(saturatedBinomial(keySize, length), numVals);
+            if (rest >= count) {
+                rest -= count;
+                continue;
+            }
+
+            List<Long> keyIndices = unrankCombination(keySize, length, rest / numVals);
+            long valRest = rest % numVals;
+            Map<KeyType, ValType> map = new HashMap<>();
+            for (int idx = 0; idx < length; idx++) {
+                long place = saturatedPower(valSize, length - idx - 1);
+                map.put(this.leftChild.genExValAt(keyIndices.get(idx)),
+                    this.rightChild.genExValAt(valRest / place));
+                valRest %= place;
+            }
+            return new PyDictObj<>(map);
+        }
+        throw new IllegalStateException("unreachable");
     }
 
     /**
      * Generates a single valid PyDictObj within the random domain; begins by randomly
      * selecting the size, n (number of (key, value) pairs), and then randomly selects
-     * valid (key, value) pairs until there are n unique (key, value) pairs.
+     * valid (key, value) pairs until there are n unique (key, value) pairs. If n is more
+     * than half of the number of possible keys, and the key child generates each of
+     * them with the same probability, the keys are sampled without replacement instead,
+     * which has the same distribution but wastes no time on repeats.
      *
+     * @param rand the RNG used to make the random choices
      * @return a single PyDictObj selected from the random domain
+     * @throws IllegalStateException if the random domain of the keys has fewer than n
+     *                               distinct keys
      */
     @Override
-    public PyDictObj<KeyType, ValType> genRandVal() {
+    public PyDictObj<KeyType, ValType> genRandVal(RandomGenerator rand) {
         // Randomly select the size, n
-        int size = this.ranDomainChoice().intValue();
+        int size = this.ranDomainChoice(rand).intValue();
+        long keySize = this.leftChild.ranSize();
+        if (size > keySize) {
+            throw new IllegalStateException("cannot generate a dictionary of size " + size
+                + " from only " + keySize + " distinct keys");
+        }
 
-        // Randomly select n (key, value) pairs; make sure to continuously monitor the
-        // size, as we could generate the same key twice resulting in the size not
-        // increasing from one iteration to the next
         Map<KeyType, ValType> map = new HashMap<>();
-        while (map.size() < size) {
-            KeyType key = this.leftChild.genRandVal();
-            ValType val = this.rightChild.genRandVal();
-            map.put(key, val);
+        if (nearlySaturated(size, keySize) && this.leftChild.isRanUniform()) {
+            for (long index : sampleIndices(rand, keySize, size)) {
+                map.put(this.leftChild.genRanValAt(index),
+                    this.rightChild.genRandVal(rand));
+            }
+        } else {
+            // Randomly select n (key, value) pairs; make sure to continuously monitor the
+            // size, as we could generate the same key twice resulting in the size not
+            // increasing from one iteration to the next
+            while (map.size() < size) {
+                KeyType key = this.leftChild.genRandVal(rand);
+                ValType val = this.rightChild.genRandVal(rand);
+                map.put(key, val);
+            }
         }
         return new PyDictObj<>(map);
     }
 
     /**
-     * Generate all permutations of sets of (key, value) pairs where key is an element of
-     * keyVals and value is an element of valVals, of size up to and including the input
-     * size.
+     * Builds a copy of this tree whose exhaustive domains are its random domains.
      *
-     * @param size    the max size permutation to be generated
-     * @param keyVals the set of valid keys that can be contained within the dictionary
-     *                being generated
-     * @param valVals the set of valid values that can be contained within the dictionary
-     *                being generated
-     * @return all permutations of valid (key, value) pairs of length up to and including
-     * the input size
+     * @return a copy of this tree with its random domains in place of its exhaustive
+     * domains
+     */
+    @Override
+    public PyDictNode<KeyType, ValType> ranSpace() {
+        return this.withRanDomain(new PyDictNode<>(this.leftChild.ranSpace(),
+            this.rightChild.ranSpace()));
+    }
+
+    /**
+     * Lazily generates the exhaustive domain in canonical order: for each valid size k,
+     * for each combination of k keys (in the order in which they were generated), for
+     * each assignment of values to those keys. Each distinct dictionary is therefore
+     * built exactly once, with no duplicates to discard.
      */
-    private Set<PyDictObj<KeyType, ValType>> genPermsHelper(int size,
-        Set<KeyType> keyVals, Set<ValType> valVals) {
-        // BASE CASE: size 0 -> return a set containing only the empty dictionary
-        if (size == 0) {
-            Set<PyDictObj<KeyType, ValType>> perms = new HashSet<>();
-            perms.add(new PyDictObj<>(new HashMap<>()));
-            return perms;
+    private class DictIterator implements Iterator<PyDictObj<KeyType, ValType>> {
+
+        /**
+         * The valid values
+         */
+        private final List<ValType> valVals;
+
+        /**
+         * The combinations of keys, of each valid size
+         */
+        private final SequenceIterator<KeyType> keySeqs;
+
+        /**
+         * The keys of the dictionaries currently being yielded
+         */
+        private List<KeyType> keys;
+
+        /**
+         * The remaining assignments of values to the current keys; null if there are no
+         * more dictionaries
+         */
+        private SequenceIterator<ValType> valSeqs;
+
+        /**
+         * Constructor for a DictIterator.
+         *
+         * @param keyVals the valid keys
+         * @param valVals the valid values
+         */
+        DictIterator(List<KeyType> keyVals, List<ValType> valVals) {
+            this.valVals = valVals;
+            this.keySeqs = new SequenceIterator<>(keyVals, PyDictNode.this.exLengths(),
+                true);
+            this.nextKeys();
         }
 
-        // RECURSIVE CASE:
-        // Get all permutations that are of length size - 1
-        Set<PyDictObj<KeyType, ValType>> oneShorter =
-            genPermsHelper(size - 1, keyVals, valVals);
-
-        // Iterate over each shorter dictionary, adding each possible single (key,
-        // value) pair to it
-        Set<PyDictObj<KeyType, ValType>> perms = new HashSet<>(oneShorter);
-        for (PyDictObj<KeyType, ValType> dictObj : oneShorter) {
-            // Extract the internal HashMap representation
-            Map<KeyType, ValType> dict = dictObj.getValue();
-            if (dict.size() < size - 1) {
-                // For efficiency, let's avoid generating duplicates
-                continue;
+        /**
+         * @return true if there is another dictionary; false otherwise
+         */
+        @Override
+        public boolean hasNext() {
+            return this.valSeqs != null;
+        }
+
+        /**
+         * @return the next dictionary
+         */
+        @Override
+        public PyDictObj<KeyType, ValType> next() {
+            if (this.valSeqs == null) {
+                throw new NoSuchElementException();
             }
-            
-            // Construct all new dictionaries that result from adding (key, value) to dict
-            for (KeyType key : keyVals) {
-                for (ValType val : valVals) {
-                    // Make sure to clone dict so as not to mutate the original
-                    Map<KeyType, ValType> dictClone = new HashMap<>(dict);
-                    dictClone.put(key, val);
-                    perms.add(new PyDictObj<>(dictClone));
-                }
+
+            // Pair the current keys with the next assignment of values
+            List<ValType> vals = this.valSeqs.next();
+            Map<KeyType, ValType> map = new HashMap<>();
+            for (int idx = 0; idx < vals.size(); idx++) {
+                map.put(this.keys.get(idx), vals.get(idx));
+            }
+
+            if (!this.valSeqs.hasNext()) {
+                this.nextKeys();
             }
+            return new PyDictObj<>(map);
         }
-        return perms;
-    }
 
-    /**
-     * Generates all permutations of sets of (key, value) pairs where key is an element of
-     * keyVals and value is an element of valVals, of size up to and including the max
-     * value in this.exDomain.
-     *
-     * @param keyVals the set of valid keys that can be contained within the dictionary
-     *                being generated
-     * @param valVals the set of valid values that can be contained within the dictionary
-     *                being generated
-     * @return all permutations of valid (key, value) pairs of length up to and including
-     * the max value in this.exDomain
-     */
-    private Set<PyDictObj<KeyType, ValType>> genDictPerms(Set<KeyType> keyVals,
-        Set<ValType> valVals) {
-        // Create all dicts up to (and including) the maximum size
-        int maxLength = this.exDomainMax();
-        Set<PyDictObj<KeyType, ValType>> allPerms =
-            genPermsHelper(maxLength, keyVals, valVals);
-
-        // Remove dicts of sizes that are not found in this.domain
-        Set<PyDictObj<KeyType, ValType>> finalPerms = new HashSet<>();
-        for (PyDictObj<KeyType, ValType> dict : allPerms) {
-            if (this.exDomain.contains((dict.getValue()).size())) {
-                finalPerms.add(dict);
+        /**
+         * Moves on to the next combination of keys that can be assigned values, if any.
+         */
+        private void nextKeys() {
+            this.valSeqs = null;
+            while (this.keySeqs.hasNext()) {
+                this.keys = this.keySeqs.next();
+                SequenceIterator<ValType> seqs = new SequenceIterator<>(this.valVals,
+                    List.of(this.keys.size()), false);
+                if (seqs.hasNext()) {
+                    this.valSeqs = seqs;
+                    return;
+                }
             }
         }
-        return finalPerms;
     }
 }
@@ -2,8 +2,9 @@ package main.rice.node;
 
 import main.rice.obj.PyFloatObj;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * A representation of a leaf node for generating PyFloatObjs.
@@ -16,21 +17,63 @@ public class PyFloatNode extends APyNode<PyFloatObj> {
      * @return a set of PyFloatObjs comprising the exhaustive domain
      */
     @Override
-    public Set<PyFloatObj> genExVals() {
-        Set<PyFloatObj> vals = new HashSet<>();
+    protected Set<PyFloatObj> computeExVals() {
+        Set<PyFloatObj> vals = new LinkedHashSet<>();
         for (Number value : this.exDomain) {
             vals.add(new PyFloatObj(value.doubleValue()));
         }
         return vals;
     }
 
+    /**
+     * Computes the number of distinct PyFloatObjs in the exhaustive domain. Domains
+     * parsed from ranges are strictly increasing, in which case every value is distinct
+     * and nothing needs to be generated.
+     *
+     * @return the number of PyFloatObjs in the exhaustive domain
+     */
+    @Override
+    public long exSize() {
+        Number prev = null;
+        for (Number value : this.exDomain) {
+            if (prev != null && prev.doubleValue() >= value.doubleValue()) {
+                return super.exSize();
+            }
+            prev = value;
+        }
+        return this.exDomain.size();
+    }
+
+    /**
+     * Builds a copy of this node whose exhaustive domain is its random domain.
+     *
+     * @return a copy of this node with its random domain in place of its exhaustive
+     * domain
+     */
+    @Override
+    public PyFloatNode ranSpace() {
+        return this.withRanDomain(new PyFloatNode());
+    }
+
+    /**
+     * Random generation chooses uniformly from the random domain, so it is uniform
+     * whenever no two elements of the random domain yield the same value.
+     *
+     * @return true if every element of the random domain yields a different value
+     */
+    @Override
+    public boolean isRanUniform() {
+        return this.ranSize() == this.ranDomain.size();
+    }
+
     /**
      * Generates a single valid PyFloatObj within the random domain.
      *
+     * @param rand the RNG used to make the random choices
      * @return a single PyFloatObj selected from the random domain
      */
     @Override
-    public PyFloatObj genRandVal() {
-        return new PyFloatObj(this.ranDomainChoice().doubleValue());
+    public PyFloatObj genRandVal(RandomGenerator rand) {
+        return new PyFloatObj(this.ranDomainChoice(rand).doubleValue());
     }
 }
\ No newline at end of file
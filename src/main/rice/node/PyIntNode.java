@@ -2,8 +2,9 @@ package main.rice.node;
 
 import main.rice.obj.PyIntObj;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * A representation of a leaf node for generating PyIntObjs.
@@ -16,21 +17,63 @@ public class PyIntNode extends APyNode<PyIntObj> {
      * @return a set of PyIntObjs comprising the exhaustive domain
      */
     @Override
-    public Set<PyIntObj> genExVals() {
-        Set<PyIntObj> vals = new HashSet<>();
+    protected Set<PyIntObj> computeExVals() {
+        Set<PyIntObj> vals = new LinkedHashSet<>();
         for (Number value : this.exDomain) {
-            vals.add(new PyIntObj(value.intValue()));
+            vals.add(PyIntObj.valueOf(value.intValue()));
         }
         return vals;
     }
 
+    /**
+     * Computes the number of distinct PyIntObjs in the exhaustive domain. Domains parsed
+     * from ranges are strictly increasing, in which case every value is distinct and
+     * nothing needs to be generated.
+     *
+     * @return the number of PyIntObjs in the exhaustive domain
+     */
+    @Override
+    public long exSize() {
+        Number prev = null;
+        for (Number value : this.exDomain) {
+            if (prev != null && prev.intValue() >= value.intValue()) {
+                return super.exSize();
+            }
+            prev = value;
+        }
+        return this.exDomain.size();
+    }
+
+    /**
+     * Builds a copy of this node whose exhaustive domain is its random domain.
+     *
+     * @return a copy of this node with its random domain in place of its exhaustive
+     * domain
+     */
+    @Override
+    public PyIntNode ranSpace() {
+        return this.withRanDomain(new PyIntNode());
+    }
+
+    /**
+     * Random generation chooses uniformly from the random domain, so it is uniform
+     * whenever no two elements of the random domain yield the same value.
+     *
+     * @return true if every element of the random domain yields a different value
+     */
+    @Override
+    public boolean isRanUniform() {
+        return this.ranSize() == this.ranDomain.size();
+    }
+
     /**
      * Generates a single valid PyIntObj within the random domain.
      *
+     * @param rand the RNG used to make the random choices
      * @return a single PyIntObj selected from the random domain
      */
     @Override
-    public PyIntObj genRandVal() {
-        return new PyIntObj(this.ranDomainChoice().intValue());
+    public PyIntObj genRandVal(RandomGenerator rand) {
+        return PyIntObj.valueOf(this.ranDomainChoice(rand).intValue());
     }
 }
\ No newline at end of file
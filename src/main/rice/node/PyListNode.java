@@ -23,6 +23,17 @@ public class PyListNode<InnerType extends APyObj> extends AIterablePyNode<
         this.leftChild = child;
     }
 
+    /**
+     * Builds a copy of this tree whose exhaustive domains are its random domains.
+     *
+     * @return a copy of this tree with its random domains in place of its exhaustive
+     * domains
+     */
+    @Override
+    public PyListNode<InnerType> ranSpace() {
+        return this.withRanDomain(new PyListNode<>(this.leftChild.ranSpace()));
+    }
+
     /**
      * Helper function for generating a PyListObj.
      *
@@ -3,9 +3,11 @@ package main.rice.node;
 import main.rice.obj.APyObj;
 import main.rice.obj.PySetObj;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * A representation of a node for generating PySetObjs.
@@ -28,27 +30,142 @@ public class PySetNode<InnerType extends APyObj> extends AIterablePyNode<
     /**
      * Generates a single valid PySetObj within the random domain; begins by randomly
      * generating a valid length (as constrained by the random domain), and then randomly
-     * generates valid elements. Overridden to disallow duplicates.
+     * generates valid elements. Overridden to disallow duplicates; if n is more than
+     * half of the number of possible elements, and the child generates each of them
+     * with the same probability, the elements are sampled without replacement instead,
+     * which has the same distribution but wastes no time on repeats.
      *
+     * @param rand the RNG used to make the random choices
      * @return a single PySetObj selected from the random domain
+     * @throws IllegalStateException if the random domain of the child has fewer than n
+     *                               distinct elements
      */
     @Override
-    public PySetObj<InnerType> genRandVal() {
+    public PySetObj<InnerType> genRandVal(RandomGenerator rand) {
         // Randomly select the size, n
-        int length = this.ranDomainChoice().intValue();
+        int length = this.ranDomainChoice(rand).intValue();
+        long innerSize = this.leftChild.ranSize();
+        if (length > innerSize) {
+            throw new IllegalStateException("cannot generate a set of size " + length
+                + " from only " + innerSize + " distinct elements");
+        }
 
-        // Randomly select n elements; make sure to continuously monitor the size, as we
-        // could generate the same element twice resulting in the size not increasing
-        // from one iteration to the next
         Set<InnerType> set = new HashSet<>();
-        while (set.size() < length) {
-            InnerType childVal = this.leftChild.genRandVal();
-            set.add(childVal);
+        if (nearlySaturated(length, innerSize) && this.leftChild.isRanUniform()) {
+            for (long index : sampleIndices(rand, innerSize, length)) {
+                set.add(this.leftChild.genRanValAt(index));
+            }
+        } else {
+            // Randomly select n elements; make sure to continuously monitor the size, as
+            // we could generate the same element twice resulting in the size not
+            // increasing from one iteration to the next
+            while (set.size() < length) {
+                InnerType childVal = this.leftChild.genRandVal(rand);
+                set.add(childVal);
+            }
         }
 
         return new PySetObj<>(set);
     }
 
+    /**
+     * Builds a copy of this tree whose exhaustive domains are its random domains.
+     *
+     * @return a copy of this tree with its random domains in place of its exhaustive
+     * domains
+     */
+    @Override
+    public PySetNode<InnerType> ranSpace() {
+        return this.withRanDomain(new PySetNode<>(this.leftChild.ranSpace()));
+    }
+
+    /**
+     * Creates the iterator over the element sequences of the sets in the exhaustive
+     * domain: one per subset of the possible elements, of each size in the exhaustive
+     * domain, so that no set is built more than once.
+     *
+     * @param innerVals the possible elements
+     * @return an iterator over the element sequences
+     */
+    @Override
+    protected SequenceIterator<InnerType> newSequenceIterator(List<InnerType> innerVals) {
+        return new SequenceIterator<>(innerVals, this.exLengths(), true);
+    }
+
+    /**
+     * Computes the number of PySetObjs in the exhaustive domain: for each valid size k,
+     * there are (n choose k) subsets of n possible elements.
+     *
+     * @return the number of PySetObjs in the exhaustive domain
+     * @throws ArithmeticException if the number doesn't fit in a long
+     */
+    @Override
+    public long exSize() {
+        long innerSize = this.innerExSize();
+        long size = 0;
+        for (int length : this.exLengths()) {
+            size = Math.addExact(size, binomial(innerSize, length));
+        }
+        return size;
+    }
+
+    /**
+     * Computes how many element sequences the old generate-then-filter enumeration would
+     * build to enumerate the exhaustive domain once. Unlike for lists, it kept the
+     * partial sets in a set, so repeats were dropped at every level: to extend size
+     * L - 1 to size L, it copied each of the distinct sets of size below L, and then
+     * built one new sequence per element for each of the sets of size L - 1; the empty
+     * sequence is built once at the start.
+     *
+     * @return the number of element sequences the old enumeration would build
+     * @throws ArithmeticException if the number doesn't fit in a long
+     */
+    @Override
+    public long countSeqsBuiltByFilter() {
+        long numElems = this.innerExSize();
+        long count = 1;
+        long shorter = 0;
+        for (int length = 1; length <= this.exDomainMax(); length++) {
+            long ofShorterLength = binomial(numElems, length - 1);
+            shorter = Math.addExact(shorter, ofShorterLength);
+            count = Math.addExact(count, Math.addExact(shorter,
+                Math.multiplyExact(numElems, ofShorterLength)));
+        }
+        return count;
+    }
+
+    /**
+     * Generates the index-th PySetObj in the exhaustive domain. Sets are ordered first by
+     * size, and then lexicographically by the indices of their elements.
+     *
+     * @param index the index of the set to be generated
+     * @return the index-th PySetObj in the exhaustive domain
+     * @throws IndexOutOfBoundsException if index is not between 0 and exSize() - 1
+     */
+    @Override
+    public PySetObj<InnerType> genExValAt(long index) {
+        this.checkExIndex(index, this.estimateExSize());
+        long innerSize = this.estimateInnerExSize();
+
+        // Find the size, then decode the rest of the index as a combination
+        long rest = index;
+        for (int length : this.exLengths()) {
+            long count = saturatedBinomial(innerSize, length);
+            if (rest >= count) {
+                rest -= count;
+                continue;
+            }
+
+            List<InnerType> elems = new ArrayList<>();
+            for (long elemIndex : unrankCombination(innerSize, length, rest)) {
+                elems.add(this.genInnerExValAt(elemIndex));
+            }
+            this.recordSeqBuilt();
+            return this.genObj(elems);
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
     /**
      * Helper function for generating a PyListObj.
      *
@@ -3,9 +3,10 @@ package main.rice.node;
 import main.rice.obj.PyCharObj;
 import main.rice.obj.PyStringObj;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.random.RandomGenerator;
 
 /**
  * A representation of a node for generating PyStringObjs.
@@ -17,6 +18,12 @@ public class PyStringNode extends AIterablePyNode<PyStringObj, PyCharObj> {
      */
     private final String charDomain;
 
+    /**
+     * The distinct characters in the character domain, in order of first appearance;
+     * computed once, since strings in the exhaustive domain index into them repeatedly.
+     */
+    private final List<PyCharObj> distinctChars;
+
     /**
      * Constructor fot a PyStringNode; initializes its character domain.
      *
@@ -24,24 +31,65 @@ public class PyStringNode extends AIterablePyNode<PyStringObj, PyCharObj> {
      */
     public PyStringNode(String charDomain) {
         this.charDomain = charDomain;
+        Set<PyCharObj> chars = new LinkedHashSet<>();
+        for (char ch : charDomain.toCharArray()) {
+            chars.add(PyCharObj.valueOf(ch));
+        }
+        this.distinctChars = List.copyOf(chars);
     }
 
     /**
-     * Generates all valid PyStringObjs within the exhaustive domain; begins by generating
-     * all valid characters, and then finds all permutations of them of valid length (as
-     * constrained by the exhaustive domain).
+     * Builds a description of everything that determines the exhaustive domain of this
+     * node, including the character domain.
      *
-     * @return a set of PyStringObjs comprising the exhaustive domain
+     * @return the signature of this node's exhaustive domain
      */
     @Override
-    public Set<PyStringObj> genExVals() {
-        // Convert charDomain from a String to a list of each individual character
-        // in that string
-        Set<PyCharObj> innerVals =
-            new HashSet<>(new PyStringObj(this.charDomain).getValue());
+    protected String buildExSignature() {
+        return super.buildExSignature() + this.charDomain.length() + ":"
+            + this.charDomain;
+    }
 
-        // Get all permutations in the form of a list of lists of characters
-        return this.genPerms(innerVals);
+    /**
+     * Generates all valid characters, from which the PyStringObjs in the exhaustive
+     * domain are built.
+     *
+     * @return the distinct characters in the character domain, in order of first
+     * appearance
+     */
+    @Override
+    protected List<PyCharObj> genInnerExVals() {
+        return this.distinctChars;
+    }
+
+    /**
+     * @return the number of distinct characters in the character domain
+     */
+    @Override
+    protected long innerExSize() {
+        return this.distinctChars.size();
+    }
+
+    /**
+     * Generates the index-th distinct character in the character domain.
+     *
+     * @param index the index of the character to be generated
+     * @return the index-th character
+     */
+    @Override
+    protected PyCharObj genInnerExValAt(long index) {
+        return this.distinctChars.get((int) index);
+    }
+
+    /**
+     * Builds a copy of this node whose exhaustive domain is its random domain.
+     *
+     * @return a copy of this node with its random domain in place of its exhaustive
+     * domain
+     */
+    @Override
+    public PyStringNode ranSpace() {
+        return this.withRanDomain(new PyStringNode(this.charDomain));
     }
 
     /**
@@ -58,11 +106,12 @@ public class PyStringNode extends AIterablePyNode<PyStringObj, PyCharObj> {
     /**
      * Helper function for generating one random PyCharObj object.
      *
+     * @param rand the RNG used to make the random choices
      * @return a randomly-generated object of type PyCharObj from this.charDomain
      */
     @Override
-    protected PyCharObj genRandInnerVal() {
-        int choice = this.rand.nextInt(this.charDomain.length());
-        return new PyCharObj(this.charDomain.charAt(choice));
+    protected PyCharObj genRandInnerVal(RandomGenerator rand) {
+        int choice = rand.nextInt(this.charDomain.length());
+        return PyCharObj.valueOf(this.charDomain.charAt(choice));
     }
 }
\ No newline at end of file
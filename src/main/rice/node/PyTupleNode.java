@@ -23,6 +23,17 @@ public class PyTupleNode<InnerType extends APyObj> extends
         this.leftChild = child;
     }
 
+    /**
+     * Builds a copy of this tree whose exhaustive domains are its random domains.
+     *
+     * @return a copy of this tree with its random domains in place of its exhaustive
+     * domains
+     */
+    @Override
+    public PyTupleNode<InnerType> ranSpace() {
+        return this.withRanDomain(new PyTupleNode<>(this.leftChild.ranSpace()));
+    }
+
     /**
      * Helper function for generating a PyTupleObj.
      *
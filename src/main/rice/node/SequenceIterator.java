@@ -0,0 +1,191 @@
+package main.rice.node;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator over all of the sequences of a given set of lengths whose elements are
+ * drawn from a given list, as used to enumerate the exhaustive domain of an iterable
+ * node. Rather than building every shorter sequence on the way to the longest one (and
+ * then throwing away the lengths that weren't asked for), it keeps a single "odometer"
+ * of indices into the list of elements, so it builds only the sequences that it yields.
+ *
+ * <p>In combinations mode, only sequences whose element indices are strictly increasing
+ * are yielded, i.e. one sequence per subset of the elements, as needed for sets.
+ *
+ * @param <T> the type of the elements
+ */
+public class SequenceIterator<T> implements Iterator<List<T>> {
+
+    /**
+     * The possible elements
+     */
+    private final List<T> elems;
+
+    /**
+     * The lengths of the sequences to be yielded, in the order in which to yield them
+     */
+    private final List<Integer> lengths;
+
+    /**
+     * Whether to yield only sequences with strictly increasing element indices
+     */
+    private final boolean combinations;
+
+    /**
+     * The index within lengths of the length currently being yielded
+     */
+    private int lengthIndex = -1;
+
+    /**
+     * The element indices of the next sequence to be yielded
+     */
+    private int[] indices;
+
+    /**
+     * Whether there is a next sequence
+     */
+    private boolean hasNext;
+
+    /**
+     * The number of sequences built so far
+     */
+    private long numBuilt = 0;
+
+    /**
+     * Constructor for a SequenceIterator.
+     *
+     * @param elems        the possible elements
+     * @param lengths      the lengths of the sequences to be yielded
+     * @param combinations true to yield one sequence per subset of the elements; false
+     *                     to yield every sequence
+     */
+    public SequenceIterator(List<T> elems, List<Integer> lengths, boolean combinations) {
+        this.elems = elems;
+        this.lengths = lengths;
+        this.combinations = combinations;
+        this.nextLength();
+    }
+
+    /**
+     * @return true if there is another sequence; false otherwise
+     */
+    @Override
+    public boolean hasNext() {
+        return this.hasNext;
+    }
+
+    /**
+     * @return the next sequence, as a new list
+     */
+    @Override
+    public List<T> next() {
+        if (!this.hasNext) {
+            throw new NoSuchElementException();
+        }
+
+        List<T> seq = new ArrayList<>(this.indices.length);
+        for (int index : this.indices) {
+            seq.add(this.elems.get(index));
+        }
+        this.numBuilt++;
+
+        if (this.combinations) {
+            this.advanceCombination();
+        } else {
+            this.advanceSequence();
+        }
+        return seq;
+    }
+
+    /**
+     * @return the number of sequences built so far
+     */
+    public long getNumBuilt() {
+        return this.numBuilt;
+    }
+
+    /**
+     * Computes the number of sequences (lists of elements) that are built by the old
+     * enumeration, which generated every sequence up to the maximum length and then
+     * filtered out the lengths that weren't asked for, for comparison with
+     * getNumBuilt(). To extend length L - 1 to length L, it copied the elements of every
+     * sequence built so far (of every length up to L - 1), and then built one new
+     * sequence per element for each of the sequences of length L - 1; the empty
+     * sequence is built once at the start.
+     *
+     * @param numElems  the number of possible elements
+     * @param maxLength the maximum length asked for
+     * @return the number of sequences that the old enumeration builds
+     * @throws ArithmeticException if the number doesn't fit in a long
+     */
+    public static long countGenerateThenFilter(long numElems, int maxLength) {
+        long count = 1;
+        long shorter = 1;
+        long ofLength = 1;
+        for (int length = 1; length <= maxLength; length++) {
+            ofLength = Math.multiplyExact(ofLength, numElems);
+            count = Math.addExact(count, Math.addExact(shorter, ofLength));
+            shorter = Math.addExact(shorter, ofLength);
+        }
+        return count;
+    }
+
+    /**
+     * Moves on to the next length for which there is at least one sequence, resetting
+     * the odometer.
+     */
+    private void nextLength() {
+        this.hasNext = false;
+        while (++this.lengthIndex < this.lengths.size()) {
+            int length = this.lengths.get(this.lengthIndex);
+            boolean possible = this.combinations ? length <= this.elems.size()
+                : (length == 0 || !this.elems.isEmpty());
+            if (length >= 0 && possible) {
+                this.indices = new int[length];
+                if (this.combinations) {
+                    for (int idx = 0; idx < length; idx++) {
+                        this.indices[idx] = idx;
+                    }
+                }
+                this.hasNext = true;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Advances the odometer to the next sequence, with the last element changing
+     * fastest.
+     */
+    private void advanceSequence() {
+        for (int idx = this.indices.length - 1; idx >= 0; idx--) {
+            this.indices[idx]++;
+            if (this.indices[idx] < this.elems.size()) {
+                return;
+            }
+            this.indices[idx] = 0;
+        }
+        this.nextLength();
+    }
+
+    /**
+     * Advances the odometer to the next combination, in lexicographic order.
+     */
+    private void advanceCombination() {
+        int length = this.indices.length;
+        int numElems = this.elems.size();
+        for (int idx = length - 1; idx >= 0; idx--) {
+            if (this.indices[idx] < numElems - length + idx) {
+                this.indices[idx]++;
+                for (int later = idx + 1; later < length; later++) {
+                    this.indices[later] = this.indices[later - 1] + 1;
+                }
+                return;
+            }
+        }
+        this.nextLength();
+    }
+}
@@ -1,6 +1,8 @@
 package main.rice.obj;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * An abstract class representing an iterable Python object (list, tuple, set, or
@@ -22,4 +24,21 @@ public abstract class AIterablePyObj<InnerType extends APyObj> extends APyObj {
     public Collection<InnerType> getValue() {
         return this.value;
     }
+
+    /**
+     * Helper for internElements(): interns each of the elements of this iterable object.
+     *
+     * @return the canonical instances of the elements, in order, or null if every
+     * element is already canonical
+     */
+    List<InnerType> internedElements() {
+        List<InnerType> elems = new ArrayList<>(this.value.size());
+        boolean changed = false;
+        for (InnerType elem : this.value) {
+            InnerType canonical = PyObjInterner.intern(elem);
+            changed |= (canonical != elem);
+            elems.add(canonical);
+        }
+        return changed ? elems : null;
+    }
 }
@@ -1,10 +1,27 @@
 package main.rice.obj;
 
 /**
- * An abstract class whose instances represent specific Python objects.
+ * An abstract class whose instances represent specific Python objects. Every APyObj is
+ * immutable (compound objects copy their contents on construction and expose them only
+ * through unmodifiable views), so its hash code is computed at most once.
  */
 public abstract class APyObj {
 
+    /**
+     * Whether this is the canonical instance of its value (see PyObjInterner)
+     */
+    boolean interned = false;
+
+    /**
+     * The cached hash code, or 0 if it hasn't been computed yet (or is 0; see hashIsZero)
+     */
+    private int hash = 0;
+
+    /**
+     * Whether the hash code has been computed and turned out to be 0
+     */
+    private boolean hashIsZero = false;
+
     /**
      * @return the underlying (Java) representation of this Python object
      */
@@ -27,23 +44,61 @@ public abstract class APyObj {
      */
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
         // If obj is the wrong type, it's clearly not equivalent
         if (!(obj instanceof APyObj)) {
             return false;
         }
 
+        // Two different canonical instances of the same class can't be equal, and
+        // neither can two objects with different hash codes (which are cheap to compare,
+        // since they're cached)
+        APyObj other = (APyObj) obj;
+        if (this.interned && other.interned && this.getClass() == other.getClass()) {
+            return false;
+        }
+        if (this.hashCode() != other.hashCode()) {
+            return false;
+        }
+
         // Compare by value
-        return this.getValue().equals(((APyObj) obj).getValue());
+        return this.getValue().equals(other.getValue());
     }
 
     /**
      * Computes a hash code based on this object's value, such that two objects that are
-     * considered equal by .equals() will also have the same hash code.
+     * considered equal by .equals() will also have the same hash code. Since this object
+     * is immutable, the hash code is only computed the first time; for compound objects,
+     * this saves walking the whole nested structure every time the object is added to
+     * or looked up in a hash-based collection.
      *
      * @return the hash code for this object
      */
     @Override
     public int hashCode() {
-        return this.getValue().hashCode();
+        int hash = this.hash;
+        if (hash == 0 && !this.hashIsZero) {
+            hash = this.getValue().hashCode();
+            if (hash == 0) {
+                this.hashIsZero = true;
+            } else {
+                this.hash = hash;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Helper for PyObjInterner.intern(): builds an object equal to this one whose
+     * elements (if any) are all canonical instances.
+     *
+     * @return this, if it has no elements or they are already canonical; otherwise a
+     * copy of this containing the canonical instances of its elements
+     */
+    APyObj internElements() {
+        return this;
     }
 }
\ No newline at end of file
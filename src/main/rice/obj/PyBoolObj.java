@@ -5,6 +5,16 @@ package main.rice.obj;
  */
 public class PyBoolObj extends APyObj {
 
+    /**
+     * The canonical instance representing True
+     */
+    private static final PyBoolObj TRUE = PyObjInterner.intern(new PyBoolObj(true));
+
+    /**
+     * The canonical instance representing False
+     */
+    private static final PyBoolObj FALSE = PyObjInterner.intern(new PyBoolObj(false));
+
     /**
      * The value of this PyBoolObj.
      */
@@ -19,6 +29,16 @@ public class PyBoolObj extends APyObj {
         this.value = value;
     }
 
+    /**
+     * Returns the canonical PyBoolObj with the input value.
+     *
+     * @param value the value of the PyBoolObj
+     * @return the canonical PyBoolObj with the input value
+     */
+    public static PyBoolObj valueOf(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
     /**
      * @return the underlying (Java Boolean) representation of this PyBoolObj
      */
@@ -6,6 +6,17 @@ package main.rice.obj;
  */
 public class PyCharObj extends APyObj {
 
+    /**
+     * The canonical instances of the Latin-1 characters, which are cached by valueOf()
+     */
+    private static final PyCharObj[] CACHE = new PyCharObj[256];
+
+    static {
+        for (int idx = 0; idx < CACHE.length; idx++) {
+            CACHE[idx] = PyObjInterner.intern(new PyCharObj((char) idx));
+        }
+    }
+
     /**
      * The value of this PyCharObj.
      */
@@ -20,6 +31,20 @@ public class PyCharObj extends APyObj {
         this.value = value;
     }
 
+    /**
+     * Returns a PyCharObj with the input value; Latin-1 characters share a single
+     * canonical instance.
+     *
+     * @param value the value of the PyCharObj
+     * @return a PyCharObj with the input value
+     */
+    public static PyCharObj valueOf(char value) {
+        if (value < CACHE.length) {
+            return CACHE[value];
+        }
+        return new PyCharObj(value);
+    }
+
     /**
      * @return the underlying (Java Character) representation of this PyCharObj
      */
@@ -1,5 +1,7 @@
 package main.rice.obj;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -16,12 +18,13 @@ public class PyDictObj<KeyType extends APyObj, ValType extends APyObj> extends A
     private final Map<KeyType, ValType> value;
 
     /**
-     * Constructor for a PyDictObj; initializes its value to the input.
+     * Constructor for a PyDictObj; initializes its value to an unmodifiable copy of the
+     * input, which keeps the input's iteration order.
      *
      * @param value the value of this PyDictObj
      */
     public PyDictObj(Map<KeyType, ValType> value) {
-        this.value = value;
+        this.value = Collections.unmodifiableMap(new LinkedHashMap<>(value));
     }
 
     /**
@@ -46,4 +49,24 @@ public class PyDictObj<KeyType extends APyObj, ValType extends APyObj> extends A
         // it, since it's a more elegant solution.
         return this.value.toString().replace("=", ": ");
     }
+
+    /**
+     * Helper for PyObjInterner.intern(): builds a PyDictObj equal to this one whose keys
+     * and values are all canonical instances.
+     *
+     * @return this, if its keys and values are already canonical; otherwise a copy of
+     * this containing the canonical instances of its keys and values, in the same order
+     */
+    @Override
+    APyObj internElements() {
+        Map<KeyType, ValType> map = new LinkedHashMap<>();
+        boolean changed = false;
+        for (Map.Entry<KeyType, ValType> entry : this.value.entrySet()) {
+            KeyType key = PyObjInterner.intern(entry.getKey());
+            ValType val = PyObjInterner.intern(entry.getValue());
+            changed |= (key != entry.getKey() || val != entry.getValue());
+            map.put(key, val);
+        }
+        return changed ? new PyDictObj<>(map) : this;
+    }
 }
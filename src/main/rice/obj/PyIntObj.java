@@ -5,6 +5,27 @@ package main.rice.obj;
  */
 public class PyIntObj extends APyObj {
 
+    /**
+     * The smallest value whose canonical instance is cached by valueOf()
+     */
+    private static final int CACHE_MIN = -128;
+
+    /**
+     * The largest value whose canonical instance is cached by valueOf()
+     */
+    private static final int CACHE_MAX = 1023;
+
+    /**
+     * The canonical instances of the values from CACHE_MIN to CACHE_MAX
+     */
+    private static final PyIntObj[] CACHE = new PyIntObj[CACHE_MAX - CACHE_MIN + 1];
+
+    static {
+        for (int idx = 0; idx < CACHE.length; idx++) {
+            CACHE[idx] = PyObjInterner.intern(new PyIntObj(CACHE_MIN + idx));
+        }
+    }
+
     /**
      * The value of this PyIntObj.
      */
@@ -19,6 +40,20 @@ public class PyIntObj extends APyObj {
         this.value = value;
     }
 
+    /**
+     * Returns a PyIntObj with the input value; small values (as are typical of
+     * exhaustive domains) share a single canonical instance, like Integer.valueOf().
+     *
+     * @param value the value of the PyIntObj
+     * @return a PyIntObj with the input value
+     */
+    public static PyIntObj valueOf(int value) {
+        if (value >= CACHE_MIN && value <= CACHE_MAX) {
+            return CACHE[value - CACHE_MIN];
+        }
+        return new PyIntObj(value);
+    }
+
     /**
      * @return the underlying (Java Integer) representation of this PyIntObj
      */
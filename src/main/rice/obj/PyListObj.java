@@ -1,5 +1,7 @@
 package main.rice.obj;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,12 +12,13 @@ import java.util.List;
 public class PyListObj<InnerType extends APyObj> extends AIterablePyObj<InnerType> {
 
     /**
-     * Constructor for a PyListObj; initializes its value to the input.
+     * Constructor for a PyListObj; initializes its value to an unmodifiable copy of the
+     * input.
      *
      * @param value the value of this PyListObj
      */
     public PyListObj(List<InnerType> value) {
-        this.value = value;
+        this.value = Collections.unmodifiableList(new ArrayList<>(value));
     }
 
     /**
@@ -44,4 +47,17 @@ public class PyListObj<InnerType extends APyObj> extends AIterablePyObj<InnerTyp
         }
         return super.equals(obj);
     }
-}
\ No newline at end of file
+
+    /**
+     * Helper for PyObjInterner.intern(): builds a PyListObj equal to this one whose
+     * elements are all canonical instances.
+     *
+     * @return this, if its elements are already canonical; otherwise a copy of this
+     * containing the canonical instances of its elements
+     */
+    @Override
+    APyObj internElements() {
+        List<InnerType> elems = this.internedElements();
+        return (elems == null) ? this : new PyListObj<>(elems);
+    }
+}
@@ -0,0 +1,74 @@
+package main.rice.obj;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Hash-conses APyObjs, so that equal objects can share a single canonical instance: a
+ * large base set holds many equal arguments (and many equal elements within them), and
+ * without interning each one is a separate copy. Interning is deep; the canonical
+ * instance of a compound object only ever contains canonical elements, so equal elements
+ * are shared too.
+ *
+ * <p>Canonical instances are only weakly held, so they are freed once nothing else
+ * refers to them. They must not be mutated, since other code may be sharing them.
+ *
+ * <p>Objects are only ever interned with objects of exactly the same class, since e.g.
+ * a PyStringObj can be equal by value to a PyListObj of PyCharObjs.
+ */
+public final class PyObjInterner {
+
+    /**
+     * The canonical instances, keyed by class; each canonical instance maps to a weak
+     * reference to itself, so that its entry disappears once it is no longer used
+     */
+    private static final Map<Class<?>, Map<APyObj, WeakReference<APyObj>>> TABLES =
+        new HashMap<>();
+
+    /**
+     * Constructor for a PyObjInterner; never called, since all of its methods are static.
+     */
+    private PyObjInterner() {
+    }
+
+    /**
+     * Finds the canonical instance equal to the input object, first making the input
+     * object (or an equal copy of it, whose elements are canonical) the canonical
+     * instance if there isn't one yet.
+     *
+     * @param obj the object to be interned
+     * @param <T> the type of the object
+     * @return the canonical instance that is equal to obj
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T extends APyObj> T intern(T obj) {
+        if (obj.interned) {
+            return obj;
+        }
+
+        Map<APyObj, WeakReference<APyObj>> table = TABLES.computeIfAbsent(obj.getClass(),
+            cls -> new WeakHashMap<>());
+        WeakReference<APyObj> ref = table.get(obj);
+        APyObj canonical = (ref == null) ? null : ref.get();
+        if (canonical == null) {
+            // Intern the elements first, so that they are shared too
+            canonical = obj.internElements();
+            canonical.interned = true;
+            table.put(canonical, new WeakReference<>(canonical));
+        }
+        return (T) canonical;
+    }
+
+    /**
+     * @return the number of canonical instances that are currently alive
+     */
+    public static synchronized int size() {
+        int size = 0;
+        for (Map<APyObj, WeakReference<APyObj>> table : TABLES.values()) {
+            size += table.size();
+        }
+        return size;
+    }
+}
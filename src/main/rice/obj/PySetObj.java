@@ -1,5 +1,8 @@
 package main.rice.obj;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -10,12 +13,13 @@ import java.util.Set;
 public class PySetObj<InnerType extends APyObj> extends AIterablePyObj<InnerType> {
 
     /**
-     * Constructor for a PySetObj; initializes its value.
+     * Constructor for a PySetObj; initializes its value to an unmodifiable copy of the
+     * input, which keeps the input's iteration order.
      *
      * @param value a set whose contents will become the value of this PySetObj
      */
     public PySetObj(Set<InnerType> value) {
-        this.value = value;
+        this.value = Collections.unmodifiableSet(new LinkedHashSet<>(value));
     }
 
     /**
@@ -34,4 +38,17 @@ public class PySetObj<InnerType extends APyObj> extends AIterablePyObj<InnerType
         String valueStr = this.value.toString();
         return "{" + valueStr.substring(1, valueStr.length() - 1) + "}";
     }
+
+    /**
+     * Helper for PyObjInterner.intern(): builds a PySetObj equal to this one whose
+     * elements are all canonical instances.
+     *
+     * @return this, if its elements are already canonical; otherwise a copy of this
+     * containing the canonical instances of its elements, in the same order
+     */
+    @Override
+    APyObj internElements() {
+        List<InnerType> elems = this.internedElements();
+        return (elems == null) ? this : new PySetObj<>(new LinkedHashSet<>(elems));
+    }
 }
@@ -1,13 +1,26 @@
 package main.rice.obj;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
+import java.util.RandomAccess;
 
 /**
- * A representation of Python objects of type string.
+ * A representation of Python objects of type string. The characters are stored as a
+ * single Java String rather than as one PyCharObj per character; getValue() presents
+ * them as an (unmodifiable) list of PyCharObjs, created on demand.
  */
 public class PyStringObj extends AIterablePyObj<PyCharObj> {
 
+    /**
+     * The characters of this PyStringObj
+     */
+    private final String chars;
+
+    /**
+     * The string representation of this object, or null if it hasn't been built yet
+     */
+    private String repr;
+
     /**
      * Constructor for a PySetObj; initializes its value to a list containing each
      * character in the input String.
@@ -15,10 +28,8 @@ public class PyStringObj extends AIterablePyObj<PyCharObj> {
      * @param value the sequence of characters representing the value of this PySetObj
      */
     public PyStringObj(String value) {
-        this.value = new ArrayList<>();
-        for (int idx = 0; idx < value.length(); idx++) {
-            this.value.add(new PyCharObj(value.charAt(idx)));
-        }
+        this.chars = value;
+        this.value = new CharList();
     }
 
     /**
@@ -27,23 +38,84 @@ public class PyStringObj extends AIterablePyObj<PyCharObj> {
      * @param value the value of this PySetObj
      */
     public PyStringObj(List<PyCharObj> value) {
-        this.value = value;
+        StringBuilder sb = new StringBuilder(value.size());
+        for (PyCharObj character : value) {
+            sb.append(character.getValue());
+        }
+        this.chars = sb.toString();
+        this.value = new CharList();
+    }
+
+    /**
+     * @return the characters of this PyStringObj, as a Java String
+     */
+    public String getString() {
+        return this.chars;
     }
 
     /**
      * Builds and returns a string representation of this object that mirrors the Python
      * string representation; uses single quotes for compatibility with command-line
-     * invocation of Python scripts.
+     * invocation of Python scripts. Only built the first time.
      *
      * @return a string representation of this object
      */
     @Override
     public String toString() {
-        // Concatenate all characters within this.value to get a single string
-        StringBuilder sb = new StringBuilder();
-        for (PyCharObj character : this.value) {
-            sb.append(character.getValue());
+        String repr = this.repr;
+        if (repr == null) {
+            repr = "'" + this.chars + "'";
+            this.repr = repr;
+        }
+        return repr;
+    }
+
+    /**
+     * Compares this to the input object by value; compares the underlying Java Strings
+     * directly if obj is also a PyStringObj.
+     *
+     * @param obj the object to compare against
+     * @return true if this is equivalent by value to obj; false otherwise
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PyStringObj) {
+            return this.chars.equals(((PyStringObj) obj).chars);
+        }
+        return super.equals(obj);
+    }
+
+    /**
+     * Helper for PyObjInterner.intern(); since the characters aren't stored as
+     * PyCharObjs, there is nothing to intern within a PyStringObj.
+     *
+     * @return this
+     */
+    @Override
+    APyObj internElements() {
+        return this;
+    }
+
+    /**
+     * A read-only view of the characters of this PyStringObj as a list of PyCharObjs.
+     */
+    private class CharList extends AbstractList<PyCharObj> implements RandomAccess {
+
+        /**
+         * @param index the index of the character
+         * @return the index-th character, as a PyCharObj
+         */
+        @Override
+        public PyCharObj get(int index) {
+            return PyCharObj.valueOf(PyStringObj.this.chars.charAt(index));
+        }
+
+        /**
+         * @return the number of characters
+         */
+        @Override
+        public int size() {
+            return PyStringObj.this.chars.length();
         }
-        return "'" + sb.toString() + "'";
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,7 @@
 package main.rice.obj;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,12 +12,13 @@ import java.util.List;
 public class PyTupleObj<InnerType extends APyObj> extends AIterablePyObj<InnerType> {
 
     /**
-     * Constructor for a PyTupleObj; initializes its value to the input.
+     * Constructor for a PyTupleObj; initializes its value to an unmodifiable copy of
+     * the input.
      *
      * @param value the value of this PyListObj
      */
     public PyTupleObj(List<InnerType> value) {
-        this.value = value;
+        this.value = Collections.unmodifiableList(new ArrayList<>(value));
     }
 
     /**
@@ -57,4 +60,17 @@ public class PyTupleObj<InnerType extends APyObj> extends AIterablePyObj<InnerTy
         }
         return super.equals(obj);
     }
-}
\ No newline at end of file
+
+    /**
+     * Helper for PyObjInterner.intern(): builds a PyTupleObj equal to this one whose
+     * elements are all canonical instances.
+     *
+     * @return this, if its elements are already canonical; otherwise a copy of this
+     * containing the canonical instances of its elements
+     */
+    @Override
+    APyObj internElements() {
+        List<InnerType> elems = this.internedElements();
+        return (elems == null) ? this : new PyTupleObj<>(elems);
+    }
+}
@@ -1,6 +1,7 @@
 package main.rice.parse;
 
 import java.util.*;
+import main.rice.basegen.ExMode;
 import main.rice.node.APyNode;
 
 public class ConfigFile {
@@ -21,6 +22,21 @@ public class ConfigFile {
      */
     private int numRandTests;
 
+    /**
+     * the seed for random generation, or null if none was given
+     */
+    private Long seed;
+
+    /**
+     * how the parameters' exhaustive values are combined into the semi-exhaustive test set
+     */
+    private ExMode exMode = ExMode.PRODUCT;
+
+    /**
+     * the strength of the covering array, when exMode is T_WISE
+     */
+    private int strength = 2;
+
 
     /**
      * Constructor for a ConfigFile object, which takes in three pieces of data.
@@ -36,6 +52,37 @@ public class ConfigFile {
 
     }
 
+    /**
+     * Constructor for a ConfigFile object whose random generation is seeded.
+     *
+     * @param funcName : name of the function under test
+     * @param nodes : a list of Python nodes to serve as generators for test cases for the function under test
+     * @param numRand : the number of random test cases to be generated
+     * @param seed : the seed for random generation, or null if none was given
+     */
+    public ConfigFile(String funcName, List<APyNode<?>> nodes, int numRand, Long seed) {
+        this(funcName, nodes, numRand);
+        this.seed = seed;
+    }
+
+    /**
+     * Constructor for a ConfigFile object that also specifies how the exhaustive values
+     * are combined.
+     *
+     * @param funcName : name of the function under test
+     * @param nodes : a list of Python nodes to serve as generators for test cases for the function under test
+     * @param numRand : the number of random test cases to be generated
+     * @param seed : the seed for random generation, or null if none was given
+     * @param exMode : how the exhaustive values are combined into the semi-exhaustive test set
+     * @param strength : the strength of the covering array, when exMode is T_WISE
+     */
+    public ConfigFile(String funcName, List<APyNode<?>> nodes, int numRand, Long seed,
+        ExMode exMode, int strength) {
+        this(funcName, nodes, numRand, seed);
+        this.exMode = exMode;
+        this.strength = strength;
+    }
+
     /**
      *
      * @return : name of the function under test
@@ -62,4 +109,31 @@ public class ConfigFile {
         return this.numRandTests;
     }
 
+    /**
+     * Returns the seed for random generation, if one was given.
+     *
+     * @return : the seed, or null if random generation should not be reproducible
+     */
+    public Long getSeed() {
+        return this.seed;
+    }
+
+    /**
+     * Returns how the parameters' exhaustive values are combined into the semi-exhaustive test set.
+     *
+     * @return : PRODUCT (every combination, the default) or T_WISE (a covering array)
+     */
+    public ExMode getExMode() {
+        return this.exMode;
+    }
+
+    /**
+     * Returns the strength of the covering array, when the exhaustive mode is T_WISE.
+     *
+     * @return : the number of parameters whose combinations must all be covered
+     */
+    public int getStrength() {
+        return this.strength;
+    }
+
 }
@@ -1,5 +1,6 @@
 package main.rice.parse;
 
+import main.rice.basegen.ExMode;
 import main.rice.node.*;
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -20,6 +21,9 @@ public class ConfigFileParser {
     private JSONArray exDom;
     private JSONArray ranDom;
     private Integer numRan;
+    private Long seed;
+    private ExMode exMode;
+    private int strength;
     /**
      * Reads and returns the contents of the file located at the input filepath;
      *      throws an IOException if the file does not exist or cannot be read.
@@ -627,6 +631,39 @@ public class ConfigFileParser {
         this.ranDom = jsonObj.getJSONArray("random domain");
         this.numRan = jsonObj.getInt("num random");
         checkKeyTypes(jsonObj);
+
+        // the seed is optional; without one, random generation isn't reproducible
+        this.seed = null;
+        if (jsonObj.has("seed")) {
+            Object seedObj = jsonObj.get("seed");
+            if (!(seedObj instanceof Integer || seedObj instanceof Long)) {
+                throw new InvalidConfigException("JSONObject 'seed' is not an integer.");
+            }
+            this.seed = jsonObj.getLong("seed");
+        }
+
+        // the exhaustive mode is optional too: "product" (the default) takes every
+        // combination of the exhaustive values, "t-wise" builds a covering array
+        this.exMode = ExMode.PRODUCT;
+        this.strength = 2;
+        if (jsonObj.has("exhaustive mode")) {
+            Object modeObj = jsonObj.get("exhaustive mode");
+            if ("product".equals(modeObj)) {
+                this.exMode = ExMode.PRODUCT;
+            } else if ("t-wise".equals(modeObj)) {
+                this.exMode = ExMode.T_WISE;
+            } else {
+                throw new InvalidConfigException(
+                        "JSONObject 'exhaustive mode' must be \"product\" or \"t-wise\".");
+            }
+        }
+        if (jsonObj.has("strength")) {
+            Object strengthObj = jsonObj.get("strength");
+            if (!(strengthObj instanceof Integer) || (Integer) strengthObj < 1) {
+                throw new InvalidConfigException("JSONObject 'strength' is not a positive integer.");
+            }
+            this.strength = (Integer) strengthObj;
+        }
         System.out.println("fname: " + this.fname);
         System.out.println("types: " + this.types);
         System.out.println("exDom: " + this.exDom);
@@ -661,8 +698,11 @@ public class ConfigFileParser {
             domainGrammar(curRanDom, nodeList.get(k), "random");
             k++;
         }
+        // generate the exhaustive values of identical subtrees only once
+        APyNode.shareExVals(nodeList);
         // create and return the ConfigFile with proper nodeList generated by recursive helpers and iteration
-        return new ConfigFile(this.fname, nodeList, this.numRan);
+        return new ConfigFile(this.fname, nodeList, this.numRan, this.seed, this.exMode,
+                this.strength);
 //        if (malformed(contents)) {
 //            JSONObject jsonObj = new JSONObject(contents);
 //            this.fname = jsonObj.getString("fname");
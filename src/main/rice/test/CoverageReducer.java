@@ -0,0 +1,304 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Shrinks a base test set before it is run on the buggy implementations. Each test case
+ * is run on the reference solution under a lightweight sys.settrace()-based tracer, and
+ * only a bounded number of test cases are kept per distinct coverage signature. A test
+ * case's signature is a hash of the line-to-line transitions that it made within the
+ * solution (which captures both line and branch coverage), along with the type of
+ * exception it raised, if any. Test cases that take exactly the same path through the
+ * solution add little but execution cost, since every implementation gets run on each
+ * of them.
+ *
+ * <p>The test cases are traced by a single Python process, which reads them from its
+ * stdin in the same format as a wrapper running in serve mode (see PyWorkerPool) and
+ * writes one "(testIndex) (signature)" line per test case. Test cases whose signature
+ * can't be determined, e.g. because the solution killed the process or ran out of time,
+ * are always kept; the tracer is then restarted at the next test case, so that one
+ * such test case doesn't stop the rest from being traced.
+ */
+public class CoverageReducer {
+
+    /**
+     * The tracer: imports the solution as a module (so that its command-line footer
+     * doesn't run), writes "ready", then traces the function under test on each test
+     * case in turn. Anything that the solution prints is discarded, so that it can't be
+     * mistaken for a signature. Takes the path to the solution and the name of the
+     * function under test as its command-line arguments.
+     */
+    static final String TRACER_SCRIPT = String.join("\n",
+        "import hashlib",
+        "import importlib.util",
+        "import os",
+        "import sys",
+        "",
+        "SOLUTION = os.path.abspath(sys.argv[1])",
+        "out = sys.stdout",
+        "sys.stdout = open(os.devnull, 'w')",
+        "spec = importlib.util.spec_from_file_location('traced_solution', SOLUTION)",
+        "module = importlib.util.module_from_spec(spec)",
+        "spec.loader.exec_module(module)",
+        "func = getattr(module, sys.argv[2])",
+        "out.write('ready\\n')",
+        "out.flush()",
+        "",
+        "arcs = set()",
+        "last = [None]",
+        "",
+        "def trace_lines(frame, event, arg):",
+        "    if event == 'line':",
+        "        arcs.add((frame.f_code.co_name, last[0], frame.f_lineno))",
+        "        last[0] = frame.f_lineno",
+        "    return trace_lines",
+        "",
+        "def trace_calls(frame, event, arg):",
+        "    if os.path.abspath(frame.f_code.co_filename) == SOLUTION:",
+        "        return trace_lines",
+        "    return None",
+        "",
+        "for line in sys.stdin:",
+        "    fields = line.rstrip('\\n').split('\\0')",
+        "    arcs.clear()",
+        "    last[0] = None",
+        "    outcome = 'returned'",
+        "    try:",
+        "        args = [eval(arg) for arg in fields[3:]]",
+        "        sys.settrace(trace_calls)",
+        "        try:",
+        "            func(*args)",
+        "        finally:",
+        "            sys.settrace(None)",
+        "    except Exception as e:",
+        "        outcome = type(e).__name__",
+        "    path = repr((sorted(arcs, key=repr), outcome)).encode()",
+        "    out.write(fields[0] + ' ' + hashlib.sha1(path).hexdigest() + '\\n')",
+        "    out.flush()",
+        "");
+
+    /**
+     * The default maximum amount of time (in milliseconds) to wait for the signature of
+     * a single test case, so that a test case that never finishes on the reference
+     * solution can't hang the whole run
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+
+    /**
+     * The name of the function under test
+     */
+    private final String funcName;
+
+    /**
+     * The path to the reference solution
+     */
+    private final String solutionPath;
+
+    /**
+     * The maximum number of test cases to keep per distinct coverage signature
+     */
+    private final int maxPerSignature;
+
+    /**
+     * The maximum amount of time (in milliseconds) to wait for the signature of a single
+     * test case; 0 means wait forever
+     */
+    private long timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+    /**
+     * Constructor for a CoverageReducer.
+     *
+     * @param funcName        the name of the function under test
+     * @param solutionPath    the path to the reference solution
+     * @param maxPerSignature the maximum number of test cases to keep per distinct
+     *                        coverage signature; must be positive
+     */
+    public CoverageReducer(String funcName, String solutionPath, int maxPerSignature) {
+        if (maxPerSignature < 1) {
+            throw new IllegalArgumentException(
+                "number of test cases per signature must be positive");
+        }
+        this.funcName = funcName;
+        this.solutionPath = solutionPath;
+        this.maxPerSignature = maxPerSignature;
+    }
+
+    /**
+     * Sets the maximum amount of time to wait for the signature of a single test case
+     * (DEFAULT_TIMEOUT_MILLIS unless set); once it runs out, the remaining test cases
+     * are kept without being traced.
+     *
+     * @param timeoutMillis the time limit in milliseconds; 0 means wait forever
+     */
+    public void setTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Keeps only the first maxPerSignature test cases with each coverage signature,
+     * along with every test case whose signature couldn't be determined.
+     *
+     * @param tests the test cases, e.g. the base test set
+     * @return the test cases that were kept, in their original order
+     * @throws IOException if the tracer cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting for the
+     *                              tracer
+     */
+    public List<TestCase> reduce(List<TestCase> tests)
+        throws IOException, InterruptedException {
+        List<String> signatures = this.computeSignatures(tests);
+        Map<String, Integer> counts = new HashMap<>();
+        List<TestCase> kept = new ArrayList<>();
+        for (int i = 0; i < tests.size(); i++) {
+            String signature = signatures.get(i);
+            if (signature == null
+                || counts.merge(signature, 1, Integer::sum) <= this.maxPerSignature) {
+                kept.add(tests.get(i));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Computes the coverage signature of each test case by running it on the reference
+     * solution under the tracer.
+     *
+     * @param tests the test cases
+     * @return a list where the i-th element is the signature of the i-th test case, or
+     * null if it couldn't be determined
+     * @throws IOException if the tracer cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting for the
+     *                              tracer
+     */
+    public List<String> computeSignatures(List<TestCase> tests)
+        throws IOException, InterruptedException {
+        Path script = Files.createTempFile("tracer", ".py");
+        try {
+            Files.writeString(script, TRACER_SCRIPT, StandardCharsets.UTF_8);
+            List<String> signatures = new ArrayList<>();
+            while (signatures.size() < tests.size()
+                && this.trace(script, tests, signatures)) {
+                // The tracer gave up on a test case; resume at the next one
+                signatures.add(null);
+            }
+            while (signatures.size() < tests.size()) {
+                signatures.add(null);
+            }
+            return signatures;
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+
+    /**
+     * Starts a tracer and traces the test cases from signatures.size() onwards, adding
+     * their signatures to signatures, until the tracer finishes them all or stops
+     * responding.
+     *
+     * @param script     the path to the tracer script
+     * @param tests      the test cases
+     * @param signatures the signatures of the test cases traced so far
+     * @return true if the tracer stopped responding (by running out of time or dying) on
+     * the test case at signatures.size(), so that tracing should resume after it; false
+     * if there is nothing left to trace, or the solution can't be traced at all
+     * @throws IOException if the tracer cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting for the
+     *                              tracer
+     */
+    private boolean trace(Path script, List<TestCase> tests, List<String> signatures)
+        throws IOException, InterruptedException {
+        // Fix the hash seed, so that iterating over a set of strings follows the same
+        // path through the solution every time
+        ProcessBuilder pb = new ProcessBuilder("python3", script.toString(),
+            this.solutionPath, this.funcName);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        pb.environment().put("PYTHONHASHSEED", "0");
+        Process process = pb.start();
+        TimedLineReader fromTracer = new TimedLineReader(process.getInputStream());
+        int start = signatures.size();
+        try {
+            // Don't start on the test cases unless the solution can be imported
+            if (!this.awaitReady(fromTracer)) {
+                System.err.println("Warning: the reference solution couldn't be traced; "
+                    + "keeping " + (tests.size() - start) + " test cases untraced");
+                return false;
+            }
+
+            // Feed the test cases in on another thread, so that a test case that never
+            // finishes can't block us once the pipe fills up
+            Thread feeder = new Thread(() -> this.feed(process, tests, start),
+                "tracer-feeder");
+            feeder.setDaemon(true);
+            feeder.start();
+
+            for (int i = start; i < tests.size(); i++) {
+                String response = fromTracer.readLine(this.timeoutMillis);
+                if (response == null) {
+                    // The solution killed the tracer, e.g. by calling exit()
+                    System.err.println("Warning: the reference solution exited on test "
+                        + i + "; keeping it untraced");
+                    return true;
+                }
+                signatures.add(PyWorkerPool.parseResponse(i, response));
+            }
+            return false;
+        } catch (TimeoutException e) {
+            System.err.println("Warning: test " + signatures.size() + " didn't finish on "
+                + "the reference solution within " + this.timeoutMillis + " ms; keeping "
+                + "it untraced");
+            return true;
+        } finally {
+            Tester.killTree(process);
+            process.waitFor();
+        }
+    }
+
+    /**
+     * Waits for a newly started tracer to report that it has imported the solution.
+     *
+     * @param fromTracer the tracer's stdout
+     * @return true if the tracer is ready; false if it died or ran out of time first
+     * @throws InterruptedException if the thread is interrupted while waiting for the
+     *                              tracer
+     */
+    private boolean awaitReady(TimedLineReader fromTracer) throws InterruptedException {
+        try {
+            return "ready".equals(fromTracer.readLine(this.timeoutMillis));
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes one request per test case to the tracer's stdin (see
+     * PyWorkerPool.formatRequest()), then closes it so that the tracer exits after the
+     * last one.
+     *
+     * @param process the tracer
+     * @param tests   the test cases
+     * @param start   the index of the first test case to be traced
+     */
+    private void feed(Process process, List<TestCase> tests, int start) {
+        String filename = new File(this.solutionPath).getName();
+        try (Writer toTracer = new BufferedWriter(new OutputStreamWriter(
+            process.getOutputStream(), StandardCharsets.UTF_8))) {
+            for (int i = start; i < tests.size(); i++) {
+                toTracer.write(PyWorkerPool.formatRequest(i, filename, this.funcName,
+                    tests.get(i)));
+            }
+        } catch (IOException e) {
+            // The tracer has already died; the rest of the test cases won't be traced
+        }
+    }
+}
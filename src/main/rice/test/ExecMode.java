@@ -0,0 +1,34 @@
+package main.rice.test;
+
+/**
+ * The strategies that a Tester can use to execute test cases on the buggy
+ * implementations.
+ */
+public enum ExecMode {
+
+    /**
+     * Launches a fresh python3 process for every (test case, implementation) pair.
+     */
+    PROCESS,
+
+    /**
+     * Sends every (test case, implementation) pair to one of a pool of long-lived Python
+     * workers, each of which imports the expected results and each implementation once.
+     */
+    POOL,
+
+    /**
+     * Launches one python3 process per chunk of test cases per implementation; the
+     * process runs every test case in its chunk, in order, and reports a pass/fail record
+     * for each.
+     */
+    BATCH,
+
+    /**
+     * Like BATCH, except that the process imports the implementation once and then
+     * forks a fresh child for each test case, so that no test case can see state left
+     * behind by another one (e.g. in a global variable) without paying for interpreter
+     * startup each time. Requires a platform with os.fork().
+     */
+    FORKSERVER
+}
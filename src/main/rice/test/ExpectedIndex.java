@@ -0,0 +1,94 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * An indexed copy of the expected results, written alongside expected.py so that the
+ * wrapper can look up a single test case's expected result in constant time, rather than
+ * importing (and so evaluating) the whole list of results on every invocation.
+ *
+ * <p>The results themselves are stored back to back, UTF-8 encoded, in expected.dat. The
+ * index, expected.idx, starts with the SHA-256 hash (in hex) of the expected.py that it
+ * was written with, followed by the number of results and then the offset of each result
+ * within expected.dat (plus a final offset marking the end of the last one), all as
+ * big-endian 64-bit integers. Result i therefore spans from the offset at position
+ * HEADER_SIZE + 8 * i to the one after it.
+ */
+class ExpectedIndex {
+
+    /**
+     * The name of the index file
+     */
+    static final String INDEX_NAME = "expected.idx";
+
+    /**
+     * The name of the file holding the results themselves
+     */
+    static final String DATA_NAME = "expected.dat";
+
+    /**
+     * The size of the index's header: the hash of expected.py and the number of results
+     */
+    static final int HEADER_SIZE = 64 + 8;
+
+    /**
+     * Writes the index and the data file for the given expected results. Must be called
+     * after expected.py has been written.
+     *
+     * @param implDirPath the absolute path to the directory containing expected.py
+     * @param results     the per-case list of expected results
+     * @throws IOException if a file cannot be written
+     */
+    static void write(String implDirPath, List<String> results) throws IOException {
+        String expectedHash = ExpectedResultsCache.hashFile(implDirPath + "/expected.py");
+        try (DataOutputStream index = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(implDirPath + "/" + INDEX_NAME)));
+             OutputStream data = new BufferedOutputStream(
+                 new FileOutputStream(implDirPath + "/" + DATA_NAME))) {
+            index.write(expectedHash.getBytes(StandardCharsets.US_ASCII));
+            index.writeLong(results.size());
+
+            long offset = 0;
+            for (String result : results) {
+                index.writeLong(offset);
+                byte[] bytes = result.getBytes(StandardCharsets.UTF_8);
+                data.write(bytes);
+                offset += bytes.length;
+            }
+            index.writeLong(offset);
+        }
+    }
+
+    /**
+     * Deletes the index and the data file if they weren't written with the current
+     * expected.py (e.g. because expected.py has since been written by hand), so that the
+     * wrapper falls back to importing expected.py.
+     *
+     * @param implDirPath the absolute path to the directory containing expected.py
+     * @throws IOException if a file cannot be read or deleted
+     */
+    static void validate(String implDirPath) throws IOException {
+        File index = new File(implDirPath + "/" + INDEX_NAME);
+        if (!index.exists()) {
+            return;
+        }
+
+        String indexedHash = "";
+        try (InputStream in = new FileInputStream(index)) {
+            byte[] header = in.readNBytes(64);
+            indexedHash = new String(header, StandardCharsets.US_ASCII);
+        }
+        File expected = new File(implDirPath + "/expected.py");
+        if (expected.exists()
+            && indexedHash.equals(ExpectedResultsCache.hashFile(expected.getPath()))) {
+            return;
+        }
+
+        Files.deleteIfExists(index.toPath());
+        Files.deleteIfExists(Paths.get(implDirPath, DATA_NAME));
+    }
+}
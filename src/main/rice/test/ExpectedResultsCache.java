@@ -0,0 +1,279 @@
+package main.rice.test;
+
+import main.rice.obj.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * A persistent, size-bounded cache of the results of running the reference solution.
+ * Each entry is keyed by a hash of (the contents of the solution file, the name of the
+ * function under test, a canonical representation of the test case's arguments), so an
+ * entry can only be hit if neither the solution nor the test case has changed. When the
+ * cache is full, the least recently used entry is evicted.
+ *
+ * <p>The cache is stored as a text file with one "(key)\t(nanos)\t(result)" line per
+ * entry, least recently used first, where nanos is the time the solution originally took
+ * on the test case (so that relative timeouts still work on a hit).
+ */
+public class ExpectedResultsCache {
+
+    /**
+     * The path to the file that the cache is loaded from and saved to
+     */
+    private final String cachePath;
+
+    /**
+     * The maximum number of entries to keep
+     */
+    private final int maxEntries;
+
+    /**
+     * The entries, in least-recently-used-first order; each value is a two-element
+     * array containing the original runtime (in nanoseconds) and the result
+     */
+    private final LinkedHashMap<String, String[]> entries;
+
+    /**
+     * The number of lookups that found an entry
+     */
+    private int hits = 0;
+
+    /**
+     * The number of lookups that didn't find an entry
+     */
+    private int misses = 0;
+
+    /**
+     * Constructor for an ExpectedResultsCache; loads the existing entries from the cache
+     * file, if there is one.
+     *
+     * @param cachePath  the path to the file that the cache is loaded from and saved to
+     * @param maxEntries the maximum number of entries to keep
+     * @throws IOException if the cache file exists but cannot be read
+     */
+    public ExpectedResultsCache(String cachePath, int maxEntries) throws IOException {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("cache size must be positive");
+        }
+        this.cachePath = cachePath;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+                return this.size() > ExpectedResultsCache.this.maxEntries;
+            }
+        };
+
+        // Load any existing entries, oldest first, so that the eviction order persists
+        File cacheFile = new File(cachePath);
+        if (cacheFile.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(cachePath),
+                StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", 3);
+                    if (fields.length == 3) {
+                        this.entries.put(fields[0], new String[]{fields[1], fields[2]});
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up the result of running a test case on a solution.
+     *
+     * @param solutionHash the hash of the solution file (see hashFile())
+     * @param funcName     the name of the function under test
+     * @param test         the test case
+     * @return the cached result, or null if there isn't one
+     */
+    public synchronized String get(String solutionHash, String funcName, TestCase test) {
+        String[] entry = this.entries.get(key(solutionHash, funcName, test));
+        if (entry == null) {
+            this.misses++;
+            return null;
+        }
+        this.hits++;
+        return entry[1];
+    }
+
+    /**
+     * Looks up the time the solution originally took on a test case; does not count as
+     * a hit or a miss.
+     *
+     * @param solutionHash the hash of the solution file (see hashFile())
+     * @param funcName     the name of the function under test
+     * @param test         the test case
+     * @return the original runtime in nanoseconds, or -1 if there is no entry
+     */
+    public synchronized long getNanos(String solutionHash, String funcName,
+        TestCase test) {
+        String[] entry = this.entries.get(key(solutionHash, funcName, test));
+        return (entry == null) ? -1 : Long.parseLong(entry[0]);
+    }
+
+    /**
+     * Records the result of running a test case on a solution, evicting the least
+     * recently used entry if the cache is full.
+     *
+     * @param solutionHash the hash of the solution file (see hashFile())
+     * @param funcName     the name of the function under test
+     * @param test         the test case
+     * @param nanos        the time the solution took on the test case, in nanoseconds
+     * @param result       the result
+     */
+    public synchronized void put(String solutionHash, String funcName, TestCase test,
+        long nanos, String result) {
+        this.entries.put(key(solutionHash, funcName, test),
+            new String[]{String.valueOf(nanos), result});
+    }
+
+    /**
+     * Writes the cache to the cache file, least recently used entry first.
+     *
+     * @throws IOException if the cache file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(this.cachePath),
+            StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, String[]> entry : this.entries.entrySet()) {
+                writer.write(entry.getKey() + "\t" + entry.getValue()[0] + "\t"
+                    + entry.getValue()[1] + "\n");
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries currently in the cache
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * @return the number of lookups that found an entry
+     */
+    public synchronized int getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of lookups that didn't find an entry
+     */
+    public synchronized int getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Computes a hash of the contents of a file.
+     *
+     * @param path the path to the file
+     * @return the SHA-256 hash of the file's contents, in hex
+     * @throws IOException if the file cannot be read
+     */
+    public static String hashFile(String path) throws IOException {
+        return hash(Files.readAllBytes(Paths.get(path)));
+    }
+
+    /**
+     * Computes a hash of a string.
+     *
+     * @param contents the string to be hashed
+     * @return the SHA-256 hash of the string's UTF-8 encoding, in hex
+     */
+    public static String hash(String contents) {
+        return hash(contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Builds a canonical representation of a test case's arguments: the same as its
+     * string representation, except that the elements of sets are sorted, so that equal
+     * sets always have the same representation (this assumes that the solution doesn't
+     * depend on the order in which it iterates over a set, which Python doesn't
+     * guarantee anyway). Dictionary entries keep their order,
+     * since Python dictionaries keep the order of the literal they're built from, and a
+     * solution may depend on it (e.g. list(d)).
+     *
+     * @param test the test case
+     * @return the canonical representation of the test case
+     */
+    public static String canonicalRepr(TestCase test) {
+        List<String> args = new ArrayList<>();
+        for (APyObj arg : test.getArgs()) {
+            args.add(canonicalRepr(arg));
+        }
+        return args.toString();
+    }
+
+    /**
+     * Builds the key for a single entry.
+     *
+     * @param solutionHash the hash of the solution file
+     * @param funcName     the name of the function under test
+     * @param test         the test case
+     * @return the hash of the solution hash, function name, and canonical test repr
+     */
+    private static String key(String solutionHash, String funcName, TestCase test) {
+        return hash(solutionHash + "\0" + funcName + "\0" + canonicalRepr(test));
+    }
+
+    /**
+     * Builds a canonical representation of a single argument (see above).
+     *
+     * @param obj the argument
+     * @return the canonical representation of the argument
+     */
+    private static String canonicalRepr(APyObj obj) {
+        if (obj instanceof PySetObj) {
+            List<String> elems = new ArrayList<>();
+            for (Object elem : ((PySetObj<?>) obj).getValue()) {
+                elems.add(canonicalRepr((APyObj) elem));
+            }
+            Collections.sort(elems);
+            return "{" + String.join(", ", elems) + "}";
+        } else if (obj instanceof PyDictObj) {
+            List<String> elems = new ArrayList<>();
+            for (Map.Entry<?, ?> entry : ((PyDictObj<?, ?>) obj).getValue().entrySet()) {
+                elems.add(canonicalRepr((APyObj) entry.getKey()) + ": "
+                    + canonicalRepr((APyObj) entry.getValue()));
+            }
+            return "{" + String.join(", ", elems) + "}";
+        } else if (obj instanceof PyListObj || obj instanceof PyTupleObj) {
+            // Lists and tuples may contain sets or dictionaries
+            List<String> elems = new ArrayList<>();
+            for (Object elem : ((AIterablePyObj<?>) obj).getValue()) {
+                elems.add(canonicalRepr((APyObj) elem));
+            }
+            String contents = String.join(", ", elems);
+            return (obj instanceof PyListObj) ? "[" + contents + "]" : "(" + contents + ")";
+        }
+        return obj.toString();
+    }
+
+    /**
+     * Computes the SHA-256 hash of an array of bytes.
+     *
+     * @param bytes the bytes to be hashed
+     * @return the hash, in hex
+     */
+    private static String hash(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
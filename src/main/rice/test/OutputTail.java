@@ -0,0 +1,178 @@
+package main.rice.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Drains a child process's output stream on a background thread, keeping only the most
+ * recent bytes in a fixed-size ring buffer. Since all we ever need from a test process is
+ * the last line of its output, this lets an implementation print as much as it likes
+ * without costing memory or blocking on a full pipe.
+ */
+class OutputTail implements Runnable {
+
+    /**
+     * The stream being drained
+     */
+    private final InputStream in;
+
+    /**
+     * The ring buffer holding the most recent bytes of output
+     */
+    private final byte[] buffer;
+
+    /**
+     * The total number of bytes read from the stream so far; the next byte goes into
+     * buffer[total % buffer.length]
+     */
+    private long total = 0;
+
+    /**
+     * The thread doing the draining
+     */
+    private Thread thread;
+
+    /**
+     * Constructor for an OutputTail; does not start draining the stream.
+     *
+     * @param in       the stream to be drained
+     * @param capacity the number of bytes of output to keep
+     */
+    OutputTail(InputStream in, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.in = in;
+        this.buffer = new byte[capacity];
+    }
+
+    /**
+     * Starts draining the given stream on a new background thread.
+     *
+     * @param in       the stream to be drained
+     * @param capacity the number of bytes of output to keep
+     * @return the OutputTail doing the draining
+     */
+    static OutputTail start(InputStream in, int capacity) {
+        OutputTail tail = new OutputTail(in, capacity);
+        tail.thread = new Thread(tail, "output-tail");
+        tail.thread.setDaemon(true);
+        tail.thread.start();
+        return tail;
+    }
+
+    /**
+     * Reads the stream until it ends, keeping only the most recent bytes.
+     */
+    @Override
+    public void run() {
+        byte[] chunk = new byte[8192];
+        try (this.in) {
+            int numRead;
+            while ((numRead = this.in.read(chunk)) != -1) {
+                this.append(chunk, numRead);
+            }
+        } catch (IOException e) {
+            // The stream was closed, most likely because the process was killed
+        }
+    }
+
+    /**
+     * Waits until the whole stream has been drained.
+     *
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    void await() throws InterruptedException {
+        if (this.thread != null) {
+            this.thread.join();
+        }
+    }
+
+    /**
+     * Returns the last line of the output (without its line terminator), as a
+     * BufferedReader would; an empty string if there was no output.
+     *
+     * @return the last line of the output
+     */
+    synchronized String lastLine() {
+        byte[] contents = this.contents();
+        int end = this.lineEnd(contents);
+        int start = this.lineStart(contents, end);
+        return new String(contents, start, end - start, Charset.defaultCharset());
+    }
+
+    /**
+     * @return true if the last line of the output was too long to fit in the buffer, in
+     * which case lastLine() returns only its end
+     */
+    synchronized boolean isTruncated() {
+        if (this.total <= this.buffer.length) {
+            return false;
+        }
+        byte[] contents = this.contents();
+        return this.lineStart(contents, this.lineEnd(contents)) == 0;
+    }
+
+    /**
+     * Copies len bytes of chunk into the ring buffer, overwriting the oldest bytes.
+     *
+     * @param chunk the bytes to be copied
+     * @param len   the number of bytes to copy
+     */
+    private synchronized void append(byte[] chunk, int len) {
+        // Only the last buffer.length bytes of the chunk can survive
+        int offset = Math.max(0, len - this.buffer.length);
+        this.total += offset;
+        for (int idx = offset; idx < len; idx++) {
+            this.buffer[(int) (this.total % this.buffer.length)] = chunk[idx];
+            this.total++;
+        }
+    }
+
+    /**
+     * @return the bytes currently held in the ring buffer, oldest first
+     */
+    private byte[] contents() {
+        int size = (int) Math.min(this.total, this.buffer.length);
+        byte[] contents = new byte[size];
+        int first = (int) ((this.total - size) % this.buffer.length);
+        for (int idx = 0; idx < size; idx++) {
+            contents[idx] = this.buffer[(first + idx) % this.buffer.length];
+        }
+        return contents;
+    }
+
+    /**
+     * Finds the end of the last line, ignoring a single trailing line terminator.
+     *
+     * @param contents the bytes to search
+     * @return the (exclusive) end of the last line
+     */
+    private int lineEnd(byte[] contents) {
+        int end = contents.length;
+        if (end > 0 && contents[end - 1] == '\n') {
+            end--;
+        }
+        if (end > 0 && contents[end - 1] == '\r') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Finds the start of the line that ends at the given position.
+     *
+     * @param contents the bytes to search
+     * @param end      the (exclusive) end of the line
+     * @return the index just after the previous line terminator, or 0 if there is none
+     */
+    private int lineStart(byte[] contents, int end) {
+        for (int idx = end - 1; idx >= 0; idx--) {
+            if (contents[idx] == '\n' || contents[idx] == '\r') {
+                return idx + 1;
+            }
+        }
+        return 0;
+    }
+}
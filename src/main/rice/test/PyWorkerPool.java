@@ -0,0 +1,308 @@
+package main.rice.test;
+
+import main.rice.obj.APyObj;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A pool of long-lived Python worker processes, each of which runs the wrapper in
+ * "serve" mode. Rather than paying for interpreter startup (and for importing the
+ * expected results) once per test case per implementation, each worker reads test
+ * requests from its stdin one line at a time and writes one result line per request to
+ * its stdout. Workers that crash or stop responding are killed and replaced.
+ *
+ * <p>The pool is safe to use from multiple threads; each call to runTest() borrows one
+ * idle worker for the duration of the request.
+ */
+public class PyWorkerPool {
+
+    /**
+     * The separator between the fields of a single request; can't appear in a
+     * command-line argument, so it can't appear in the repr of a test argument either.
+     */
+    static final char FIELD_SEP = '\0';
+
+    /**
+     * The absolute path to the directory containing the wrapper and the implementations
+     */
+    private final String implDirPath;
+
+    /**
+     * The maximum number of workers that can be alive at once
+     */
+    private final int size;
+
+    /**
+     * The maximum amount of time (in milliseconds) to wait for a single response before
+     * deciding that a worker is wedged, unless the caller specifies otherwise; 0 means
+     * wait forever
+     */
+    private final long timeoutMillis;
+
+    /**
+     * The workers that are alive and not currently handling a request
+     */
+    private final BlockingQueue<PyWorker> idle = new LinkedBlockingQueue<>();
+
+    /**
+     * The number of workers that are currently alive (idle or busy)
+     */
+    private int numAlive = 0;
+
+    /**
+     * The number of workers that have been killed and replaced
+     */
+    private int numRecycled = 0;
+
+    /**
+     * Constructor for a PyWorkerPool; workers are not started until they are needed.
+     *
+     * @param implDirPath   the absolute path to the directory containing the wrapper and
+     *                      the implementations
+     * @param size          the maximum number of workers that can be alive at once
+     * @param timeoutMillis the default maximum amount of time (in milliseconds) to wait
+     *                      for a single response; 0 means wait forever
+     */
+    public PyWorkerPool(String implDirPath, int size, long timeoutMillis) {
+        if (size < 1) {
+            throw new IllegalArgumentException("pool size must be positive");
+        }
+        this.implDirPath = implDirPath;
+        this.size = size;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Runs a single test case on a single implementation using one of the workers.
+     *
+     * @param testIndex the index of the test case (used to look up the expected result)
+     * @param filename  the name of the implementation being tested
+     * @param funcName  the name of the function under test
+     * @param test      the test case to be run
+     * @return "True" if the test passes; "False" if it fails, if the implementation
+     * crashed, or if the worker did not respond in time
+     * @throws IOException if a worker cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting for a
+     *                              worker
+     */
+    public String runTest(int testIndex, String filename, String funcName,
+        TestCase test) throws IOException, InterruptedException {
+        return this.runTest(testIndex, filename, funcName, test, this.timeoutMillis);
+    }
+
+    /**
+     * Runs a single test case on a single implementation using one of the workers,
+     * giving up on (and recycling) the worker if it doesn't respond in time.
+     *
+     * @param testIndex     the index of the test case (used to look up the expected
+     *                      result)
+     * @param filename      the name of the implementation being tested
+     * @param funcName      the name of the function under test
+     * @param test          the test case to be run
+     * @param timeoutMillis the maximum amount of time (in milliseconds) to wait for the
+     *                      response; 0 means wait forever
+     * @return "True" if the test passes; "False" if it fails, if the implementation
+     * crashed, or if the worker did not respond in time
+     * @throws IOException if a worker cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting for a
+     *                              worker
+     */
+    public String runTest(int testIndex, String filename, String funcName,
+        TestCase test, long timeoutMillis) throws IOException, InterruptedException {
+        String request = formatRequest(testIndex, filename, funcName, test);
+
+        PyWorker worker = this.acquire();
+        String response = worker.send(request, timeoutMillis);
+        if (response == null) {
+            // The worker crashed or got wedged; replace it and count the test as failed
+            this.recycle(worker);
+            return "False";
+        }
+        this.idle.add(worker);
+
+        String result = parseResponse(testIndex, response);
+        return (result == null) ? "False" : result;
+    }
+
+    /**
+     * Builds a single request for a wrapper running in serve mode: the test index, the
+     * implementation, the function, and then each argument, terminated by a newline.
+     *
+     * @param testIndex the index of the test case (used to look up the expected result)
+     * @param filename  the name of the implementation being tested
+     * @param funcName  the name of the function under test
+     * @param test      the test case to be run
+     * @return the request line
+     */
+    static String formatRequest(int testIndex, String filename, String funcName,
+        TestCase test) {
+        StringBuilder request = new StringBuilder();
+        request.append(testIndex).append(FIELD_SEP).append(filename).append(FIELD_SEP)
+            .append(funcName);
+        for (APyObj arg : test.getArgs()) {
+            request.append(FIELD_SEP).append(arg.toString());
+        }
+        request.append('\n');
+        return request.toString();
+    }
+
+    /**
+     * Extracts the result from a single response line written by a wrapper running in
+     * serve mode; responses take the form "(testIndex) (result)".
+     *
+     * @param testIndex the index of the test case that the response should be for
+     * @param response  the response line
+     * @return the result, or null if the response is malformed or is for another test
+     */
+    static String parseResponse(int testIndex, String response) {
+        int space = response.indexOf(' ');
+        if (space < 0 || !response.substring(0, space).equals(String.valueOf(testIndex))) {
+            return null;
+        }
+        return response.substring(space + 1);
+    }
+
+    /**
+     * @return the number of workers that have been killed and replaced
+     */
+    public synchronized int getNumRecycled() {
+        return this.numRecycled;
+    }
+
+    /**
+     * Shuts down all of the workers. Must not be called while a request is in flight.
+     */
+    public synchronized void close() {
+        for (PyWorker worker : this.idle) {
+            worker.kill();
+        }
+        this.idle.clear();
+        this.numAlive = 0;
+    }
+
+    /**
+     * Borrows an idle worker, starting a new one if all of the live workers are busy and
+     * the pool isn't yet full.
+     *
+     * @return a worker that isn't handling any other request
+     * @throws IOException if a new worker cannot be started
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private PyWorker acquire() throws IOException, InterruptedException {
+        while (true) {
+            PyWorker worker = this.idle.poll();
+            if (worker != null) {
+                return worker;
+            }
+            synchronized (this) {
+                if (this.numAlive < this.size) {
+                    this.numAlive++;
+                    try {
+                        return new PyWorker();
+                    } catch (IOException e) {
+                        this.numAlive--;
+                        throw e;
+                    }
+                }
+            }
+
+            // Wait for a worker to free up; time out periodically in case a busy worker
+            // gets recycled, which frees up a slot without returning a worker to idle
+            worker = this.idle.poll(50, TimeUnit.MILLISECONDS);
+            if (worker != null) {
+                return worker;
+            }
+        }
+    }
+
+    /**
+     * Kills a worker that crashed or got wedged, and frees up its slot in the pool.
+     *
+     * @param worker the worker to be killed
+     */
+    private synchronized void recycle(PyWorker worker) {
+        worker.kill();
+        this.numAlive--;
+        this.numRecycled++;
+    }
+
+    /**
+     * A single long-lived Python process running the wrapper in serve mode.
+     */
+    private class PyWorker {
+
+        /**
+         * The underlying Python process
+         */
+        private final Process process;
+
+        /**
+         * Used to send requests to the process
+         */
+        private final Writer toWorker;
+
+        /**
+         * Used to read responses from the process
+         */
+        private final TimedLineReader fromWorker;
+
+        /**
+         * Constructor for a PyWorker; starts the underlying process.
+         *
+         * @throws IOException if the process cannot be started
+         */
+        PyWorker() throws IOException {
+            List<String> args = new ArrayList<>();
+            args.add("python3");
+            args.add(PyWorkerPool.this.implDirPath + "/wrapper.py");
+            args.add("--serve");
+
+            // Nobody reads stderr, so throw it away rather than letting it fill up
+            ProcessBuilder pb = new ProcessBuilder(args);
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+            this.process = pb.start();
+            this.toWorker = new BufferedWriter(new OutputStreamWriter(
+                this.process.getOutputStream(), StandardCharsets.UTF_8));
+            this.fromWorker = new TimedLineReader(this.process.getInputStream());
+        }
+
+        /**
+         * Sends a single request and waits for the response.
+         *
+         * @param request       the request, terminated by a newline
+         * @param timeoutMillis the maximum amount of time (in milliseconds) to wait for
+         *                      the response; 0 means wait forever
+         * @return the response line, or null if the worker crashed or timed out
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        String send(String request, long timeoutMillis) throws InterruptedException {
+            try {
+                this.toWorker.write(request);
+                this.toWorker.flush();
+            } catch (IOException e) {
+                // The worker has already died
+                return null;
+            }
+
+            try {
+                return this.fromWorker.readLine(timeoutMillis);
+            } catch (TimeoutException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Forcibly kills the process, along with any processes it started.
+         */
+        void kill() {
+            Tester.killTree(this.process);
+        }
+    }
+}
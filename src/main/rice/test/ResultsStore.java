@@ -0,0 +1,148 @@
+package main.rice.test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A persistent store of the outcomes of individual (implementation, test case) pairs,
+ * used to regrade incrementally. Each outcome is keyed by a hash of (the contents of
+ * the implementation, the test case, the expected result of the test case), so an
+ * outcome is only reused if none of those has changed; re-running the tests after a
+ * handful of resubmissions then only runs the resubmitted implementations (and any new
+ * test cases).
+ *
+ * <p>The store is saved as a text file with one "(key)\t(caught)" line per outcome,
+ * where caught is 1 if the test case caught the implementation and 0 otherwise.
+ */
+public class ResultsStore {
+
+    /**
+     * The path to the file that the store is loaded from and saved to
+     */
+    private final String storePath;
+
+    /**
+     * The outcomes; true if the test case caught the implementation
+     */
+    private final Map<String, Boolean> outcomes = new HashMap<>();
+
+    /**
+     * The number of lookups that found an outcome
+     */
+    private int hits = 0;
+
+    /**
+     * The number of lookups that didn't find an outcome
+     */
+    private int misses = 0;
+
+    /**
+     * Constructor for a ResultsStore; loads the existing outcomes from the store file,
+     * if there is one.
+     *
+     * @param storePath the path to the file that the store is loaded from and saved to
+     * @throws IOException if the store file exists but cannot be read
+     */
+    public ResultsStore(String storePath) throws IOException {
+        this.storePath = storePath;
+
+        File storeFile = new File(storePath);
+        if (storeFile.exists()) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(storePath),
+                StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    if (fields.length == 2) {
+                        this.outcomes.put(fields[0], fields[1].equals("1"));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up the outcome of running a test case on an implementation.
+     *
+     * @param implHash     the hash of the implementation file
+     * @param testHash     the hash of the test case
+     * @param expectedHash the hash of the test case's expected result
+     * @return true if the test case caught the implementation, false if it didn't, or
+     * null if the outcome isn't known
+     */
+    public synchronized Boolean get(String implHash, String testHash,
+        String expectedHash) {
+        Boolean caught = this.outcomes.get(key(implHash, testHash, expectedHash));
+        if (caught == null) {
+            this.misses++;
+        } else {
+            this.hits++;
+        }
+        return caught;
+    }
+
+    /**
+     * Records the outcome of running a test case on an implementation.
+     *
+     * @param implHash     the hash of the implementation file
+     * @param testHash     the hash of the test case
+     * @param expectedHash the hash of the test case's expected result
+     * @param caught       whether the test case caught the implementation
+     */
+    public synchronized void put(String implHash, String testHash, String expectedHash,
+        boolean caught) {
+        this.outcomes.put(key(implHash, testHash, expectedHash), caught);
+    }
+
+    /**
+     * Writes the store to the store file.
+     *
+     * @throws IOException if the store file cannot be written
+     */
+    public synchronized void save() throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(this.storePath),
+            StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Boolean> outcome : this.outcomes.entrySet()) {
+                writer.write(outcome.getKey() + "\t" + (outcome.getValue() ? "1" : "0")
+                    + "\n");
+            }
+        }
+    }
+
+    /**
+     * @return the number of outcomes currently in the store
+     */
+    public synchronized int size() {
+        return this.outcomes.size();
+    }
+
+    /**
+     * @return the number of lookups that found an outcome
+     */
+    public synchronized int getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of lookups that didn't find an outcome
+     */
+    public synchronized int getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Builds the key for a single outcome.
+     *
+     * @param implHash     the hash of the implementation file
+     * @param testHash     the hash of the test case
+     * @param expectedHash the hash of the test case's expected result
+     * @return the hash of all three
+     */
+    private static String key(String implHash, String testHash, String expectedHash) {
+        return ExpectedResultsCache.hash(implHash + "\0" + testHash + "\0" + expectedHash);
+    }
+}
@@ -2,30 +2,43 @@ package main.rice.test;
 
 import main.rice.obj.APyObj;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * A representation of a test case; a wrapper around its arguments, each of which is an
- * APyObj.
+ * APyObj. Test cases are immutable, so the hash code is computed at most once.
  */
 public class TestCase {
 
     /**
      * The list of arguments (Python objects) comprising this test case
      */
-    private List<APyObj> args;
+    private final List<APyObj> args;
 
     /**
-     * Constructor for a TestCase; initializes its list of arguments to the input.
+     * The cached hash code, or 0 if it hasn't been computed yet (or is 0; see hashIsZero)
+     */
+    private int hash = 0;
+
+    /**
+     * Whether the hash code has been computed and turned out to be 0
+     */
+    private boolean hashIsZero = false;
+
+    /**
+     * Constructor for a TestCase; initializes its list of arguments to an unmodifiable
+     * copy of the input.
      *
      * @param args the list of arguments (Python objects) comprising this test case
      */
     public TestCase(List<APyObj> args) {
-        this.args = args;
+        this.args = Collections.unmodifiableList(new ArrayList<>(args));
     }
 
     /**
-     * @return the list of arguments comprising this test case
+     * @return the (unmodifiable) list of arguments comprising this test case
      */
     public List<APyObj> getArgs() {
         return this.args;
@@ -50,24 +63,41 @@ public class TestCase {
      */
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+
         // If obj is not a TestCase, it's not equivalent
         if (!(obj instanceof TestCase)) {
             return false;
         }
 
-        // Compare the lists of arguments for equality
+        // Compare the (cached) hash codes first, then the lists of arguments
         TestCase testCase = (TestCase) obj;
+        if (this.hashCode() != testCase.hashCode()) {
+            return false;
+        }
         return this.args.equals(testCase.getArgs());
     }
 
     /**
      * Computes a hash code based on this object's value, such that two objects that are
-     * considered equal by .equals() will also have the same hash code.
+     * considered equal by .equals() will also have the same hash code. Only computed the
+     * first time, since test cases are immutable.
      *
      * @return the hash code for this object
      */
     @Override
     public int hashCode() {
-        return this.args.hashCode();
+        int hash = this.hash;
+        if (hash == 0 && !this.hashIsZero) {
+            hash = this.args.hashCode();
+            if (hash == 0) {
+                this.hashIsZero = true;
+            } else {
+                this.hash = hash;
+            }
+        }
+        return hash;
     }
 }
\ No newline at end of file
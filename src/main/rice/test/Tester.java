@@ -3,7 +3,18 @@ package main.rice.test;
 import main.rice.obj.APyObj;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * A class for running a test suite. Encapsulates the ability to run the test suite on a
@@ -35,6 +46,105 @@ public class Tester {
      */
     private List<TestCase> tests;
 
+    /**
+     * The strategy used to execute test cases on the buggy implementations
+     */
+    private ExecMode execMode = ExecMode.PROCESS;
+
+    /**
+     * The number of Python workers to use when execMode is POOL
+     */
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The number of threads used to run test cases on the buggy implementations; 1
+     * means run them one at a time
+     */
+    private int numThreads = 1;
+
+    /**
+     * The maximum number of test cases sent to a single process when execMode is BATCH
+     * or FORKSERVER
+     */
+    private int chunkSize = Integer.MAX_VALUE;
+
+    /**
+     * The maximum amount of time (in milliseconds) that a single test case may run
+     * before its process is killed and the test is counted as catching the
+     * implementation; 0 means no limit
+     */
+    private long timeoutMillis = 0;
+
+    /**
+     * If positive, each test case's time limit is instead this multiple of the time the
+     * reference solution took on that test case (but at least timeoutMillis)
+     */
+    private double relativeTimeout = 0;
+
+    /**
+     * The maximum total amount of time (in milliseconds) that may be spent running tests
+     * on a single implementation; once it runs out, the remaining tests are counted as
+     * catching the implementation without being run. 0 means no limit
+     */
+    private long implBudgetMillis = 0;
+
+    /**
+     * The time (in nanoseconds) that the reference solution took on each test case, as
+     * measured by computeExpectedResults(); null if it hasn't been run
+     */
+    private long[] expectedNanos;
+
+    /**
+     * The time (in nanoseconds) spent so far running tests on each implementation during
+     * the current call to runTests()
+     */
+    private AtomicLongArray implNanos;
+
+    /**
+     * The number of test cases that timed out during the last call to runTests()
+     */
+    private final AtomicInteger numTimeouts = new AtomicInteger();
+
+    /**
+     * The total time (in nanoseconds) spent on test cases that timed out during the last
+     * call to runTests()
+     */
+    private final AtomicLong timeoutNanos = new AtomicLong();
+
+    /**
+     * The number of bytes of each test process's output to keep; only the last line is
+     * needed, so this only has to be large enough to hold the longest result
+     */
+    private int outputTailSize = 64 * 1024;
+
+    /**
+     * The persistent cache of the reference solution's results; null if there is none
+     */
+    private ExpectedResultsCache expectedCache;
+
+    /**
+     * The expected results computed by the last call to computeExpectedResults(); null
+     * if it hasn't been called, in which case expected.py was written by someone else
+     */
+    private List<String> expectedResults;
+
+    /**
+     * The persistent store of individual test outcomes used to regrade incrementally;
+     * null if there is none
+     */
+    private ResultsStore resultsStore;
+
+    /**
+     * The implementations being tested by the current on-demand run, in sorted order;
+     * null if there is no on-demand run in progress
+     */
+    private List<String> onDemandImpls;
+
+    /**
+     * The worker pool used by the current on-demand run; null if not in POOL mode
+     */
+    private PyWorkerPool onDemandPool;
+
     /**
      * Constructor for a Tester, which initializes all of the fields using the given
      * inputs.
@@ -54,6 +164,169 @@ public class Tester {
         this.tests = tests;
     }
 
+    /**
+     * Constructor for a Tester that consumes its test cases directly from a (possibly
+     * lazy) generator, e.g. BaseSetGenerator.iterExTests(), without any intermediate
+     * collections. The test cases are still stored, since each one is referred to by its
+     * index.
+     *
+     * @param funcName     the name of the function under test
+     * @param solutionPath the absolute path to the file containing the reference
+     *                     implementation
+     * @param implDirPath  the absolute path to the directory containing the student
+     *                     implementations
+     * @param tests        an iterator over the test cases to be executed
+     */
+    public Tester(String funcName, String solutionPath, String implDirPath,
+        Iterator<TestCase> tests) {
+        this(funcName, solutionPath, implDirPath, new ArrayList<>());
+        tests.forEachRemaining(this.tests::add);
+    }
+
+    /**
+     * Sets the strategy used to execute test cases on the buggy implementations.
+     *
+     * @param execMode the execution strategy
+     */
+    public void setExecMode(ExecMode execMode) {
+        this.execMode = execMode;
+    }
+
+    /**
+     * Sets the number of Python workers to use when the execution mode is POOL.
+     *
+     * @param poolSize the number of workers; must be positive
+     */
+    public void setPoolSize(int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("pool size must be positive");
+        }
+        this.poolSize = poolSize;
+    }
+
+    /**
+     * Sets the number of threads used to run test cases on the buggy implementations;
+     * Runtime.getRuntime().availableProcessors() makes use of every core. The results do
+     * not depend on the number of threads.
+     *
+     * @param numThreads the number of threads; must be positive
+     */
+    public void setNumThreads(int numThreads) {
+        if (numThreads < 1) {
+            throw new IllegalArgumentException("number of threads must be positive");
+        }
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Sets the maximum number of test cases sent to a single process when the execution
+     * mode is BATCH or FORKSERVER. By default, each implementation gets a single process
+     * for all of the tests. Smaller chunks mean more processes, but also more units of
+     * work to spread across threads.
+     *
+     * @param chunkSize the maximum number of test cases per process; must be positive
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sets the maximum amount of time that a single test case may run; a test case that
+     * runs longer has its process (and any processes it started) killed, and is counted
+     * as catching the implementation. Also applies to the reference solution.
+     *
+     * @param timeoutMillis the time limit in milliseconds; 0 means no limit
+     */
+    public void setTimeout(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("timeout must not be negative");
+        }
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Makes each test case's time limit relative to the time the reference solution took
+     * on that test case, as measured by computeExpectedResults(). The absolute timeout
+     * (see setTimeout()) then acts as a floor, so that very fast test cases aren't
+     * killed by noise.
+     *
+     * @param factor the multiple of the reference solution's time to allow; 0 turns off
+     *               relative timeouts
+     */
+    public void setRelativeTimeout(double factor) {
+        if (factor < 0) {
+            throw new IllegalArgumentException("timeout factor must not be negative");
+        }
+        this.relativeTimeout = factor;
+    }
+
+    /**
+     * Sets the maximum total amount of time that may be spent running tests on a single
+     * implementation; once it runs out, the remaining tests are counted as catching the
+     * implementation without being run.
+     *
+     * @param budgetMillis the budget in milliseconds; 0 means no limit
+     */
+    public void setImplBudget(long budgetMillis) {
+        if (budgetMillis < 0) {
+            throw new IllegalArgumentException("budget must not be negative");
+        }
+        this.implBudgetMillis = budgetMillis;
+    }
+
+    /**
+     * Sets the number of bytes of each test process's output to keep. Only the last
+     * line is used, so this only has to hold the longest expected result; a reference
+     * solution whose result doesn't fit causes computeExpectedResults() to fail.
+     *
+     * @param outputTailSize the number of bytes to keep; must be positive
+     */
+    public void setOutputTailSize(int outputTailSize) {
+        if (outputTailSize < 1) {
+            throw new IllegalArgumentException("output tail size must be positive");
+        }
+        this.outputTailSize = outputTailSize;
+    }
+
+    /**
+     * Sets the persistent cache used by computeExpectedResults(); test cases that hit in
+     * the cache are not run on the reference solution at all.
+     *
+     * @param expectedCache the cache, or null to always run the reference solution
+     */
+    public void setExpectedCache(ExpectedResultsCache expectedCache) {
+        this.expectedCache = expectedCache;
+    }
+
+    /**
+     * Sets the persistent store used by runTests() to regrade incrementally; a (test
+     * case, implementation) pair whose outcome is already in the store is not run again
+     * unless the implementation, the test case, or its expected result has changed.
+     *
+     * @param resultsStore the store, or null to always run every pair
+     */
+    public void setResultsStore(ResultsStore resultsStore) {
+        this.resultsStore = resultsStore;
+    }
+
+    /**
+     * @return the number of test cases that timed out during the last call to runTests()
+     */
+    public int getNumTimeouts() {
+        return this.numTimeouts.get();
+    }
+
+    /**
+     * @return the total time (in milliseconds) spent on test cases that timed out during
+     * the last call to runTests()
+     */
+    public long getTimeoutMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.timeoutNanos.get());
+    }
+
     /**
      * Computes the expected results by running each test case on the solution file.
      * Stores the results in a list (which is returned) and also creates a .py file
@@ -61,7 +334,8 @@ public class Tester {
      *
      * @return a list where the i-th element is the result (a string) of running the i-th
      * test case on the reference solution
-     * @throws IOException if the path to the solution is invalid
+     * @throws IOException if the path to the solution is invalid, or the solution runs
+     *                     out of time on a test case
      * @throws InterruptedException if the process is interrupted
      */
     public List<String> computeExpectedResults() throws IOException, InterruptedException {
@@ -69,18 +343,61 @@ public class Tester {
         // the command-line, if the footer doesn't exist already
         this.appendToSolution();
 
-        // Run each test case on the solution file and gather the results in a map
+        // If there's a cache, its entries are only valid for this exact solution
+        String solutionHash = null;
+        if (this.expectedCache != null) {
+            solutionHash = ExpectedResultsCache.hashFile(this.solutionPath);
+        }
+
+        // Run each test case on the solution file and gather the results in a map,
+        // timing each one so that timeouts can be set relative to the solution
         List<String> results = new ArrayList<>();
+        this.expectedNanos = new long[this.tests.size()];
         for (int i = 0; i < this.tests.size(); i++) {
+            TestCase test = this.tests.get(i);
+            if (this.expectedCache != null) {
+                String cached = this.expectedCache.get(solutionHash, this.funcName, test);
+                if (cached != null) {
+                    this.expectedNanos[i] =
+                        this.expectedCache.getNanos(solutionHash, this.funcName, test);
+                    results.add(cached);
+                    continue;
+                }
+            }
+
             List<String> args = this.getExpTestArgs(i);
-            String result = this.runTestHelper(args);
-            results.add(result);
+            long start = System.nanoTime();
+            OutputTail output = this.runTestHelper(args, this.timeoutMillis);
+            this.expectedNanos[i] = System.nanoTime() - start;
+
+            // A test case that the solution can't finish has no expected result to
+            // compare against
+            if (output == null) {
+                throw new IOException("the reference solution ran out of time on test "
+                    + i + "; increase the timeout or remove the test");
+            }
+
+            // The last line of output is the result; make sure we got all of it
+            if (output.isTruncated()) {
+                throw new IOException("the result of test " + i + " is longer than " +
+                    this.outputTailSize + " bytes; increase the output tail size");
+            }
+            results.add(output.lastLine());
+
+            if (this.expectedCache != null) {
+                this.expectedCache.put(solutionHash, this.funcName, test,
+                    this.expectedNanos[i], output.lastLine());
+            }
+        }
+        if (this.expectedCache != null) {
+            this.expectedCache.save();
         }
 
         // Write the expected results to a .py file, so that they can be accessed via
         // the wrapper. These cached results allow us to only run the solution once per
         // test rather than having to run it once per test per buggy implementation.
         this.outputExpectedResults(results);
+        this.expectedResults = results;
 
         // Return the results
         return results;
@@ -107,41 +424,90 @@ public class Tester {
         }
         Set<Integer> wrongSet = new HashSet<>();
 
-        // Get the list of all files in the input directory
-        var dir = new File(this.implDirPath);
-        String[] filenames = dir.list();
-        if (filenames == null) {
-            throw new IOException("Error: implDir is empty");
+        // Get the implementations to be tested, in sorted order; the position of each
+        // one within this list is its index in the results
+        List<String> impls = this.listImpls();
+
+        // caught[i][j] will be true if the j-th test caught the i-th implementation
+        boolean[][] caught = new boolean[impls.size()][this.tests.size()];
+
+        // Reset the time accounting
+        this.implNanos = new AtomicLongArray(impls.size());
+        this.numTimeouts.set(0);
+        this.timeoutNanos.set(0);
+
+        // If there's a results store, fill in every outcome that it already knows;
+        // known[i][j] will be true if caught[i][j] doesn't need to be run
+        boolean[][] known = new boolean[impls.size()][this.tests.size()];
+        String[] implHashes = null;
+        String[] testHashes = null;
+        String[] expectedHashes = null;
+        if (this.resultsStore != null) {
+            implHashes = this.hashImpls(impls);
+            testHashes = this.hashTests();
+            expectedHashes = this.hashExpected();
+            for (int implIndex = 0; implIndex < impls.size(); implIndex++) {
+                for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
+                    Boolean outcome = this.resultsStore.get(implHashes[implIndex],
+                        testHashes[testIndex], expectedHashes[testIndex]);
+                    if (outcome != null) {
+                        caught[implIndex][testIndex] = outcome;
+                        known[implIndex][testIndex] = true;
+                    }
+                }
+            }
         }
-        Arrays.sort(filenames);
 
-        // If implDirPath didn't actually point to a directory, files would be null
-        int trueIndex = 0;
+        // In pool mode, the workers are shared across all files and all tests
+        PyWorkerPool pool = null;
+        if (this.execMode == ExecMode.POOL) {
+            pool = new PyWorkerPool(this.implDirPath, this.poolSize, 0);
+        }
 
-        // Test each individual file using all tests in the base test set
-        for (String filename : filenames) {
-            if (!filename.endsWith(".py") || filename.equals("wrapper.py")
-                || filename.equals("expected.py")) {
-                continue;
+        try {
+            List<Callable<Void>> units = this.buildUnits(impls, caught, known, pool);
+            if (this.numThreads > 1) {
+                this.runConcurrently(units);
+            } else {
+                // Test each individual file using all tests in the base test set
+                for (Callable<Void> unit : units) {
+                    this.runUnit(unit);
+                }
             }
+        } finally {
+            if (pool != null) {
+                pool.close();
+            }
+        }
 
-            // Run each test case on this file, keeping track of which ones caught
-            // errors
-            HashSet<Integer> caughtBy = new HashSet<>();
-            for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
-                List<String> args = this.getTestArgs(testIndex, filename);
-                String result = this.runTestHelper(args);
-                if (!result.equals("True")) {
-                    caseToFiles.get(testIndex).add(trueIndex);
-                    caughtBy.add(testIndex);
+        // Store the new outcomes, except for implementations whose budget ran out, since
+        // those depend on which other tests happened to run first
+        if (this.resultsStore != null) {
+            for (int implIndex = 0; implIndex < impls.size(); implIndex++) {
+                if (this.tests.isEmpty() || this.caseTimeout(0, implIndex) < 0) {
+                    continue;
+                }
+                for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
+                    if (!known[implIndex][testIndex]) {
+                        this.resultsStore.put(implHashes[implIndex],
+                            testHashes[testIndex], expectedHashes[testIndex],
+                            caught[implIndex][testIndex]);
+                    }
                 }
             }
+            this.resultsStore.save();
+        }
 
-            // Add to wrongSet if applicable
-            if (caughtBy.size() > 0) {
-                wrongSet.add(trueIndex);
+        // Record which tests caught which files, and which files were caught at all;
+        // this happens after all of the tests have finished so that the results don't
+        // depend on the order in which they finished
+        for (int implIndex = 0; implIndex < impls.size(); implIndex++) {
+            for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
+                if (caught[implIndex][testIndex]) {
+                    caseToFiles.get(testIndex).add(implIndex);
+                    wrongSet.add(implIndex);
+                }
             }
-            trueIndex++;
         }
 
         // Clean up the pycache that was created
@@ -151,6 +517,494 @@ public class Tester {
         return new TestResults(this.tests, caseToFiles, wrongSet);
     }
 
+    /**
+     * Starts an on-demand run, in which the caller decides which (test case,
+     * implementation) pairs to run via runCell(), rather than running all of them as
+     * runTests() does. Must be followed by a call to finishOnDemand(). Each cell is run
+     * on its own, so BATCH and FORKSERVER modes behave like PROCESS mode here.
+     *
+     * @return the number of implementations; implementations are indexed in the same
+     * order as in the results of runTests()
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     */
+    public int startOnDemand() throws IOException {
+        this.createWrapperFile();
+        this.onDemandImpls = this.listImpls();
+
+        // Reset the time accounting
+        this.implNanos = new AtomicLongArray(this.onDemandImpls.size());
+        this.numTimeouts.set(0);
+        this.timeoutNanos.set(0);
+
+        if (this.execMode == ExecMode.POOL) {
+            this.onDemandPool = new PyWorkerPool(this.implDirPath, this.poolSize, 0);
+        }
+        return this.onDemandImpls.size();
+    }
+
+    /**
+     * Runs a single test case on a single implementation as part of an on-demand run.
+     *
+     * @param testIndex the index of the test case to be run
+     * @param implIndex the index of the implementation to be tested
+     * @return true if the test caught the implementation; false otherwise
+     * @throws IOException if the file to run or its output cannot be accessed
+     * @throws InterruptedException if the process is interrupted
+     */
+    public boolean runCell(int testIndex, int implIndex)
+        throws IOException, InterruptedException {
+        if (this.onDemandImpls == null) {
+            throw new IllegalStateException("no on-demand run in progress");
+        }
+        return this.runCase(testIndex, implIndex, this.onDemandImpls.get(implIndex),
+            this.onDemandPool);
+    }
+
+    /**
+     * Finishes an on-demand run, shutting down any workers and cleaning up.
+     *
+     * @throws IOException if the pycache cannot be deleted
+     */
+    public void finishOnDemand() throws IOException {
+        if (this.onDemandPool != null) {
+            this.onDemandPool.close();
+            this.onDemandPool = null;
+        }
+        this.onDemandImpls = null;
+        this.deletePyCache();
+    }
+
+    /**
+     * @return the test cases to be executed
+     */
+    public List<TestCase> getTests() {
+        return this.tests;
+    }
+
+    /**
+     * Gets the names of all of the implementations in the directory of buggy
+     * implementations, in sorted order, skipping the wrapper and the expected results.
+     *
+     * @return the sorted list of implementation filenames
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     */
+    private List<String> listImpls() throws IOException {
+        return listImpls(this.implDirPath);
+    }
+
+    /**
+     * Gets the names of all of the implementations in a directory of buggy
+     * implementations, in sorted order, skipping the wrapper and the expected results;
+     * e.g. to find out how many implementations there are before building a Tester.
+     *
+     * @param implDirPath the path to the directory of buggy implementations
+     * @return the sorted list of implementation filenames
+     * @throws IOException if the path to the directory of buggy implementations is
+     *                     invalid
+     */
+    public static List<String> listImpls(String implDirPath) throws IOException {
+        // Get the list of all files in the input directory; if implDirPath didn't
+        // actually point to a directory, files would be null
+        var dir = new File(implDirPath);
+        String[] filenames = dir.list();
+        if (filenames == null) {
+            throw new IOException("Error: implDir is empty");
+        }
+        Arrays.sort(filenames);
+
+        List<String> impls = new ArrayList<>();
+        for (String filename : filenames) {
+            if (filename.endsWith(".py") && !filename.equals("wrapper.py")
+                && !filename.equals("expected.py")) {
+                impls.add(filename);
+            }
+        }
+        return impls;
+    }
+
+    /**
+     * Runs a single test case on a single implementation.
+     *
+     * @param testIndex the index of the test case to be run
+     * @param implIndex the index of the implementation being tested
+     * @param filename  the name of the implementation being tested
+     * @param pool      the worker pool to run the test on, or null to launch a new
+     *                  process
+     * @return true if the test caught the implementation (i.e. the test failed, crashed,
+     * or timed out, or the implementation's budget ran out); false otherwise
+     * @throws IOException if the file to run or its output cannot be accessed
+     * @throws InterruptedException if the process is interrupted
+     */
+    private boolean runCase(int testIndex, int implIndex, String filename,
+        PyWorkerPool pool) throws IOException, InterruptedException {
+        long timeout = this.caseTimeout(testIndex, implIndex);
+        if (timeout < 0) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        String result;
+        if (pool != null) {
+            // Like a fresh process, a worker gets exactly the test case's time limit (if
+            // any), so that every mode gives the same results
+            result = pool.runTest(testIndex, filename, this.funcName,
+                this.tests.get(testIndex), timeout);
+        } else {
+            List<String> args = this.getTestArgs(testIndex, filename);
+            OutputTail output = this.runTestHelper(args, timeout);
+            result = (output == null) ? "" : output.lastLine();
+        }
+        this.recordTime(implIndex, System.nanoTime() - start, timeout);
+        return !result.equals("True");
+    }
+
+    /**
+     * Computes the time limit for running a single test case on a single
+     * implementation, taking into account both the per-test timeout and whatever is
+     * left of the implementation's budget.
+     *
+     * @param testIndex the index of the test case to be run
+     * @param implIndex the index of the implementation being tested
+     * @return the time limit in milliseconds; 0 if there is no limit, or -1 if the
+     * implementation's budget has already run out
+     */
+    private long caseTimeout(int testIndex, int implIndex) {
+        long timeout = this.testTimeout(testIndex);
+        if (this.implBudgetMillis > 0) {
+            long remaining = this.implBudgetMillis
+                - TimeUnit.NANOSECONDS.toMillis(this.implNanos.get(implIndex));
+            if (remaining <= 0) {
+                return -1;
+            }
+            timeout = (timeout > 0) ? Math.min(timeout, remaining) : remaining;
+        }
+        return timeout;
+    }
+
+    /**
+     * Computes the time limit for running a single test case on any implementation,
+     * before the implementation's budget is taken into account.
+     *
+     * @param testIndex the index of the test case to be run
+     * @return the time limit in milliseconds; 0 if there is no limit
+     */
+    private long testTimeout(int testIndex) {
+        long timeout = this.timeoutMillis;
+        if (this.relativeTimeout > 0 && this.expectedNanos != null
+            && testIndex < this.expectedNanos.length) {
+            long relative = (long) Math.ceil(this.relativeTimeout
+                * this.expectedNanos[testIndex] / 1_000_000.0);
+            timeout = Math.max(timeout, relative);
+        }
+        return timeout;
+    }
+
+    /**
+     * Charges the time spent on a single test case to its implementation's budget, and
+     * records it as a timeout if it ran up against its time limit.
+     *
+     * @param implIndex     the index of the implementation that was tested
+     * @param elapsedNanos  the time spent on the test case, in nanoseconds
+     * @param timeoutMillis the test case's time limit in milliseconds; 0 if it had none
+     */
+    private void recordTime(int implIndex, long elapsedNanos, long timeoutMillis) {
+        this.implNanos.addAndGet(implIndex, elapsedNanos);
+        if (timeoutMillis > 0
+            && elapsedNanos >= TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) {
+            this.numTimeouts.incrementAndGet();
+            this.timeoutNanos.addAndGet(elapsedNanos);
+        }
+    }
+
+    /**
+     * Splits the work of running every test case on every implementation into units. In
+     * BATCH and FORKSERVER modes, each unit is a chunk of test cases for a single
+     * implementation; otherwise, each unit is a single (implementation, test case) pair.
+     * Each unit writes only its own cells of caught. Cells that are already known are
+     * skipped.
+     *
+     * @param impls  the names of the implementations being tested
+     * @param caught the matrix to fill in; caught[i][j] is set to true if the j-th test
+     *               catches the i-th implementation
+     * @param known  known[i][j] is true if caught[i][j] has already been filled in
+     * @param pool   the worker pool to run the tests on, or null if not in POOL mode
+     * @return the units of work, in (implementation, test case) order
+     */
+    private List<Callable<Void>> buildUnits(List<String> impls, boolean[][] caught,
+        boolean[][] known, PyWorkerPool pool) {
+        List<Callable<Void>> units = new ArrayList<>();
+        for (int implIndex = 0; implIndex < impls.size(); implIndex++) {
+            final int i = implIndex;
+            final String filename = impls.get(implIndex);
+
+            if (this.execMode == ExecMode.BATCH
+                || this.execMode == ExecMode.FORKSERVER) {
+                List<Integer> unknown = new ArrayList<>();
+                for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
+                    if (!known[i][testIndex]) {
+                        unknown.add(testIndex);
+                    }
+                }
+                for (int start = 0; start < unknown.size(); start += this.chunkSize) {
+                    int end = (int) Math.min((long) start + this.chunkSize,
+                        unknown.size());
+                    List<Integer> chunk = unknown.subList(start, end);
+                    units.add(() -> {
+                        this.runChunk(i, filename, chunk, caught[i]);
+                        return null;
+                    });
+                }
+            } else {
+                for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
+                    if (known[i][testIndex]) {
+                        continue;
+                    }
+                    final int j = testIndex;
+                    units.add(() -> {
+                        caught[i][j] = this.runCase(j, i, filename, pool);
+                        return null;
+                    });
+                }
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Hashes the contents of each implementation, for use as keys into the results store.
+     *
+     * @param impls the names of the implementations being tested
+     * @return the hash of each implementation, in order
+     * @throws IOException if an implementation cannot be read
+     */
+    private String[] hashImpls(List<String> impls) throws IOException {
+        String[] hashes = new String[impls.size()];
+        for (int implIndex = 0; implIndex < impls.size(); implIndex++) {
+            hashes[implIndex] = ExpectedResultsCache.hashFile(
+                this.implDirPath + "/" + impls.get(implIndex));
+        }
+        return hashes;
+    }
+
+    /**
+     * Hashes each test case (along with the function it calls), for use as keys into the
+     * results store.
+     *
+     * @return the hash of each test case, in order
+     */
+    private String[] hashTests() {
+        String[] hashes = new String[this.tests.size()];
+        for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
+            hashes[testIndex] = ExpectedResultsCache.hash(this.funcName + "\0"
+                + ExpectedResultsCache.canonicalRepr(this.tests.get(testIndex)));
+        }
+        return hashes;
+    }
+
+    /**
+     * Hashes the expected result of each test case, for use as keys into the results
+     * store. The configured time limits and the execution mode are mixed in too, since
+     * they can turn a pass into a failure, e.g. for an implementation that keeps state
+     * between calls. With a relative timeout, the factor is mixed in rather than the
+     * resulting limit, which depends on how long the reference solution happened to take
+     * and so would change on every regrade. If the expected results weren't computed by
+     * this Tester, the best we can do is to hash the whole of expected.py along with the
+     * test's position in it.
+     *
+     * @return the hash of each expected result, in order
+     * @throws IOException if expected.py cannot be read
+     */
+    private String[] hashExpected() throws IOException {
+        String[] hashes = new String[this.tests.size()];
+        boolean computed = this.expectedResults != null
+            && this.expectedResults.size() == this.tests.size();
+        String fileHash = computed ? null
+            : ExpectedResultsCache.hashFile(this.implDirPath + "/expected.py");
+        for (int testIndex = 0; testIndex < this.tests.size(); testIndex++) {
+            String limits = this.execMode + "\0" + this.timeoutMillis + "\0"
+                + this.relativeTimeout;
+            hashes[testIndex] = ExpectedResultsCache.hash(limits + "\0" + (computed
+                ? this.expectedResults.get(testIndex) : fileHash + "\0" + testIndex));
+        }
+        return hashes;
+    }
+
+    /**
+     * Runs a single unit of work on the calling thread.
+     *
+     * @param unit the unit to be run
+     * @throws IOException if a file to run or its output cannot be accessed
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private void runUnit(Callable<Void> unit) throws IOException, InterruptedException {
+        try {
+            unit.call();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs the given units of work on a bounded thread pool.
+     *
+     * @param units the units of work to be run
+     * @throws IOException if a file to run or its output cannot be accessed
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private void runConcurrently(List<Callable<Void>> units)
+        throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(this.numThreads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Callable<Void> unit : units) {
+                futures.add(executor.submit(unit));
+            }
+
+            // Wait for every unit to finish; get() also makes each unit's writes to
+            // caught visible to this thread
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof InterruptedException) {
+                        throw (InterruptedException) cause;
+                    }
+                    throw new RuntimeException(cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a chunk of test cases on a single implementation using a single wrapper
+     * process in serve mode. The requests are streamed to the process's stdin, which is
+     * then closed so that the process exits after the last one; the process reports a
+     * "(testIndex) (result)" record per test case, in order. If the process dies partway
+     * through (or is killed because a test case timed out), the first test case without
+     * a record is counted as caught, and the rest of the chunk is resubmitted to a new
+     * process. Once the implementation's budget runs out, the rest of the chunk is
+     * counted as caught without being run.
+     *
+     * @param implIndex   the index of the implementation being tested
+     * @param filename    the name of the implementation being tested
+     * @param testIndices the indices of the test cases to be run, in order
+     * @param caught      the implementation's row of the results matrix; caught[j] is
+     *                    set to true if the j-th test catches the implementation
+     * @throws IOException if the wrapper cannot be run
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private void runChunk(int implIndex, String filename, List<Integer> testIndices,
+        boolean[] caught) throws IOException, InterruptedException {
+        List<Integer> remaining = testIndices;
+        while (!remaining.isEmpty()) {
+            if (this.caseTimeout(remaining.get(0), implIndex) < 0) {
+                // Out of budget
+                for (int testIndex : remaining) {
+                    caught[testIndex] = true;
+                }
+                return;
+            }
+
+            List<String> results = this.runBatchProcess(implIndex, filename, remaining);
+            for (int k = 0; k < results.size(); k++) {
+                caught[remaining.get(k)] = !results.get(k).equals("True");
+            }
+            if (results.size() == remaining.size()) {
+                return;
+            }
+
+            // The process died on the first test without a result
+            caught[remaining.get(results.size())] = true;
+            remaining = remaining.subList(results.size() + 1, remaining.size());
+        }
+    }
+
+    /**
+     * Launches a single wrapper process in serve mode, feeds it the given test cases,
+     * and collects the results. Each test case's time is measured from the arrival of the
+     * previous record (or from the launch of the process, for the first test case); if a
+     * test case runs past its time limit, the process is killed. In FORKSERVER mode, the
+     * process forks a fresh child for each test case.
+     *
+     * @param implIndex   the index of the implementation being tested
+     * @param filename    the name of the implementation being tested
+     * @param testIndices the indices of the test cases to be run, in order
+     * @return the result of each test case, in order, stopping at the first test case
+     * that didn't produce a well-formed record in time
+     * @throws IOException if the wrapper cannot be run
+     * @throws InterruptedException if the thread is interrupted
+     */
+    private List<String> runBatchProcess(int implIndex, String filename,
+        List<Integer> testIndices) throws IOException, InterruptedException {
+        List<String> args = new ArrayList<>(List.of("python3",
+            this.implDirPath + "/wrapper.py", "--serve"));
+        if (this.execMode == ExecMode.FORKSERVER) {
+            args.add("--fork");
+        }
+        ProcessBuilder pb = new ProcessBuilder(args);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = pb.start();
+
+        // Write the requests on a separate thread, so that neither side can block
+        // forever on a full pipe while the other is blocked too
+        Thread feeder = new Thread(() -> {
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                process.getOutputStream(), StandardCharsets.UTF_8))) {
+                for (int testIndex : testIndices) {
+                    writer.write(PyWorkerPool.formatRequest(testIndex, filename,
+                        this.funcName, this.tests.get(testIndex)));
+                }
+            } catch (IOException e) {
+                // The process died; the missing records will show up below
+            }
+        });
+        feeder.setDaemon(true);
+        feeder.start();
+
+        // Read one record per test case, in order
+        List<String> results = new ArrayList<>();
+        TimedLineReader reader = new TimedLineReader(process.getInputStream());
+        while (results.size() < testIndices.size()) {
+            int testIndex = testIndices.get(results.size());
+            long timeout = this.caseTimeout(testIndex, implIndex);
+            if (timeout < 0) {
+                break;
+            }
+
+            long start = System.nanoTime();
+            String line;
+            try {
+                line = reader.readLine(timeout);
+            } catch (TimeoutException e) {
+                line = null;
+            }
+            this.recordTime(implIndex, System.nanoTime() - start, timeout);
+
+            String result = (line == null) ? null
+                : PyWorkerPool.parseResponse(testIndex, line);
+            if (result == null) {
+                break;
+            }
+            results.add(result);
+        }
+
+        // Kill the process if it's stuck (or if we stopped early); otherwise, this has
+        // no effect since it has already exited
+        killTree(process);
+        process.waitFor();
+        feeder.join();
+        return results;
+    }
+
     /**
      * Builds the list of command-line arguments for executing the solution in order to
      * get the expected results on a single test case.
@@ -211,52 +1065,92 @@ public class Tester {
 
     /**
      * A helper function for runTest and runExpTest which runs a Python process (using a
-     * list of arguments, as output by getTestArgs or getExpTestArgs) and reads its
-     * output.
+     * list of arguments, as output by getTestArgs or getExpTestArgs) and captures the
+     * tail of its output. The output is drained while the process runs, so a process
+     * that prints a lot can't block on a full pipe; stderr is discarded.
      *
-     * @param args the arguments for the process to be created
+     * @param args          the arguments for the process to be created
+     * @param timeoutMillis the maximum amount of time (in milliseconds) to let the
+     *                      process run before killing it; 0 means no limit
+     * @return the tail of the process's output, the last line of which should be the
+     * result; null if the process was killed
      * @throws IOException if the file to run or its output cannot be accessed
      * @throws InterruptedException if the process is interrupted
      */
-    private String runTestHelper(List<String> args) throws IOException, InterruptedException {
+    private OutputTail runTestHelper(List<String> args, long timeoutMillis)
+        throws IOException, InterruptedException {
         ProcessBuilder pb = new ProcessBuilder();
         pb.command(args);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
         Process process = pb.start();
 
         // Redirect the output of the process to here
-        var sb = new StringBuilder();
-        var reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-
-        // Wait until the process has exited
-        process.waitFor();
+        OutputTail output = OutputTail.start(process.getInputStream(),
+            this.outputTailSize);
 
-        // Read the output of the process, the last line of which should be the result
-        String line;
-        String prevLine = "";
-        while ((line = reader.readLine()) != null) {
-            prevLine = line;
+        // Wait until the process has exited, killing it if it runs out of time
+        if (timeoutMillis > 0) {
+            if (!process.waitFor(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                killTree(process);
+                process.waitFor();
+                output.await();
+                return null;
+            }
+        } else {
+            process.waitFor();
         }
-        reader.close();
 
-        // Return the result
-        // Return the result
-        return prevLine;
+        // Wait until all of the output has been read
+        output.await();
+        return output;
     }
 
     /**
-     * Creates a wrapper file that imports the expected results, reads the command-line
+     * Forcibly kills a process, along with any processes it started.
+     *
+     * @param process the process to be killed
+     */
+    static void killTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * Creates a wrapper file that looks up the expected results, reads the command-line
      * args, dynamically imports the buggy implementation, generates the actual results
      * for a single test case, compares the returned value to the expected value, and then
-     * returns a boolean value (True if test passes, False otherwise).
+     * returns a boolean value (True if test passes, False otherwise). When invoked with
+     * --serve, the wrapper instead handles a stream of test requests from stdin, which is
+     * used both by the worker pool and by batch mode. Also discards the index of the
+     * expected results if it is out of date.
      *
      * @throws IOException if the wrapper file cannot be created
      */
     private void createWrapperFile() throws IOException {
         StringBuilder sb = new StringBuilder();
 
-        // Import the expected results, plus the other modules we'll need
-        sb.append("import sys\nfrom importlib import import_module\nfrom expected " +
-            "import results\n\n");
+        // Import the modules we'll need
+        sb.append("import os\nimport struct\nimport sys\n" +
+            "from importlib import import_module\n\n");
+
+        // Function for looking up a single expected result via the index (see
+        // ExpectedIndex), without evaluating all of the others; falls back to importing
+        // expected.py if there is no index
+        sb.append("HERE = os.path.dirname(os.path.abspath(__file__))\n\n");
+        sb.append("def expected_result(case_num):\n");
+        sb.append("    try:\n");
+        sb.append("        with open(os.path.join(HERE, \"").append(ExpectedIndex.INDEX_NAME)
+            .append("\"), \"rb\") as index:\n");
+        sb.append("            index.seek(").append(ExpectedIndex.HEADER_SIZE)
+            .append(" + 8 * case_num)\n");
+        sb.append("            start, end = struct.unpack(\">qq\", index.read(16))\n");
+        sb.append("        with open(os.path.join(HERE, \"").append(ExpectedIndex.DATA_NAME)
+            .append("\"), \"rb\") as data:\n");
+        sb.append("            data.seek(start)\n");
+        sb.append("            return eval(data.read(end - start).decode(\"utf-8\"))\n");
+        sb.append("    except FileNotFoundError:\n");
+        sb.append("        from expected import results\n");
+        sb.append("        return results[case_num]\n\n");
 
         // Function for comparing the buggy implementation's results to the
         // pre-determined expected results
@@ -265,11 +1159,65 @@ public class Tester {
         sb.append("    mod = import_module(mod_name)\n");
         sb.append("    func = getattr(mod, fname)\n");
         sb.append("    actual = func(*args)\n");
-        sb.append("    expected = results[case_num]\n");
+        sb.append("    expected = expected_result(case_num)\n");
         sb.append("    return (actual == expected)\n\n");
 
+        // Function for running a single request (fields separated by NULs), discarding
+        // anything the implementation prints so that it can't be mistaken for a response
+        sb.append("def run_request(fields, out, devnull):\n");
+        sb.append("    sys.stdout = devnull\n");
+        sb.append("    try:\n");
+        sb.append("        args = [eval(arg) for arg in fields[3:]]\n");
+        sb.append("        return test_buggy_impl(int(fields[0]), fields[1], fields[2], " +
+            "args)\n");
+        sb.append("    except BaseException:\n");
+        sb.append("        return False\n");
+        sb.append("    finally:\n");
+        sb.append("        sys.stdout = out\n\n");
+
+        // Function for running a single request in a forked child, so that nothing the
+        // implementation does (e.g. to its global state) outlives the test case. The
+        // implementation is imported in the parent first, so each child starts warm.
+        sb.append("def run_forked(fields, out, devnull):\n");
+        sb.append("    try:\n");
+        sb.append("        import_module(fields[1][:-3])\n");
+        sb.append("    except BaseException:\n");
+        sb.append("        return False\n");
+        sb.append("    read_end, write_end = os.pipe()\n");
+        sb.append("    pid = os.fork()\n");
+        sb.append("    if pid == 0:\n");
+        sb.append("        os.close(read_end)\n");
+        sb.append("        result = run_request(fields, out, devnull)\n");
+        sb.append("        os.write(write_end, b\"1\" if result else b\"0\")\n");
+        sb.append("        os._exit(0)\n");
+        sb.append("    os.close(write_end)\n");
+        sb.append("    with os.fdopen(read_end, \"rb\") as reader:\n");
+        sb.append("        status = reader.read()\n");
+        sb.append("    os.waitpid(pid, 0)\n");
+        sb.append("    return status == b\"1\"\n\n");
+
+        // Function for serving requests (one per line) from stdin, as used by the worker
+        // pool and by batch mode
+        sb.append("def serve(fork):\n");
+        sb.append("    out = sys.stdout\n");
+        sb.append("    devnull = open(os.devnull, \"w\")\n");
+        sb.append("    while True:\n");
+        sb.append("        line = sys.stdin.readline()\n");
+        sb.append("        if not line:\n");
+        sb.append("            break\n");
+        sb.append("        fields = line.rstrip(\"\\n\").split(\"\\0\")\n");
+        sb.append("        if fork:\n");
+        sb.append("            result = run_forked(fields, out, devnull)\n");
+        sb.append("        else:\n");
+        sb.append("            result = run_request(fields, out, devnull)\n");
+        sb.append("        out.write(fields[0] + \" \" + str(result) + \"\\n\")\n");
+        sb.append("        out.flush()\n\n");
+
         // Footer to make the function executable from the command line
         sb.append("if __name__ == \"__main__\":\n");
+        sb.append("    if sys.argv[1] == \"--serve\":\n");
+        sb.append("        serve(\"--fork\" in sys.argv[2:])\n");
+        sb.append("        sys.exit(0)\n");
         sb.append("    case_num = int(sys.argv[1])\n");
         sb.append("    impl_name = sys.argv[2]\n");
         sb.append("    fname = sys.argv[3]\n");
@@ -282,6 +1230,9 @@ public class Tester {
         FileWriter writer = new FileWriter(this.implDirPath + "/wrapper.py");
         writer.write(wrapperContents);
         writer.close();
+
+        // Make sure the wrapper won't read an index of some older expected results
+        ExpectedIndex.validate(this.implDirPath);
     }
 
     /**
@@ -336,6 +1287,9 @@ public class Tester {
         FileWriter writer = new FileWriter(this.implDirPath + "/expected.py");
         writer.write(contents);
         writer.close();
+
+        // Also index them, so that the wrapper can look up one result at a time
+        ExpectedIndex.write(this.implDirPath, results);
     }
 
     /**
@@ -0,0 +1,88 @@
+package main.rice.test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A line reader over a child process's output that supports waiting for the next line
+ * with a time limit. A background thread reads the stream as lines arrive, so the child
+ * never blocks on a full pipe while the caller isn't reading.
+ */
+class TimedLineReader {
+
+    /**
+     * Marks the end of the stream within the queue of lines; compared by identity.
+     */
+    private static final String EOF = new String("");
+
+    /**
+     * The lines that have been read but not yet consumed, in order
+     */
+    private final BlockingQueue<String> lines = new LinkedBlockingQueue<>();
+
+    /**
+     * Whether the end of the stream has been consumed
+     */
+    private boolean done = false;
+
+    /**
+     * Constructor for a TimedLineReader; starts reading the input stream immediately.
+     *
+     * @param in the stream to be read, e.g. a child process's stdout
+     */
+    TimedLineReader(InputStream in) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(in, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    this.lines.add(line);
+                }
+            } catch (IOException e) {
+                // The stream was closed, most likely because the process was killed
+            } finally {
+                this.lines.add(EOF);
+            }
+        }, "timed-line-reader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Waits for the next line.
+     *
+     * @param timeoutMillis the maximum amount of time to wait, in milliseconds; 0 means
+     *                      wait forever
+     * @return the next line, or null if the end of the stream has been reached
+     * @throws TimeoutException if no line arrived in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    String readLine(long timeoutMillis) throws TimeoutException, InterruptedException {
+        if (this.done) {
+            return null;
+        }
+
+        String line;
+        if (timeoutMillis > 0) {
+            line = this.lines.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+            if (line == null) {
+                throw new TimeoutException();
+            }
+        } else {
+            line = this.lines.take();
+        }
+
+        if (line == EOF) {
+            this.done = true;
+            return null;
+        }
+        return line;
+    }
+}
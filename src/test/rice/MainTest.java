@@ -1,6 +1,8 @@
 package test.rice;
 
 import main.rice.Main;
+import main.rice.basegen.BaseSetGenerator;
+import main.rice.node.PyIntNode;
 import main.rice.obj.PyIntObj;
 import main.rice.obj.PyListObj;
 import main.rice.obj.PySetObj;
@@ -158,6 +160,84 @@ public class MainTest {
         mainTestMultipleOptionsHelper(args, expectedOptions);
     }
 
+    /**
+     * Tests that the --lazy flag finds the same concise test set as the default.
+     */
+    @Test
+    @Order(8)
+    void testMultipleCasesDeterministicLazy() {
+        String[] args = buildArgs("func0", "func0simple", "f0multipleMixedDeterministic");
+        args = Arrays.copyOf(args, args.length + 1);
+        args[args.length - 1] = "--lazy";
+        Set<TestCase> expected = Set.of(new TestCase(Collections.singletonList(
+                new PyIntObj(2))), new TestCase(Collections.singletonList(new PyIntObj(7))));
+        mainTestHelper(args, expected);
+    }
+
+    /**
+     * Tests that --budget refuses a config whose base set would take more test
+     * executions than allowed, and behaves as usual otherwise.
+     */
+    @Test
+    @Order(9)
+    void testBudget() {
+        // 5 exhaustive + 5 random tests on 6 implementations = 60 executions
+        String[] args = buildArgs("func0", "func0simple", "f0multipleMixedDeterministic");
+        String[] over = appendArgs(args, "--budget", "59");
+        assertThrows(InvalidConfigException.class, () -> Main.generateTests(over));
+
+        Set<TestCase> expected = Set.of(new TestCase(Collections.singletonList(
+                new PyIntObj(2))), new TestCase(Collections.singletonList(new PyIntObj(7))));
+        mainTestHelper(appendArgs(args, "--budget", "60"), expected);
+        mainTestHelper(appendArgs(args, "--budget", "59", "--over-budget", "warn"),
+                expected);
+    }
+
+    /**
+     * Tests that the sample policy shrinks the semi-exhaustive part of the base set to
+     * fit within the budget, keeping all of the random tests.
+     */
+    @Test
+    @Order(10)
+    void testBudgetSample() throws InvalidConfigException {
+        PyIntNode node = new PyIntNode();
+        node.setExDomain(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        node.setRanDomain(List.of(10, 11, 12, 13, 14));
+        BaseSetGenerator generator = new BaseSetGenerator(List.of(node), 5);
+
+        // 15 tests on 4 implementations is 60 executions; 40 allows only 10 tests
+        List<TestCase> baseSet = Main.genBaseSetWithinBudget(generator, 5, 4, 40,
+                Main.OverBudget.SAMPLE);
+        assertEquals(10, baseSet.size());
+        assertEquals(15, Main.genBaseSetWithinBudget(generator, 5, 4, 60,
+                Main.OverBudget.SAMPLE).size());
+        assertThrows(InvalidConfigException.class, () -> Main.genBaseSetWithinBudget(
+                generator, 5, 4, 40, Main.OverBudget.REFUSE));
+
+        // The random tests alone take 20 executions, so 19 isn't enough to sample from
+        assertEquals(5, Main.genBaseSetWithinBudget(generator, 5, 4, 20,
+                Main.OverBudget.SAMPLE).size());
+        assertThrows(InvalidConfigException.class, () -> Main.genBaseSetWithinBudget(
+                generator, 5, 4, 19, Main.OverBudget.SAMPLE));
+
+        // With no implementations, nothing is run
+        assertEquals(15, Main.genBaseSetWithinBudget(generator, 5, 0, 0,
+                Main.OverBudget.SAMPLE).size());
+    }
+
+    /**
+     * Helper function for appending optional flags to an array of args.
+     *
+     * @param args  the args built by buildArgs()
+     * @param extra the flags to be appended
+     * @return a new array containing args followed by extra
+     */
+    private String[] appendArgs(String[] args, String... extra) {
+        String[] all = Arrays.copyOf(args, args.length + extra.length);
+        System.arraycopy(extra, 0, all, args.length, extra.length);
+        return all;
+    }
+
     /**
      * Helper function for building the array of args for Main.main() by adding absolute
      * path information.
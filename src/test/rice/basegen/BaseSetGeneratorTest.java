@@ -1,15 +1,16 @@
 package test.rice.basegen;
 
 import main.rice.basegen.BaseSetGenerator;
+import main.rice.basegen.ExMode;
 import main.rice.node.*;
 import main.rice.obj.*;
 import main.rice.test.TestCase;
 import org.junit.jupiter.api.*;
 
 import java.util.*;
+import java.util.stream.Collectors;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Test cases for the BaseSetGenerator class.
@@ -315,6 +316,401 @@ class BaseSetGeneratorTest {
             oneArgSimpleOverlapRandVals, 3, 100, true));
     }
 
+    /**
+     * Tests that the lazily-generated exhaustive tests are the same as the eagerly
+     * generated ones, with no duplicates.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(18)
+    void testStreamExTests() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsNested, 0);
+        List<TestCase> streamed = generator.streamExTests().collect(Collectors.toList());
+        assertEquals(multipleArgsNestedExVals, new HashSet<>(streamed));
+        assertEquals(multipleArgsNestedExVals.size(), streamed.size());
+    }
+
+    /**
+     * Tests that every exhaustive test case can be generated by its index, in the same
+     * order as the iterator yields them.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(19)
+    void testGenExTest() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsNested, 0);
+        assertEquals(multipleArgsNestedExVals.size(), generator.exTestCount());
+
+        Iterator<TestCase> iter = generator.iterExTests();
+        for (long index = 0; index < generator.exTestCount(); index++) {
+            assertEquals(iter.next(), generator.genExTest(index));
+        }
+        assertFalse(iter.hasNext());
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> generator.genExTest(generator.exTestCount()));
+    }
+
+    /**
+     * Tests that sampling from the exhaustive test set gives distinct, valid test cases,
+     * and gives all of them when asked for more than there are.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(20)
+    void testSampleExTests() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsSimple, 0);
+        Random rand = new Random(215);
+        for (int numTests = 0; numTests <= multipleArgsSimpleExVals.size(); numTests++) {
+            Set<TestCase> sample = generator.sampleExTests(numTests, rand);
+            assertEquals(numTests, sample.size());
+            assertTrue(multipleArgsSimpleExVals.containsAll(sample));
+        }
+        assertEquals(multipleArgsSimpleExVals,
+            generator.sampleExTests(multipleArgsSimpleExVals.size() + 5, rand));
+    }
+
+    /**
+     * Tests that the size of the base set is estimated exactly, and saturates rather
+     * than overflowing when the exhaustive domain is astronomically large.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    void testEstimateBaseSetSize() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsNested, 4);
+        assertEquals(multipleArgsNestedExVals.size(), generator.estimateExTestCount());
+        assertEquals(multipleArgsNestedExVals.size() + 4,
+            generator.estimateBaseSetSize());
+
+        // 10^40 lists of length 40 don't fit in a long
+        PyIntNode digits = new PyIntNode();
+        digits.setExDomain(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+        PyListNode<PyIntObj> huge = new PyListNode<>(digits);
+        huge.setExDomain(Arrays.asList(0, 40));
+        BaseSetGenerator hugeGenerator = new BaseSetGenerator(
+            Arrays.asList(digits, huge), 4);
+        assertEquals(Long.MAX_VALUE, huge.estimateExSize());
+        assertEquals(Long.MAX_VALUE, hugeGenerator.estimateBaseSetSize());
+        assertThrows(ArithmeticException.class, hugeGenerator::exTestCount);
+    }
+
+    /**
+     * Tests that a sampled base set contains the requested number of exhaustive test
+     * cases plus all of the random ones.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(22)
+    void testGenSampledBaseSet() {
+        BaseSetGenerator generator = new BaseSetGenerator(multipleArgsSimple, 3);
+        List<TestCase> baseSet = generator.genSampledBaseSet(5, new Random(215));
+        assertEquals(5 + 3, baseSet.size());
+        assertEquals(5, baseSet.stream().filter(multipleArgsSimpleExVals::contains)
+            .count());
+        assertEquals(3, baseSet.stream().filter(multipleArgsSimpleRandVals::contains)
+            .count());
+    }
+
+    /**
+     * Tests that equal arguments of random test cases share a single instance.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(23)
+    void testRandTestsInterned() {
+        PyIntNode ints = new PyIntNode();
+        ints.setRanDomain(Arrays.asList(5000, 5001));
+        PyListNode<PyIntObj> lists = new PyListNode<>(ints);
+        lists.setRanDomain(Arrays.asList(1, 2));
+        BaseSetGenerator generator = new BaseSetGenerator(Arrays.asList(lists, lists), 12);
+
+        Map<APyObj, APyObj> seen = new HashMap<>();
+        for (TestCase test : generator.genRandTests()) {
+            for (APyObj arg : test.getArgs()) {
+                assertSame(seen.computeIfAbsent(arg, key -> arg), arg);
+            }
+        }
+        // 24 arguments, but at most 2 + 4 distinct lists
+        assertTrue(seen.size() <= 2 + 4);
+    }
+
+    /**
+     * Tests that two generators with the same seed generate the same base set, even
+     * when the random tests span several chunks.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(24)
+    void testSeededBaseSet() {
+        List<Set<TestCase>> baseSets = new ArrayList<>();
+        for (long seed : new long[]{7, 7, 8}) {
+            PyIntNode ints = new PyIntNode();
+            ints.setExDomain(Arrays.asList(0, 1));
+            ints.setRanDomain(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+            PyListNode<PyIntObj> lists = new PyListNode<>(ints);
+            lists.setExDomain(Arrays.asList(0, 1));
+            lists.setRanDomain(Arrays.asList(0, 1, 2, 3, 4));
+            BaseSetGenerator generator = new BaseSetGenerator(
+                Arrays.asList(ints, lists), 3 * BaseSetGenerator.CHUNK_SIZE);
+            generator.setSeed(seed);
+            baseSets.add(new HashSet<>(generator.genBaseSet()));
+        }
+
+        assertEquals(2 * 3 + 3 * BaseSetGenerator.CHUNK_SIZE, baseSets.get(0).size());
+        assertEquals(baseSets.get(0), baseSets.get(1));
+        assertNotEquals(baseSets.get(0), baseSets.get(2));
+    }
+
+    /**
+     * Tests that generating random tests on several threads delivers exactly numRand
+     * new, unique tests, and the same ones as a single thread given the same seed.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(25)
+    void testParallelRandTests() {
+        // Small enough domains that many of the random tests are duplicates
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(Arrays.asList(0, 1, 2));
+        ints.setRanDomain(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7));
+        PyListNode<PyIntObj> lists = new PyListNode<>(ints);
+        lists.setExDomain(Arrays.asList(0, 1));
+        lists.setRanDomain(Arrays.asList(0, 1, 2, 3));
+        List<APyNode<?>> nodes = Arrays.asList(ints, lists);
+        int numRand = 5 * BaseSetGenerator.CHUNK_SIZE + 3;
+
+        List<Set<TestCase>> randSets = new ArrayList<>();
+        for (int numThreads : new int[]{1, 4, 4}) {
+            BaseSetGenerator generator = new BaseSetGenerator(nodes, numRand);
+            generator.setSeed(99);
+            generator.setNumThreads(numThreads);
+            List<TestCase> baseSet = generator.genBaseSet();
+            assertEquals(3 * 4 + numRand, baseSet.size());
+            assertEquals(baseSet.size(), new HashSet<>(baseSet).size());
+
+            Set<TestCase> randSet = new HashSet<>(baseSet);
+            randSet.removeAll(generator.genExTests());
+            assertEquals(numRand, randSet.size());
+            randSets.add(randSet);
+        }
+        assertEquals(randSets.get(0), randSets.get(1));
+        assertEquals(randSets.get(0), randSets.get(2));
+
+        BaseSetGenerator unseeded = new BaseSetGenerator(nodes, numRand);
+        unseeded.setNumThreads(4);
+        assertEquals(numRand, unseeded.genRandTests().size());
+        assertThrows(IllegalArgumentException.class, () -> unseeded.setNumThreads(0));
+    }
+
+    /**
+     * Tests random generation when the random domain holds barely enough test cases
+     * that aren't already in the base set, or too few.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(26)
+    void testSaturatedRandTests() {
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(Arrays.asList(0, 1));
+        ints.setRanDomain(Arrays.asList(0, 1, 2, 3, 4, 5));
+        List<APyNode<?>> nodes = Collections.singletonList(ints);
+
+        // Exactly the four test cases that aren't semi-exhaustive
+        BaseSetGenerator generator = new BaseSetGenerator(nodes, 4);
+        assertEquals(6, generator.ranTestCount());
+        assertEquals(6, generator.genBaseSet().size());
+        Set<TestCase> expected = new HashSet<>();
+        for (int val = 2; val < 6; val++) {
+            expected.add(new TestCase(Collections.singletonList(new PyIntObj(val))));
+        }
+        List<TestCase> baseSet = generator.genBaseSet();
+        assertTrue(baseSet.containsAll(expected));
+
+        // Every index yields a different test case
+        Set<TestCase> indexed = new HashSet<>();
+        for (long index = 0; index < 6; index++) {
+            indexed.add(generator.genRanTest(index));
+        }
+        assertEquals(new HashSet<>(baseSet), indexed);
+
+        // Enough test cases in total, but not enough new ones
+        assertThrows(IllegalStateException.class,
+            () -> new BaseSetGenerator(nodes, 5).genBaseSet());
+
+        // Not enough test cases in total; fails before generating anything
+        assertThrows(IllegalStateException.class,
+            () -> new BaseSetGenerator(nodes, 7).genBaseSet());
+    }
+
+    /**
+     * Tests that T_WISE mode replaces the semi-exhaustive product with a covering array
+     * in the base set and in the size estimate.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(27)
+    void testTWiseMode() {
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(Arrays.asList(0, 1, 2));
+        ints.setRanDomain(Arrays.asList(10, 11, 12, 13, 14, 15, 16, 17, 18, 19));
+        List<APyNode<?>> nodes = Arrays.asList(ints, ints, ints, ints, ints, ints);
+        BaseSetGenerator generator = new BaseSetGenerator(nodes, 5);
+        assertEquals(729, generator.genExTests().size());
+
+        generator.setExMode(ExMode.T_WISE, 2);
+        Set<TestCase> exTests = generator.genExTests();
+        assertTrue(exTests.size() >= 9 && exTests.size() < 729);
+
+        // The estimate never undercounts, so it can be checked against a budget
+        long estimate = generator.estimateExTestCount();
+        assertTrue(estimate >= exTests.size() && estimate < 729);
+
+        // Sampling draws from the covering array, not from the full product
+        Set<TestCase> sample = generator.sampleExTests(5, new Random(215));
+        assertEquals(5, sample.size());
+        assertTrue(exTests.containsAll(sample));
+        assertEquals(exTests, generator.sampleExTests(1000, new Random(215)));
+
+        // The random tests can't overlap, since their values are all out of the
+        // exhaustive domain
+        List<TestCase> baseSet = generator.genBaseSet();
+        assertEquals(exTests.size() + 5, baseSet.size());
+        assertTrue(baseSet.containsAll(exTests));
+
+        generator.setExMode(ExMode.T_WISE, 6);
+        assertEquals(729, generator.estimateExTestCount());
+        assertEquals(729, generator.genExTests().size());
+        assertThrows(IllegalArgumentException.class,
+            () -> generator.setExMode(ExMode.T_WISE, 0));
+    }
+
+    /**
+     * Tests that the generator reports how many element sequences its iterable nodes
+     * built, next to how many the old generate-then-filter enumeration would have.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(28)
+    void testSeqsBuiltReport() {
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(Arrays.asList(0, 1));
+        ints.setRanDomain(Arrays.asList(0, 1));
+        PyListNode<PyIntObj> lists = new PyListNode<>(ints);
+        lists.setExDomain(List.of(6));
+        lists.setRanDomain(List.of(7));
+        BaseSetGenerator generator = new BaseSetGenerator(List.of(ints, lists), 1);
+        assertEquals(0, generator.numSeqsBuilt());
+        assertEquals(247, generator.numSeqsBuiltByFilter());
+
+        // Each of the 64 lists of length 6 is built once
+        assertEquals(2 * 64 + 1, generator.genBaseSet().size());
+        assertEquals(64, generator.numSeqsBuilt());
+        assertEquals(64, lists.getNumSeqsBuilt());
+    }
+
+    /**
+     * Tests that the semi-exhaustive test set can be sampled even when it, or the
+     * exhaustive domain of one of its nodes, is too large to count.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(29)
+    void testSampleHugeExTests() {
+        PyIntNode digits = new PyIntNode();
+        digits.setExDomain(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+
+        // 10^20 combinations of 20 digits
+        List<APyNode<?>> manyDigits = Collections.nCopies(20, digits);
+        BaseSetGenerator generator = new BaseSetGenerator(manyDigits, 0);
+        assertThrows(ArithmeticException.class, generator::exTestCount);
+        Set<TestCase> sample = generator.sampleExTests(50, new Random(215));
+        assertEquals(50, sample.size());
+        for (TestCase test : sample) {
+            assertEquals(20, test.getArgs().size());
+            assertTrue(digits.genExVals().containsAll(test.getArgs()));
+        }
+
+        // 10^40 lists of length 40; only the first Long.MAX_VALUE can be indexed
+        PyListNode<PyIntObj> huge = new PyListNode<>(digits);
+        huge.setExDomain(Arrays.asList(0, 40));
+        assertEquals(new PyListObj<>(List.of()), huge.genExValAt(0));
+        assertEquals(Collections.nCopies(40, new PyIntObj(0)),
+            new ArrayList<>(huge.genExValAt(1).getValue()));
+
+        // The last index that can be generated only needs the last 19 digits
+        List<PyIntObj> last = new ArrayList<>(huge.genExValAt(Long.MAX_VALUE - 1)
+            .getValue());
+        assertEquals(Collections.nCopies(21, new PyIntObj(0)), last.subList(0, 21));
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> huge.genExValAt(Long.MAX_VALUE));
+        sample = new BaseSetGenerator(List.of(huge), 0).sampleExTests(10,
+            new Random(215));
+        assertEquals(10, sample.size());
+        for (TestCase test : sample) {
+            int length = ((PyListObj<?>) test.getArgs().get(0)).getValue().size();
+            assertTrue(length == 0 || length == 40);
+        }
+    }
+
+    /**
+     * Tests that only the part of the semi-exhaustive test set that falls inside the
+     * random domain counts against it.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(30)
+    void testRandTestsOverlap() {
+        List<Number> exDomain = new ArrayList<>();
+        for (int val = 0; val < 100; val++) {
+            exDomain.add(val);
+        }
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(exDomain);
+        ints.setRanDomain(Arrays.asList(95, 96, 97, 98, 99, 100, 101, 102, 103, 104));
+        List<APyNode<?>> nodes = Collections.singletonList(ints);
+
+        // 100 semi-exhaustive tests, but only 5 of them are in the random domain
+        assertEquals(105, new BaseSetGenerator(nodes, 5).genBaseSet().size());
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> new BaseSetGenerator(nodes, 6).genBaseSet());
+        assertTrue(e.getMessage().contains("only 5 test cases that aren't already"));
+
+        // Disjoint domains leave the whole random domain free
+        ints.setRanDomain(Arrays.asList(200, 201, 202, 203, 204, 205, 206, 207));
+        assertEquals(108, new BaseSetGenerator(nodes, 8).genBaseSet().size());
+    }
+
+    /**
+     * Tests that random tests keep their distribution near saturation when random
+     * generation isn't uniform, rather than being sampled uniformly by index.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(31)
+    void testSaturatedRandTestsNonUniform() {
+        // 0 is drawn three quarters of the time, so it is almost always among the
+        // first three distinct values drawn (but would be left out a quarter of the
+        // time if the values were sampled uniformly)
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(Collections.singletonList(100));
+        ints.setRanDomain(Arrays.asList(0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 2, 3));
+        assertFalse(ints.isRanUniform());
+        List<APyNode<?>> nodes = Collections.singletonList(ints);
+        TestCase zero = new TestCase(Collections.singletonList(new PyIntObj(0)));
+
+        int numWithoutZero = 0;
+        for (long seed = 0; seed < 200; seed++) {
+            BaseSetGenerator generator = new BaseSetGenerator(nodes, 3);
+            generator.setSeed(seed);
+            Set<TestCase> randTests = generator.genRandTests();
+            assertEquals(3, randTests.size());
+            if (!randTests.contains(zero)) {
+                numWithoutZero++;
+            }
+        }
+        assertTrue(numWithoutZero < 25);
+    }
+
     /**
      * Sets up oneArgOneOption, oneArgOneOptionExVals, and oneArgOneOptionRandVals.
      */
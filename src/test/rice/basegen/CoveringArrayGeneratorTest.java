@@ -0,0 +1,189 @@
+package test.rice.basegen;
+
+import main.rice.basegen.BaseSetGenerator;
+import main.rice.basegen.CoveringArrayGenerator;
+import main.rice.node.*;
+import main.rice.obj.*;
+import main.rice.test.TestCase;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the CoveringArrayGenerator class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CoveringArrayGeneratorTest {
+
+    /**
+     * Tests that a pairwise covering array over four three-valued parameters covers
+     * every pair of values, with far fewer test cases than the 81 in the product.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testPairwise() {
+        List<APyNode<?>> nodes = buildIntNodes(4, 3);
+        Set<TestCase> tests = new CoveringArrayGenerator(nodes, 2).genCoveringArray();
+
+        assertTrue(coversAll(tests, nodes, 2));
+        assertTrue(tests.size() >= 9);
+        assertTrue(tests.size() <= 15);
+    }
+
+    /**
+     * Tests that a 3-wise covering array over many two-valued parameters covers every
+     * triple of values, and grows much more slowly than the product.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testThreeWise() {
+        List<APyNode<?>> nodes = buildIntNodes(10, 2);
+        Set<TestCase> tests = new CoveringArrayGenerator(nodes, 3).genCoveringArray();
+
+        assertTrue(coversAll(tests, nodes, 3));
+        assertTrue(tests.size() >= 8);
+        assertTrue(tests.size() <= 40);
+    }
+
+    /**
+     * Tests covering arrays over parameters with different numbers of values, including
+     * compound ones.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testMixedParams() {
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(Arrays.asList(0, 1, 2, 3));
+        PyListNode<PyIntObj> lists = new PyListNode<>(ints);
+        lists.setExDomain(Arrays.asList(0, 1));
+        PyBoolNode bools = new PyBoolNode();
+        bools.setExDomain(Arrays.asList(0, 1));
+        PyStringNode strs = new PyStringNode("ab");
+        strs.setExDomain(Arrays.asList(1, 2));
+        List<APyNode<?>> nodes = Arrays.asList(ints, lists, bools, strs, ints);
+
+        Set<TestCase> tests = new CoveringArrayGenerator(nodes, 2).genCoveringArray();
+        assertTrue(coversAll(tests, nodes, 2));
+        assertTrue(tests.size() < 4 * 5 * 2 * 6 * 4);
+
+        // Covering arrays are deterministic
+        assertEquals(tests, new CoveringArrayGenerator(nodes, 2).genCoveringArray());
+    }
+
+    /**
+     * Tests that the covering array is the full product when the strength is at least
+     * the number of parameters, and the degenerate cases.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testEdgeCases() {
+        List<APyNode<?>> nodes = buildIntNodes(3, 3);
+        BaseSetGenerator generator = new BaseSetGenerator(nodes, 0);
+        assertEquals(generator.genExTests(),
+            new CoveringArrayGenerator(nodes, 3).genCoveringArray());
+        assertEquals(generator.genExTests(),
+            new CoveringArrayGenerator(nodes, 5).genCoveringArray());
+
+        // Strength one only needs each value once
+        assertEquals(3, new CoveringArrayGenerator(nodes, 1).genCoveringArray().size());
+
+        // A parameter with no values means no test cases
+        PyIntNode empty = new PyIntNode();
+        empty.setExDomain(new ArrayList<>());
+        List<APyNode<?>> withEmpty = new ArrayList<>(nodes);
+        withEmpty.add(empty);
+        assertEquals(Set.of(), new CoveringArrayGenerator(withEmpty, 2).genCoveringArray());
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new CoveringArrayGenerator(nodes, 0));
+    }
+
+    /**
+     * Builds nodes for some number of integer parameters, each of which can take the
+     * values 0 through numVals - 1.
+     *
+     * @param numParams the number of parameters
+     * @param numVals   the number of values of each parameter
+     * @return the nodes
+     */
+    private static List<APyNode<?>> buildIntNodes(int numParams, int numVals) {
+        List<Number> domain = new ArrayList<>();
+        for (int val = 0; val < numVals; val++) {
+            domain.add(val);
+        }
+        List<APyNode<?>> nodes = new ArrayList<>();
+        for (int param = 0; param < numParams; param++) {
+            PyIntNode node = new PyIntNode();
+            node.setExDomain(domain);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    /**
+     * Checks that every combination of exhaustive values for every t of the parameters
+     * appears in at least one of the test cases, and that every argument is valid.
+     *
+     * @param tests the test cases
+     * @param nodes the nodes for the parameters
+     * @param t     the strength
+     * @return true if the test cases form a t-wise covering array; false otherwise
+     */
+    private static boolean coversAll(Set<TestCase> tests, List<APyNode<?>> nodes, int t) {
+        for (TestCase test : tests) {
+            for (int param = 0; param < nodes.size(); param++) {
+                if (!nodes.get(param).genExVals().contains(test.getArgs().get(param))) {
+                    return false;
+                }
+            }
+        }
+        return coversAll(tests, nodes, t, 0, new ArrayList<>());
+    }
+
+    /**
+     * Helper for coversAll(): checks every set of t parameters that starts with the
+     * parameters already chosen.
+     *
+     * @param tests  the test cases
+     * @param nodes  the nodes for the parameters
+     * @param t      the strength
+     * @param next   the smallest parameter that can be chosen next
+     * @param params the parameters chosen so far
+     * @return true if every combination of values for every such set is covered
+     */
+    private static boolean coversAll(Set<TestCase> tests, List<APyNode<?>> nodes, int t,
+        int next, List<Integer> params) {
+        if (params.size() == t) {
+            // Find the combinations that are covered, and count the ones there should be
+            Set<List<APyObj>> covered = new HashSet<>();
+            long expected = 1;
+            for (TestCase test : tests) {
+                List<APyObj> combo = new ArrayList<>();
+                for (int param : params) {
+                    combo.add(test.getArgs().get(param));
+                }
+                covered.add(combo);
+            }
+            for (int param : params) {
+                expected *= nodes.get(param).genExVals().size();
+            }
+            return covered.size() == expected;
+        }
+
+        for (int param = next; param < nodes.size(); param++) {
+            params.add(param);
+            boolean allCovered = coversAll(tests, nodes, t, param + 1, params);
+            params.remove(params.size() - 1);
+            if (!allCovered) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
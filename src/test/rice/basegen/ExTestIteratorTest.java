@@ -0,0 +1,187 @@
+package test.rice.basegen;
+
+import main.rice.basegen.CoveringArrayGenerator;
+import main.rice.basegen.ExTestIterator;
+import main.rice.node.APyNode;
+import main.rice.node.PyIntNode;
+import main.rice.node.PyListNode;
+import main.rice.obj.PyIntObj;
+import main.rice.obj.PyListObj;
+import main.rice.test.TestCase;
+import main.rice.test.Tester;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the ExTestIterator class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ExTestIteratorTest {
+
+    /**
+     * Tests that with no parameters, there is exactly one (empty) test case.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testNoParams() {
+        Iterator<TestCase> iter = new ExTestIterator(List.of());
+        assertTrue(iter.hasNext());
+        assertEquals(new TestCase(List.of()), iter.next());
+        assertFalse(iter.hasNext());
+    }
+
+    /**
+     * Tests that a parameter with an empty domain means there are no test cases.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testEmptyDomain() {
+        PyIntNode empty = new PyIntNode();
+        empty.setExDomain(List.of());
+        Iterator<TestCase> iter = new ExTestIterator(List.of(intNode(0, 1), empty));
+        assertFalse(iter.hasNext());
+        assertThrows(NoSuchElementException.class, iter::next);
+    }
+
+    /**
+     * Tests that every combination of simple arguments is yielded exactly once.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testMultipleArgsSimple() {
+        List<TestCase> actual = drain(new ExTestIterator(
+            List.of(intNode(0, 1, 2), intNode(5, 6))));
+        Set<TestCase> expected = new HashSet<>();
+        for (int first : new int[]{0, 1, 2}) {
+            for (int second : new int[]{5, 6}) {
+                expected.add(new TestCase(List.of(new PyIntObj(first),
+                    new PyIntObj(second))));
+            }
+        }
+        assertEquals(6, actual.size());
+        assertEquals(expected, new HashSet<>(actual));
+    }
+
+    /**
+     * Tests that every combination of nested arguments is yielded exactly once.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testMultipleArgsNested() {
+        PyListNode<PyIntObj> listNode = new PyListNode<>(intNode(1, 2));
+        listNode.setExDomain(List.of(0, 1));
+        List<TestCase> actual = drain(new ExTestIterator(List.of(listNode, intNode(7))));
+
+        Set<TestCase> expected = new HashSet<>();
+        expected.add(new TestCase(List.of(new PyListObj<>(List.of()), new PyIntObj(7))));
+        expected.add(new TestCase(List.of(new PyListObj<>(List.of(new PyIntObj(1))),
+            new PyIntObj(7))));
+        expected.add(new TestCase(List.of(new PyListObj<>(List.of(new PyIntObj(2))),
+            new PyIntObj(7))));
+        assertEquals(3, actual.size());
+        assertEquals(expected, new HashSet<>(actual));
+    }
+
+    /**
+     * Tests that a Tester can be built straight from the iterator.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testTesterConsumesIterator() {
+        Tester tester = new Tester("func", "", "", new ExTestIterator(
+            List.of(intNode(0, 1, 2), intNode(5, 6))));
+        assertEquals(6, tester.getTests().size());
+        assertEquals(6, new HashSet<>(tester.getTests()).size());
+    }
+
+    /**
+     * Tests that an iterator can start partway through (e.g. to resume a run), and that
+     * starting past the end yields nothing.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(6)
+    void testStart() {
+        List<APyNode<?>> nodes = List.of(intNode(0, 1, 2), intNode(5, 6));
+        List<TestCase> all = drain(new ExTestIterator(nodes));
+        for (int start = 0; start <= all.size(); start++) {
+            assertEquals(all.subList(start, all.size()),
+                drain(new ExTestIterator(nodes, start)));
+        }
+        assertFalse(new ExTestIterator(nodes, 100).hasNext());
+    }
+
+    /**
+     * Tests that identical parameters that share their exhaustive values (see
+     * APyNode.shareExVals()) only generate them once, for the iterator and for the
+     * covering array alike.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(7)
+    void testSharedParams() {
+        List<PyListNode<PyIntObj>> lists = new ArrayList<>();
+        for (int idx = 0; idx < 3; idx++) {
+            PyListNode<PyIntObj> listNode = new PyListNode<>(intNode(1, 2, 3));
+            listNode.setExDomain(List.of(0, 1, 2));
+            lists.add(listNode);
+        }
+        APyNode.shareExVals(lists);
+        List<APyNode<?>> nodes = new ArrayList<>(lists);
+
+        assertEquals(13 * 13 * 13, drain(new ExTestIterator(nodes)).size());
+        assertEquals(13, numSeqsBuilt(lists));
+        assertFalse(new CoveringArrayGenerator(nodes, 2).genCoveringArray().isEmpty());
+        assertEquals(13, numSeqsBuilt(lists));
+    }
+
+    /**
+     * Builds a PyIntNode whose exhaustive domain is the given values.
+     *
+     * @param vals the values in the exhaustive domain
+     * @return the node
+     */
+    private static PyIntNode intNode(int... vals) {
+        PyIntNode node = new PyIntNode();
+        List<Number> domain = new ArrayList<>();
+        for (int val : vals) {
+            domain.add(val);
+        }
+        node.setExDomain(domain);
+        return node;
+    }
+
+    /**
+     * Adds up the element sequences that some list nodes have built.
+     *
+     * @param lists the list nodes
+     * @return the total number of element sequences built
+     */
+    private static long numSeqsBuilt(List<PyListNode<PyIntObj>> lists) {
+        long count = 0;
+        for (PyListNode<PyIntObj> listNode : lists) {
+            count += listNode.getNumSeqsBuilt();
+        }
+        return count;
+    }
+
+    /**
+     * Collects everything an iterator yields.
+     *
+     * @param iter the iterator
+     * @return the yielded test cases, in order
+     */
+    private static List<TestCase> drain(Iterator<TestCase> iter) {
+        List<TestCase> tests = new ArrayList<>();
+        iter.forEachRemaining(tests::add);
+        return tests;
+    }
+}
@@ -0,0 +1,134 @@
+package test.rice.concisegen;
+
+import main.rice.concisegen.ConciseSetGenerator;
+import main.rice.concisegen.LazyConciseSetGenerator;
+import main.rice.obj.PyIntObj;
+import main.rice.test.TestCase;
+import main.rice.test.TestResults;
+import main.rice.test.Tester;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the LazyConciseSetGenerator class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class LazyConciseSetGeneratorTest {
+
+    /**
+     * Ten test cases for func0, which takes a single integer.
+     */
+    private static List<TestCase> tests = new ArrayList<>();
+
+    /**
+     * A temporary directory of implementations of func0; deleted after each test.
+     */
+    private File implDir;
+
+    /**
+     * Sets up the shared test cases.
+     */
+    @BeforeAll
+    static void setUp() {
+        for (int i = 0; i < 10; i++) {
+            tests.add(new TestCase(List.of(new PyIntObj(i))));
+        }
+    }
+
+    /**
+     * Creates the directory of implementations: one that's wrong on every input, one
+     * that's wrong on even inputs, one that's wrong on inputs above 5, and one that's
+     * correct.
+     *
+     * @throws Exception if the files cannot be written
+     */
+    @BeforeEach
+    void setUpImpls() throws Exception {
+        this.implDir = Files.createTempDirectory("impls").toFile();
+        writeImpl("impl0.py", "intval + 1");
+        writeImpl("impl1.py", "intval + 1 if intval % 2 == 0 else intval");
+        writeImpl("impl2.py", "-intval if intval > 5 else intval");
+        writeImpl("impl3.py", "intval");
+        Files.writeString(Paths.get(this.implDir.getPath(), "expected.py"),
+            "results = [0, 1, 2, 3, 4, 5, 6, 7, 8, 9]");
+    }
+
+    /**
+     * Deletes the directory of implementations.
+     */
+    @AfterEach
+    void tearDownImpls() {
+        for (File file : Objects.requireNonNull(this.implDir.listFiles())) {
+            file.delete();
+        }
+        this.implDir.delete();
+    }
+
+    /**
+     * Tests that the lazy cover is the same as the eager one.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testSameAsEager() throws Exception {
+        Tester tester = new Tester("func0", "", this.implDir.getPath(), tests);
+        TestResults results = tester.runTests();
+        Set<TestCase> eager = ConciseSetGenerator.setCover(results);
+
+        LazyConciseSetGenerator lazy = new LazyConciseSetGenerator(tester);
+        assertEquals(eager, lazy.setCover());
+        assertEquals(results.getWrongSet(), lazy.getWrongSet());
+    }
+
+    /**
+     * Tests that the lazy cover skips the cells it doesn't need: finding the wrong
+     * implementations takes 1 + 1 + 7 + 10 cells, and then only the two unknown cells of
+     * the test case for 6 (the only one that could catch all three) are needed.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testSkipsCells() throws Exception {
+        Tester tester = new Tester("func0", "", this.implDir.getPath(), tests);
+        LazyConciseSetGenerator lazy = new LazyConciseSetGenerator(tester);
+        assertEquals(Set.of(tests.get(6)), lazy.setCover());
+        assertEquals(Set.of(0, 1, 2), lazy.getWrongSet());
+        assertEquals(21, lazy.getNumRun());
+        assertEquals(19, lazy.getNumSkipped());
+    }
+
+    /**
+     * Tests that nothing is selected when every implementation is correct.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testAllCorrect() throws Exception {
+        for (String name : new String[]{"impl0.py", "impl1.py", "impl2.py"}) {
+            new File(this.implDir, name).delete();
+        }
+        Tester tester = new Tester("func0", "", this.implDir.getPath(), tests);
+        LazyConciseSetGenerator lazy = new LazyConciseSetGenerator(tester);
+        assertEquals(Set.of(), lazy.setCover());
+        assertEquals(10, lazy.getNumRun());
+        assertEquals(0, lazy.getNumSkipped());
+    }
+
+    /**
+     * Writes an implementation of func0 that returns the given expression.
+     *
+     * @param name       the name of the file
+     * @param expression the expression to return, in terms of intval
+     * @throws Exception if the file cannot be written
+     */
+    private void writeImpl(String name, String expression) throws Exception {
+        Files.writeString(Paths.get(this.implDir.getPath(), name),
+            "def func0(intval):\n    return " + expression + "\n");
+    }
+}
@@ -3,16 +3,47 @@ package test.rice.node;
 import main.rice.node.APyNode;
 import main.rice.obj.APyObj;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
 /**
  * Helper functions for testing random generation, to be shared by all of the Py*NodeTest
  * classes.
  */
 public class APyNodeTest {
 
+    /**
+     * Helper function for testing exSize() and genExValAt(): checks that the indices
+     * from 0 to exSize() - 1 yield exactly the elements of genExVals(), each once, and
+     * that the indices on either side of that range are rejected.
+     *
+     * @param node the node whose exhaustive domain is being indexed
+     */
+    public static <T extends APyObj> void checkExIndexing(APyNode<T> node) {
+        Set<T> expected = node.genExVals();
+        assertEquals(expected.size(), node.exSize());
+
+        List<T> inOrder = new ArrayList<>();
+        for (long index = 0; index < node.exSize(); index++) {
+            inOrder.add(node.genExValAt(index));
+        }
+        assertEquals(expected, new HashSet<>(inOrder));
+
+        // Lazy generation should yield the same objects in the same order
+        assertEquals(inOrder, node.genExValsInOrder());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> node.genExValAt(-1));
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> node.genExValAt(node.exSize()));
+    }
+
     /**
      * Helper function for testing genRanVal() that runs the input number of trials and
      * builds a distribution of the results.
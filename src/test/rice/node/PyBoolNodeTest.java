@@ -133,4 +133,17 @@ class PyBoolNodeTest extends APyNodeTest {
             new PyBoolObj(true), 0.0);
         assertTrue(compareDistribution(expected, actual, 0.0));
     }
+
+    /**
+     * Tests that exhaustive values can be generated by index.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(9)
+    void testGenExValAt() {
+        PyBoolNode node = new PyBoolNode();
+        node.setExDomain(List.of(0, 1, 1));
+        assertEquals(2, node.exSize());
+        checkExIndexing(node);
+    }
 }
\ No newline at end of file
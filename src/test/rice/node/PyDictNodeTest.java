@@ -10,6 +10,7 @@ import org.junit.jupiter.api.*;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -468,6 +469,86 @@ class PyDictNodeTest extends APyNodeTest {
         assertTrue(compareDistribution(expected, actual, 0.01));
     }
 
+    /**
+     * Tests that exhaustive values can be generated by index.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    void testGenExValAt() {
+        PyIntNode keys = new PyIntNode();
+        keys.setExDomain(List.of(1, 2, 3));
+        PyBoolNode vals = new PyBoolNode();
+        vals.setExDomain(List.of(0, 1));
+        PyDictNode<PyIntObj, PyBoolObj> node = new PyDictNode<>(keys, vals);
+        node.setExDomain(List.of(0, 1, 2));
+        assertEquals(1 + 3 * 2 + 3 * 4, node.exSize());
+        checkExIndexing(node);
+    }
+
+    /**
+     * Tests that the exhaustive domain is streamed lazily, with each dictionary built
+     * exactly once and only dictionaries of the requested sizes.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(22)
+    void testStreamExVals() {
+        PyIntNode keys = new PyIntNode();
+        keys.setExDomain(List.of(1, 2, 3, 4));
+        PyIntNode vals = new PyIntNode();
+        vals.setExDomain(List.of(5, 6, 7));
+        PyDictNode<PyIntObj, PyIntObj> node = new PyDictNode<>(keys, vals);
+        node.setExDomain(List.of(1, 3));
+
+        List<PyDictObj<PyIntObj, PyIntObj>> actual = node.streamExVals().toList();
+        assertEquals(4 * 3 + 4 * 27, actual.size());
+        assertEquals(actual.size(), new HashSet<>(actual).size());
+        assertEquals(node.genExVals(), new HashSet<>(actual));
+        for (PyDictObj<PyIntObj, PyIntObj> dict : actual) {
+            int size = dict.getValue().size();
+            assertTrue(size == 1 || size == 3);
+        }
+
+        // With no values to assign, only the empty dictionary remains
+        PyIntNode noVals = new PyIntNode();
+        noVals.setExDomain(List.of());
+        PyDictNode<PyIntObj, PyIntObj> emptyVals = new PyDictNode<>(keys, noVals);
+        emptyVals.setExDomain(List.of(0, 2));
+        assertEquals(List.of(new PyDictObj<>(new HashMap<>())),
+            emptyVals.streamExVals().toList());
+    }
+
+    /**
+     * Tests random generation when the requested size uses up all of the possible keys,
+     * or more.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(23)
+    void testGenRandValSaturated() {
+        PyBoolNode keys = new PyBoolNode();
+        keys.setRanDomain(List.of(0, 1));
+        PyIntNode vals = new PyIntNode();
+        vals.setRanDomain(List.of(5, 6, 7));
+        PyDictNode<PyBoolObj, PyIntObj> node = new PyDictNode<>(keys, vals);
+        node.setRanDomain(List.of(2));
+        // One set of keys, times 3^2 assignments of values
+        assertEquals(9, node.ranSize());
+
+        Set<PyDictObj<PyBoolObj, PyIntObj>> seen = new HashSet<>();
+        for (int trial = 0; trial < 500; trial++) {
+            PyDictObj<PyBoolObj, PyIntObj> dict = node.genRandVal();
+            assertEquals(Set.of(new PyBoolObj(false), new PyBoolObj(true)),
+                dict.getValue().keySet());
+            seen.add(dict);
+        }
+        assertEquals(9, seen.size());
+
+        node.setRanDomain(List.of(3));
+        assertThrows(IllegalStateException.class, node::genRandVal);
+    }
+
     /**
      * Sets up emptyOnly and oneLenOne.
      */
@@ -179,4 +179,23 @@ class PyIntNodeTest extends APyNodeTest {
         }
         assertTrue(compareDistribution(expected, actual, 0.01));
     }
+
+    /**
+     * Tests that exhaustive values can be generated by index, including when the
+     * exhaustive domain has duplicates.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(11)
+    void testGenExValAt() {
+        PyIntNode node = new PyIntNode();
+        node.setExDomain(List.of(3, -1, 3, 7));
+        assertEquals(3, node.exSize());
+        checkExIndexing(node);
+
+        // Indices follow the order of first appearance in the exhaustive domain
+        assertEquals(new PyIntObj(3), node.genExValAt(0));
+        assertEquals(new PyIntObj(-1), node.genExValAt(1));
+        assertEquals(new PyIntObj(7), node.genExValAt(2));
+    }
 }
\ No newline at end of file
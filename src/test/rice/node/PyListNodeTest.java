@@ -1,5 +1,8 @@
 package test.rice.node;
 
+import main.rice.node.APyNode;
+import main.rice.node.PyIntNode;
+import main.rice.node.PyListNode;
 import main.rice.obj.PyBoolObj;
 import main.rice.obj.PyFloatObj;
 import main.rice.obj.PyIntObj;
@@ -310,4 +313,120 @@ class PyListNodeTest extends AIterablePyNodeTest {
         // Compare the actual and expected distributions
         assertTrue(compareDistribution(expectedRandNested, actual, 0.01));
     }
+
+    /**
+     * Tests that exhaustive values can be generated by index, for a list of lists.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    void testGenExValAt() {
+        PyIntNode inner = new PyIntNode();
+        inner.setExDomain(List.of(1, 2));
+        PyListNode<PyIntObj> innerList = new PyListNode<>(inner);
+        innerList.setExDomain(List.of(0, 1));
+        PyListNode<PyListObj<PyIntObj>> node = new PyListNode<>(innerList);
+        node.setExDomain(List.of(1, 2));
+        assertEquals(3 + 9, node.exSize());
+        checkExIndexing(node);
+    }
+
+    /**
+     * Tests that exhaustive values are memoized until the exhaustive domain of the node
+     * or one of its descendants changes.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(22)
+    void testGenExValsMemoized() {
+        PyIntNode inner = new PyIntNode();
+        inner.setExDomain(List.of(1, 2));
+        PyListNode<PyIntObj> node = new PyListNode<>(inner);
+        node.setExDomain(List.of(0, 2));
+
+        Set<PyListObj<PyIntObj>> first = node.genExVals();
+        assertSame(first, node.genExVals());
+        assertThrows(UnsupportedOperationException.class, first::clear);
+
+        // Changing this node's domain invalidates the memoized values
+        node.setExDomain(List.of(1));
+        Set<PyListObj<PyIntObj>> second = node.genExVals();
+        assertEquals(2, second.size());
+        assertSame(second, node.genExVals());
+
+        // So does changing a child's domain
+        inner.setExDomain(List.of(1, 2, 3));
+        assertEquals(3, node.genExVals().size());
+
+        // The signature is only rebuilt after a domain in this tree changes
+        String signature = node.exSignature();
+        assertSame(signature, node.exSignature());
+        node.ranSpace();
+        new PyIntNode().setExDomain(List.of(5));
+        assertSame(signature, node.exSignature());
+        inner.setExDomain(List.of(1, 2));
+        assertNotEquals(signature, node.exSignature());
+    }
+
+    /**
+     * Tests that structurally identical subtrees share their exhaustive values once
+     * shareExVals() has been called, and stop sharing when one of them changes.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(23)
+    void testShareExVals() {
+        List<PyListNode<PyIntObj>> nodes = new ArrayList<>();
+        for (int idx = 0; idx < 3; idx++) {
+            PyIntNode inner = new PyIntNode();
+            inner.setExDomain(List.of(1, 2, 3));
+            PyListNode<PyIntObj> node = new PyListNode<>(inner);
+            node.setExDomain(List.of(0, 1, 2));
+            nodes.add(node);
+        }
+        nodes.get(2).setExDomain(List.of(2));
+        APyNode.shareExVals(nodes);
+
+        assertEquals(nodes.get(0).exSignature(), nodes.get(1).exSignature());
+        assertNotEquals(nodes.get(0).exSignature(), nodes.get(2).exSignature());
+        assertSame(nodes.get(0).genExVals(), nodes.get(1).genExVals());
+        assertNotEquals(nodes.get(0).genExVals(), nodes.get(2).genExVals());
+
+        // The inner nodes are identical too
+        assertSame(nodes.get(0).getLeftChild().genExVals(),
+            nodes.get(2).getLeftChild().genExVals());
+
+        nodes.get(1).setExDomain(List.of(1));
+        assertEquals(3, nodes.get(1).genExVals().size());
+        assertEquals(1 + 3 + 9, nodes.get(0).genExVals().size());
+    }
+
+    /**
+     * Tests that random generation is reproducible given a seed, whether the seed is set
+     * on the node or the RNG is passed in.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(24)
+    void testSeededRandVals() {
+        List<List<PyListObj<PyIntObj>>> runs = new ArrayList<>();
+        for (int run = 0; run < 2; run++) {
+            PyIntNode inner = new PyIntNode();
+            inner.setRanDomain(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+            PyListNode<PyIntObj> node = new PyListNode<>(inner);
+            node.setRanDomain(List.of(0, 1, 2, 3, 4, 5));
+            node.setSeed(42);
+
+            List<PyListObj<PyIntObj>> vals = new ArrayList<>();
+            SplittableRandom rand = new SplittableRandom(42);
+            for (int idx = 0; idx < 50; idx++) {
+                vals.add(node.genRandVal());
+                vals.add(node.genRandVal(rand));
+            }
+            runs.add(vals);
+        }
+        assertEquals(runs.get(0), runs.get(1));
+        assertEquals(100, runs.get(0).size());
+        assertTrue(new HashSet<>(runs.get(0)).size() > 1);
+    }
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import main.rice.obj.PyBoolObj;
 import main.rice.obj.PyFloatObj;
 import main.rice.obj.PyIntObj;
 import main.rice.obj.PySetObj;
+import main.rice.obj.PyTupleObj;
 import org.junit.jupiter.api.*;
 
 import java.util.*;
@@ -462,6 +463,115 @@ class PySetNodeTest extends APyNodeTest {
         assertTrue(compareDistribution(expected, actual, 0.01));
     }
 
+    /**
+     * Tests that exhaustive values can be generated by index, including sizes larger
+     * than the number of possible elements.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    void testGenExValAt() {
+        PyIntNode inner = new PyIntNode();
+        inner.setExDomain(List.of(1, 2, 3, 4, 5));
+        PySetNode<PyIntObj> node = new PySetNode<>(inner);
+        node.setExDomain(List.of(0, 2, 3, 7));
+        assertEquals(1 + 10 + 10, node.exSize());
+        checkExIndexing(node);
+    }
+
+    /**
+     * Tests that subsets of compound elements are streamed lazily, each exactly once,
+     * in the same order every time.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(22)
+    void testStreamExVals() {
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(List.of(0, 1));
+        PyTupleNode<PyIntObj> tuples = new PyTupleNode<>(ints);
+        tuples.setExDomain(List.of(2));
+        PySetNode<PyTupleObj<PyIntObj>> node = new PySetNode<>(tuples);
+        node.setExDomain(List.of(1, 2, 3));
+
+        // 4 possible tuples -> 4 + 6 + 4 subsets
+        List<PySetObj<PyTupleObj<PyIntObj>>> actual = node.streamExVals().toList();
+        assertEquals(4 + 6 + 4, actual.size());
+        assertEquals(actual.size(), new HashSet<>(actual).size());
+        assertEquals(node.genExVals(), new HashSet<>(actual));
+        assertEquals(actual, node.streamExVals().toList());
+        checkExIndexing(node);
+    }
+
+    /**
+     * Tests random generation when the requested size uses up most (or more than all)
+     * of the possible elements: uniform elements are sampled without replacement with
+     * the usual distribution, and impossible sizes fail instead of looping forever.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(23)
+    void testGenRandValSaturated() {
+        PyIntNode ints = new PyIntNode();
+        ints.setRanDomain(Arrays.asList(1, 2, 3, 4));
+        PySetNode<PyIntObj> node = new PySetNode<>(ints);
+        assertTrue(ints.isRanUniform());
+        assertEquals(4, ints.ranSize());
+
+        // Every subset of size three is equally likely
+        node.setRanDomain(Collections.singletonList(3));
+        Map<PySetObj<PyIntObj>, Double> expected = new HashMap<>();
+        for (int skip = 1; skip <= 4; skip++) {
+            Set<PyIntObj> elems = new HashSet<>();
+            for (int elem = 1; elem <= 4; elem++) {
+                if (elem != skip) {
+                    elems.add(new PyIntObj(elem));
+                }
+            }
+            expected.put(new PySetObj<>(elems), 0.25);
+        }
+        assertTrue(compareDistribution(expected, buildDistribution(node, 10000), 0.03));
+
+        node.setRanDomain(Collections.singletonList(4));
+        assertEquals(4, node.genRandVal().getValue().size());
+
+        node.setRanDomain(Collections.singletonList(5));
+        assertThrows(IllegalStateException.class, node::genRandVal);
+
+        // Duplicate values make the child non-uniform, so it falls back to rejection
+        PyBoolNode bools = new PyBoolNode();
+        bools.setRanDomain(Arrays.asList(0, 1, 2));
+        assertFalse(bools.isRanUniform());
+        PySetNode<PyBoolObj> boolSets = new PySetNode<>(bools);
+        boolSets.setRanDomain(Collections.singletonList(2));
+        assertEquals(2, boolSets.genRandVal().getValue().size());
+        boolSets.setRanDomain(Collections.singletonList(3));
+        assertThrows(IllegalStateException.class, boolSets::genRandVal);
+    }
+
+    /**
+     * Tests that the old enumeration's sequence count follows its set-based recursion,
+     * which never built the same partial set twice.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(24)
+    void testCountSeqsBuiltByFilter() {
+        PyIntNode ints = new PyIntNode();
+        ints.setExDomain(Arrays.asList(1, 2, 3));
+        PySetNode<PyIntObj> node = new PySetNode<>(ints);
+
+        // Sizes 1 and 2: no partial set repeats yet, so the count matches a list's
+        node.setExDomain(Arrays.asList(0, 2));
+        assertEquals(1 + (1 + 3) + (4 + 3 * 3), node.countSeqsBuiltByFilter());
+
+        // Size 3 extends only the 3 distinct sets of size 2, after copying all 7 of
+        // size 2 or less
+        node.setExDomain(Arrays.asList(3));
+        assertEquals(18 + (7 + 3 * 3), node.countSeqsBuiltByFilter());
+        assertEquals(1, node.genExVals().size());
+    }
+
     /**
      * Sets up emptyOnly.
      */
@@ -360,4 +360,18 @@ class PyStringNodeTest extends APyNodeTest {
         // Compare the actual and expected distributions
         assertTrue(compareDistribution(expected, actual, 0.005));
     }
+
+    /**
+     * Tests that exhaustive values can be generated by index, including when the
+     * character domain has duplicates and the lengths have gaps.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(17)
+    void testGenExValAt() {
+        PyStringNode node = new PyStringNode("abca");
+        node.setExDomain(List.of(0, 2, 3));
+        assertEquals(1 + 9 + 27, node.exSize());
+        checkExIndexing(node);
+    }
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package test.rice.node;
 
+import main.rice.node.PyFloatNode;
 import main.rice.node.PyTupleNode;
 import main.rice.obj.*;
 import org.junit.jupiter.api.*;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -385,4 +387,19 @@ class PyTupleNodeTest extends AIterablePyNodeTest {
             nestedBoolsTup, 100000);
         assertTrue(compareDistribution(expectedRandNestedTup, actual, 0.01));
     }
+
+    /**
+     * Tests that exhaustive values can be generated by index.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(21)
+    void testGenExValAt() {
+        PyFloatNode inner = new PyFloatNode();
+        inner.setExDomain(List.of(1.5, 2.5, 3.5));
+        PyTupleNode<PyFloatObj> node = new PyTupleNode<>(inner);
+        node.setExDomain(List.of(0, 1, 2));
+        assertEquals(1 + 3 + 9, node.exSize());
+        checkExIndexing(node);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package test.rice.node;
+
+import main.rice.node.PyIntNode;
+import main.rice.node.PyListNode;
+import main.rice.node.PySetNode;
+import main.rice.node.SequenceIterator;
+import main.rice.obj.PyIntObj;
+import main.rice.obj.PyListObj;
+import main.rice.obj.PySetObj;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the SequenceIterator class, and for lazy generation of the exhaustive
+ * domains of iterable nodes.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class SequenceIteratorTest {
+
+    /**
+     * Tests that only sequences of the requested lengths are yielded, each once.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testSequences() {
+        List<List<Integer>> actual = drain(new SequenceIterator<>(List.of(1, 2, 3),
+            List.of(0, 2), false));
+        assertEquals(1 + 9, actual.size());
+        assertEquals(1 + 9, new HashSet<>(actual).size());
+        assertEquals(List.of(), actual.get(0));
+        for (List<Integer> seq : actual.subList(1, actual.size())) {
+            assertEquals(2, seq.size());
+        }
+    }
+
+    /**
+     * Tests that in combinations mode, one sequence is yielded per subset, and that
+     * lengths larger than the number of elements are skipped.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testCombinations() {
+        List<List<Integer>> actual = drain(new SequenceIterator<>(List.of(1, 2, 3, 4),
+            List.of(2, 5), true));
+        assertEquals(6, actual.size());
+        Set<Set<Integer>> subsets = new HashSet<>();
+        for (List<Integer> seq : actual) {
+            subsets.add(new HashSet<>(seq));
+        }
+        assertEquals(6, subsets.size());
+        assertEquals(List.of(List.of(1, 2), List.of(1, 3), List.of(1, 4), List.of(2, 3),
+            List.of(2, 4), List.of(3, 4)), actual);
+    }
+
+    /**
+     * Tests that with no elements, only the empty sequence can be yielded.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testNoElems() {
+        assertEquals(List.of(List.of()), drain(new SequenceIterator<Integer>(List.of(),
+            List.of(0, 1, 2), false)));
+        assertEquals(List.of(), drain(new SequenceIterator<Integer>(List.of(),
+            List.of(1, 2), true)));
+    }
+
+    /**
+     * Tests that only the sequences that are yielded are built, compared with generating
+     * every shorter length too.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testNumBuilt() {
+        SequenceIterator<Integer> iter = new SequenceIterator<>(List.of(0, 1),
+            List.of(6), false);
+        drain(iter);
+        assertEquals(64, iter.getNumBuilt());
+
+        // 1 empty sequence, plus 2^L - 1 copies and 2^L new sequences for each length L
+        assertEquals(247, SequenceIterator.countGenerateThenFilter(2, 6));
+        assertEquals(3, SequenceIterator.countGenerateThenFilter(0, 2));
+    }
+
+    /**
+     * Tests that lazily generating the exhaustive domain of a list node yields the same
+     * objects as genExVals().
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testIterExValsList() {
+        PyIntNode inner = new PyIntNode();
+        inner.setExDomain(List.of(1, 2, 3));
+        PyListNode<PyIntObj> node = new PyListNode<>(inner);
+        node.setExDomain(List.of(1, 3));
+
+        List<PyListObj<PyIntObj>> actual = new ArrayList<>();
+        node.iterExVals().forEachRemaining(actual::add);
+        assertEquals(3 + 27, actual.size());
+        assertEquals(node.genExVals(), new HashSet<>(actual));
+    }
+
+    /**
+     * Tests that lazily generating the exhaustive domain of a set node yields the same
+     * objects as genExVals(), each once.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(6)
+    void testIterExValsSet() {
+        PyIntNode inner = new PyIntNode();
+        inner.setExDomain(List.of(1, 2, 3, 4));
+        PySetNode<PyIntObj> node = new PySetNode<>(inner);
+        node.setExDomain(List.of(0, 2, 3));
+
+        List<PySetObj<PyIntObj>> actual = new ArrayList<>();
+        node.iterExVals().forEachRemaining(actual::add);
+        assertEquals(1 + 6 + 4, actual.size());
+        assertEquals(node.genExVals(), new HashSet<>(actual));
+    }
+
+    /**
+     * Collects everything an iterator yields.
+     *
+     * @param iter the iterator
+     * @return the yielded elements, in order
+     */
+    private static <T> List<T> drain(Iterator<T> iter) {
+        List<T> elems = new ArrayList<>();
+        iter.forEachRemaining(elems::add);
+        return elems;
+    }
+}
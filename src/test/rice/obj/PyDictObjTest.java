@@ -208,6 +208,27 @@ class PyDictObjTest {
         assertEquals(nestedDict1.hashCode(), nestedDict2.hashCode());
     }
 
+    /**
+     * Tests that a dict is unaffected by later changes to the map it was built from,
+     * that its contents cannot be modified, and that it keeps the map's order.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(13)
+    void testImmutable() {
+        Map<PyIntObj, PyBoolObj> source = new LinkedHashMap<>();
+        source.put(new PyIntObj(2), new PyBoolObj(true));
+        source.put(new PyIntObj(1), new PyBoolObj(false));
+        PyDictObj<PyIntObj, PyBoolObj> dict = new PyDictObj<>(source);
+        int hash = dict.hashCode();
+
+        source.remove(new PyIntObj(2));
+        assertEquals(2, dict.getValue().size());
+        assertEquals(hash, dict.hashCode());
+        assertEquals("{2: True, 1: False}", dict.toString());
+        assertThrows(UnsupportedOperationException.class, () -> dict.getValue().clear());
+    }
+
     /**
      * Helper function for setting up nestedVal2.
      *
@@ -7,6 +7,7 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Test cases for the PyListObj class.
@@ -220,4 +221,24 @@ class PyListObjTest extends AIterablePyObjTest {
     void testHashCodeNested() {
         assertEquals(nestedList.hashCode(), nestedList2.hashCode());
     }
+
+    /**
+     * Tests that a list is unaffected by later changes to the list it was built from,
+     * and that its contents cannot be modified.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(14)
+    void testImmutable() {
+        List<PyIntObj> source = new ArrayList<>(List.of(new PyIntObj(1), new PyIntObj(2)));
+        PyListObj<PyIntObj> list = new PyListObj<>(source);
+        int hash = list.hashCode();
+
+        source.add(new PyIntObj(3));
+        assertEquals(2, list.getValue().size());
+        assertEquals(hash, list.hashCode());
+        assertEquals(new PyListObj<>(List.of(new PyIntObj(1), new PyIntObj(2))), list);
+        assertThrows(UnsupportedOperationException.class,
+            () -> list.getValue().add(new PyIntObj(3)));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,123 @@
+package test.rice.obj;
+
+import main.rice.obj.*;
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the PyObjInterner class, and for the flyweight factories of the scalar
+ * PyObj classes.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class PyObjInternerTest {
+
+    /**
+     * Tests that small ints, bools, and Latin-1 characters share canonical instances,
+     * and that other values are still created correctly.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testValueOf() {
+        assertSame(PyIntObj.valueOf(7), PyIntObj.valueOf(7));
+        assertSame(PyIntObj.valueOf(-128), PyIntObj.valueOf(-128));
+        assertEquals(new PyIntObj(123456789), PyIntObj.valueOf(123456789));
+        assertSame(PyBoolObj.valueOf(true), PyBoolObj.valueOf(true));
+        assertEquals(new PyBoolObj(false), PyBoolObj.valueOf(false));
+        assertSame(PyCharObj.valueOf('a'), PyCharObj.valueOf('a'));
+        assertEquals(new PyCharObj('中'), PyCharObj.valueOf('中'));
+
+        // The cached instances are canonical
+        assertSame(PyIntObj.valueOf(7), PyObjInterner.intern(new PyIntObj(7)));
+        assertSame(PyCharObj.valueOf('a'), PyObjInterner.intern(new PyCharObj('a')));
+    }
+
+    /**
+     * Tests that equal compound objects are interned to the same instance, and that
+     * their elements are interned too.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testInternDeep() {
+        PyListObj<PyIntObj> inner1 = new PyListObj<>(List.of(new PyIntObj(5000)));
+        PyListObj<PyIntObj> inner2 = new PyListObj<>(List.of(new PyIntObj(5000)));
+        PyTupleObj<PyListObj<PyIntObj>> outer1 = new PyTupleObj<>(List.of(inner1));
+        PyTupleObj<PyListObj<PyIntObj>> outer2 = new PyTupleObj<>(List.of(inner2));
+
+        PyTupleObj<PyListObj<PyIntObj>> canonical = PyObjInterner.intern(outer1);
+        assertSame(canonical, PyObjInterner.intern(outer2));
+        assertEquals(outer1, canonical);
+
+        // The canonical tuple's element is the canonical list
+        PyListObj<PyIntObj> canonicalInner = canonical.getValue().iterator().next();
+        assertSame(canonicalInner, PyObjInterner.intern(inner2));
+        assertSame(canonicalInner.getValue().iterator().next(),
+            PyObjInterner.intern(new PyIntObj(5000)));
+    }
+
+    /**
+     * Tests that sets and dictionaries are interned by value, regardless of order.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testInternSetsAndDicts() {
+        PySetObj<PyIntObj> set1 = new PySetObj<>(new LinkedHashSet<>(List.of(
+            PyIntObj.valueOf(1), PyIntObj.valueOf(2))));
+        PySetObj<PyIntObj> set2 = new PySetObj<>(new LinkedHashSet<>(List.of(
+            PyIntObj.valueOf(2), PyIntObj.valueOf(1))));
+        assertSame(PyObjInterner.intern(set1), PyObjInterner.intern(set2));
+
+        Map<PyStringObj, PyBoolObj> map1 = new HashMap<>();
+        map1.put(new PyStringObj("key"), new PyBoolObj(true));
+        Map<PyStringObj, PyBoolObj> map2 = new HashMap<>();
+        map2.put(new PyStringObj("key"), PyBoolObj.valueOf(true));
+        PyDictObj<PyStringObj, PyBoolObj> dict = PyObjInterner.intern(new PyDictObj<>(map1));
+        assertSame(dict, PyObjInterner.intern(new PyDictObj<>(map2)));
+        assertSame(PyBoolObj.valueOf(true), dict.getValue().values().iterator().next());
+    }
+
+    /**
+     * Tests that objects of different classes are never interned together, even when
+     * they are equal by value, and that equality still works between canonical and
+     * non-canonical instances.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testInternByClass() {
+        PyStringObj str = PyObjInterner.intern(new PyStringObj("ab"));
+        PyListObj<PyCharObj> chars = PyObjInterner.intern(new PyListObj<>(List.of(
+            PyCharObj.valueOf('a'), PyCharObj.valueOf('b'))));
+        assertNotSame(str, chars);
+        assertTrue(chars.getClass() == PyListObj.class);
+
+        assertEquals(str, new PyStringObj("ab"));
+        assertEquals(new PyStringObj("ab"), str);
+        assertNotEquals(str, PyObjInterner.intern(new PyStringObj("ba")));
+    }
+
+    /**
+     * Tests that interning the elements of a set or dictionary keeps their order, so
+     * that the canonical instance has the same string representation.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testInternKeepsOrder() {
+        Set<PyIntObj> elems = new LinkedHashSet<>();
+        Map<PyIntObj, PyIntObj> map = new LinkedHashMap<>();
+        for (int val = 5040; val > 5000; val -= 3) {
+            elems.add(new PyIntObj(val));
+            map.put(new PyIntObj(val), new PyIntObj(-val));
+        }
+        PySetObj<PyIntObj> set = new PySetObj<>(elems);
+        PyDictObj<PyIntObj, PyIntObj> dict = new PyDictObj<>(map);
+        assertEquals(set.toString(), PyObjInterner.intern(set).toString());
+        assertEquals(dict.toString(), PyObjInterner.intern(dict).toString());
+    }
+}
@@ -1,6 +1,7 @@
 package test.rice.obj;
 
 import main.rice.obj.PyCharObj;
+import main.rice.obj.PyListObj;
 import main.rice.obj.PyStringObj;
 import org.junit.jupiter.api.*;
 
@@ -11,6 +12,8 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Test cases for the PyStringObj class.
@@ -189,4 +192,35 @@ class PyStringObjTest {
     void testHashCode() {
         assertEquals(multiCharStr.hashCode(), multiCharStr2.hashCode());
     }
+
+    /**
+     * Tests that the compact representation still presents the characters as a read-only
+     * list of PyCharObjs, equal (with the same hash code) to the list-based form.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(12)
+    void testCharView() {
+        PyStringObj str = new PyStringObj("héllo");
+        List<PyCharObj> chars = List.of(new PyCharObj('h'), new PyCharObj('é'),
+            new PyCharObj('l'), new PyCharObj('l'), new PyCharObj('o'));
+        assertEquals(chars, str.getValue());
+        assertEquals("héllo", str.getString());
+        assertEquals(str, new PyStringObj(chars));
+        assertEquals(new PyListObj<>(chars).hashCode(), str.hashCode());
+        assertThrows(UnsupportedOperationException.class,
+            () -> str.getValue().add(new PyCharObj('!')));
+    }
+
+    /**
+     * Tests that the string representation is only built once.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(13)
+    void testToStringCached() {
+        PyStringObj str = new PyStringObj("cached");
+        assertEquals("'cached'", str.toString());
+        assertSame(str.toString(), str.toString());
+    }
 }
\ No newline at end of file
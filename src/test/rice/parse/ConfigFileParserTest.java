@@ -1,5 +1,6 @@
 package test.rice.parse;
 
+import main.rice.basegen.ExMode;
 import main.rice.node.*;
 import main.rice.obj.*;
 import main.rice.parse.ConfigFile;
@@ -1367,6 +1368,80 @@ class ConfigFileParserTest {
         assertTrue(correctDomains(retval.getNodes(), nestedDictNodes, true));
     }
 
+    /**
+     * Tests that parameters with identical types and exhaustive domains share their
+     * exhaustive values, even when their random domains differ.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(82)
+    void testParseSharesIdenticalSubtrees() throws InvalidConfigException {
+        String config = "{\n\t\"fname\": \"shared\""
+                + ",\n\t\"types\": [\"list(int\", \"list(int\", \"set(int\"]"
+                + ",\n\t\"exhaustive domain\": [\"0~2(1~3\", \"0~2(1~3\", \"0~2(1~3\"]"
+                + ",\n\t\"random domain\": [\"0~2(1~3\", \"1~2(4~5\", \"0~2(1~3\"]"
+                + ",\n\t\"num random\": 1"
+                + "\n}";
+
+        List<APyNode<?>> nodes = parser.parse(config).getNodes();
+        assertSame(nodes.get(0).genExVals(), nodes.get(1).genExVals());
+        assertNotEquals(nodes.get(0).genExVals(), nodes.get(2).genExVals());
+        assertSame(nodes.get(0).getLeftChild().genExVals(),
+                nodes.get(2).getLeftChild().genExVals());
+    }
+
+    /**
+     * Tests parsing the optional "seed" key.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(83)
+    void testParseSeed() throws InvalidConfigException {
+        String config = "{\n\t\"fname\": \"seeded\""
+                + ",\n\t\"types\": [\"int\"]"
+                + ",\n\t\"exhaustive domain\": [\"0~2\"]"
+                + ",\n\t\"random domain\": [\"0~9\"]"
+                + ",\n\t\"num random\": 1";
+
+        assertNull(parser.parse(config + "\n}").getSeed());
+        assertEquals(12345678901L,
+                parser.parse(config + ",\n\t\"seed\": 12345678901\n}").getSeed());
+        assertThrows(InvalidConfigException.class,
+                () -> parser.parse(config + ",\n\t\"seed\": \"abc\"\n}"));
+    }
+
+    /**
+     * Tests parsing the optional "exhaustive mode" and "strength" keys.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(84)
+    void testParseExMode() throws InvalidConfigException {
+        String config = "{\n\t\"fname\": \"covered\""
+                + ",\n\t\"types\": [\"int\", \"int\", \"int\"]"
+                + ",\n\t\"exhaustive domain\": [\"0~2\", \"0~2\", \"0~2\"]"
+                + ",\n\t\"random domain\": [\"0~9\", \"0~9\", \"0~9\"]"
+                + ",\n\t\"num random\": 1";
+
+        ConfigFile defaults = parser.parse(config + "\n}");
+        assertEquals(ExMode.PRODUCT, defaults.getExMode());
+        assertEquals(2, defaults.getStrength());
+
+        ConfigFile pairwise = parser.parse(config + ",\n\t\"exhaustive mode\": \"t-wise\"\n}");
+        assertEquals(ExMode.T_WISE, pairwise.getExMode());
+        assertEquals(2, pairwise.getStrength());
+
+        ConfigFile threeWise = parser.parse(config
+                + ",\n\t\"exhaustive mode\": \"t-wise\",\n\t\"strength\": 3\n}");
+        assertEquals(ExMode.T_WISE, threeWise.getExMode());
+        assertEquals(3, threeWise.getStrength());
+
+        assertThrows(InvalidConfigException.class, () -> parser.parse(config
+                + ",\n\t\"exhaustive mode\": \"pairwise\"\n}"));
+        assertThrows(InvalidConfigException.class, () -> parser.parse(config
+                + ",\n\t\"exhaustive mode\": \"t-wise\",\n\t\"strength\": 0\n}"));
+    }
+
     /**
      * Helper function for building a ConfigFile object.
      *
@@ -0,0 +1,179 @@
+package test.rice.test;
+
+import main.rice.obj.*;
+import main.rice.test.CoverageReducer;
+import main.rice.test.TestCase;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the CoverageReducer class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class CoverageReducerTest {
+
+    /**
+     * A reference solution with one path per sign of x and value of flag, plus one more
+     * for x == 13, which raises an exception; it also prints, which the reducer must
+     * ignore.
+     */
+    private static final String SOLUTION = String.join("\n",
+        "def func(x, flag):",
+        "    if x == 13:",
+        "        raise ValueError('unlucky')",
+        "    if x < 0:",
+        "        sign = 'negative'",
+        "    elif x == 0:",
+        "        sign = 'zero'",
+        "    else:",
+        "        sign = 'positive'",
+        "    if flag:",
+        "        print('chatty')",
+        "        return sign.upper()",
+        "    return sign",
+        "",
+        "if __name__ == '__main__':",
+        "    print('should not run')",
+        "");
+
+    /**
+     * Every combination of x in {-2, -1, 0, 1, 2, 13} and flag, with flag varying
+     * fastest.
+     */
+    private static List<TestCase> tests = new ArrayList<>();
+
+    /**
+     * The file holding the reference solution; deleted after all the tests.
+     */
+    private static File solution;
+
+    /**
+     * Writes the reference solution and sets up the shared test cases.
+     *
+     * @throws IOException if the solution cannot be written
+     */
+    @BeforeAll
+    static void setUp() throws IOException {
+        solution = File.createTempFile("solution", ".py");
+        Files.writeString(solution.toPath(), SOLUTION);
+        for (int x : new int[]{-2, -1, 0, 1, 2, 13}) {
+            for (boolean flag : new boolean[]{false, true}) {
+                tests.add(new TestCase(List.of(new PyIntObj(x), new PyBoolObj(flag))));
+            }
+        }
+    }
+
+    /**
+     * Deletes the reference solution.
+     */
+    @AfterAll
+    static void tearDown() {
+        solution.delete();
+    }
+
+    /**
+     * Tests that test cases share a signature exactly when they take the same path
+     * through the solution.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testComputeSignatures() throws IOException, InterruptedException {
+        List<String> signatures = new CoverageReducer("func", solution.getPath(), 1)
+            .computeSignatures(tests);
+
+        assertEquals(tests.size(), signatures.size());
+        assertFalse(signatures.contains(null));
+
+        // -2 and -1 take the same paths, as do 1 and 2, and 13 raises regardless of flag
+        assertEquals(signatures.get(0), signatures.get(2));
+        assertEquals(signatures.get(1), signatures.get(3));
+        assertEquals(signatures.get(6), signatures.get(8));
+        assertEquals(signatures.get(7), signatures.get(9));
+        assertEquals(signatures.get(10), signatures.get(11));
+        assertEquals(7, new HashSet<>(signatures).size());
+
+        // Signatures are deterministic
+        assertEquals(signatures, new CoverageReducer("func", solution.getPath(), 1)
+            .computeSignatures(tests));
+    }
+
+    /**
+     * Tests that reduce() keeps the first test cases with each signature, in order.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testReduce() throws IOException, InterruptedException {
+        List<TestCase> expected = new ArrayList<>(tests);
+        expected.remove(11);
+        expected.remove(9);
+        expected.remove(8);
+        expected.remove(3);
+        expected.remove(2);
+        assertEquals(expected,
+            new CoverageReducer("func", solution.getPath(), 1).reduce(tests));
+
+        // No path is taken more than twice
+        assertEquals(tests,
+            new CoverageReducer("func", solution.getPath(), 2).reduce(tests));
+    }
+
+    /**
+     * Tests that every test case is kept when the solution can't be traced, and that
+     * the maximum number of test cases per signature must be positive.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testNoSignatures() throws IOException, InterruptedException {
+        CoverageReducer reducer = new CoverageReducer("func",
+            solution.getPath() + ".missing", 1);
+        assertEquals(Collections.nCopies(tests.size(), null),
+            reducer.computeSignatures(tests));
+        assertEquals(tests, reducer.reduce(tests));
+
+        assertThrows(IllegalArgumentException.class,
+            () -> new CoverageReducer("func", solution.getPath(), 0));
+    }
+
+    /**
+     * Tests that a test case that never finishes on the solution doesn't hang the
+     * reducer, and that only it is kept untraced: the test cases after it are still
+     * traced and reduced.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testTimeout() throws IOException, InterruptedException {
+        File looping = File.createTempFile("solution", ".py");
+        try {
+            Files.writeString(looping.toPath(), SOLUTION.replace("    if x < 0:",
+                "    while x == -1:\n        pass\n    if x < 0:"));
+            CoverageReducer reducer = new CoverageReducer("func", looping.getPath(), 1);
+            assertTrue(CoverageReducer.DEFAULT_TIMEOUT_MILLIS > 0);
+            reducer.setTimeout(1000);
+
+            // Both test cases with x == -1 hang
+            List<String> signatures = reducer.computeSignatures(tests);
+            assertEquals(Arrays.asList(null, null), signatures.subList(2, 4));
+            List<String> traced = new ArrayList<>(signatures);
+            traced.subList(2, 4).clear();
+            assertFalse(traced.contains(null));
+            assertEquals(signatures.get(6), signatures.get(8));
+            assertEquals(signatures.get(10), signatures.get(11));
+            assertEquals(7, new HashSet<>(traced).size());
+
+            // One test case for each of the 7 traced paths, plus both untraced ones
+            assertEquals(9, reducer.reduce(tests).size());
+        } finally {
+            looping.delete();
+        }
+    }
+}
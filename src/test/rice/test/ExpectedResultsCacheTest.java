@@ -0,0 +1,172 @@
+package test.rice.test;
+
+import main.rice.obj.*;
+import main.rice.test.ExpectedResultsCache;
+import main.rice.test.TestCase;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the ExpectedResultsCache class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ExpectedResultsCacheTest {
+
+    /**
+     * A few test cases, to be shared across the different tests.
+     */
+    private static List<TestCase> tests = new ArrayList<>();
+
+    /**
+     * The file backing the cache under test; deleted after each test.
+     */
+    private File cacheFile;
+
+    /**
+     * Sets up the shared test cases.
+     */
+    @BeforeAll
+    static void setUp() {
+        for (int i = 0; i < 3; i++) {
+            tests.add(new TestCase(List.of(new PyIntObj(i))));
+        }
+    }
+
+    /**
+     * Picks a fresh path for the cache file.
+     *
+     * @throws IOException if the temporary file cannot be created
+     */
+    @BeforeEach
+    void setUpFile() throws IOException {
+        this.cacheFile = File.createTempFile("expected", ".cache");
+        this.cacheFile.delete();
+    }
+
+    /**
+     * Deletes the cache file.
+     */
+    @AfterEach
+    void tearDownFile() {
+        this.cacheFile.delete();
+    }
+
+    /**
+     * Tests that a stored result can be retrieved, and that hits and misses are counted.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testGetPut() throws IOException {
+        ExpectedResultsCache cache = new ExpectedResultsCache(this.cacheFile.getPath(), 10);
+        assertNull(cache.get("sol", "func", tests.get(0)));
+        cache.put("sol", "func", tests.get(0), 42, "0");
+        assertEquals("0", cache.get("sol", "func", tests.get(0)));
+        assertEquals(42, cache.getNanos("sol", "func", tests.get(0)));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Tests that entries for a different solution or function aren't hit.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testKeyIncludesSolutionAndFunction() throws IOException {
+        ExpectedResultsCache cache = new ExpectedResultsCache(this.cacheFile.getPath(), 10);
+        cache.put("sol", "func", tests.get(0), 1, "0");
+        assertNull(cache.get("otherSol", "func", tests.get(0)));
+        assertNull(cache.get("sol", "otherFunc", tests.get(0)));
+        assertNull(cache.get("sol", "func", tests.get(1)));
+        assertEquals(-1, cache.getNanos("otherSol", "func", tests.get(0)));
+    }
+
+    /**
+     * Tests that the least recently used entry is evicted once the cache is full.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testEviction() throws IOException {
+        ExpectedResultsCache cache = new ExpectedResultsCache(this.cacheFile.getPath(), 2);
+        cache.put("sol", "func", tests.get(0), 1, "0");
+        cache.put("sol", "func", tests.get(1), 1, "1");
+
+        // Touch test 0 so that test 1 becomes the least recently used
+        cache.get("sol", "func", tests.get(0));
+        cache.put("sol", "func", tests.get(2), 1, "2");
+
+        assertEquals(2, cache.size());
+        assertEquals("0", cache.get("sol", "func", tests.get(0)));
+        assertNull(cache.get("sol", "func", tests.get(1)));
+        assertEquals("2", cache.get("sol", "func", tests.get(2)));
+    }
+
+    /**
+     * Tests that the cache survives being saved and reloaded, including the eviction
+     * order.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(4)
+    void testSaveLoad() throws IOException {
+        ExpectedResultsCache cache = new ExpectedResultsCache(this.cacheFile.getPath(), 2);
+        cache.put("sol", "func", tests.get(0), 7, "[0, 'a\\tb']");
+        cache.put("sol", "func", tests.get(1), 8, "1");
+        cache.get("sol", "func", tests.get(0));
+        cache.save();
+
+        ExpectedResultsCache loaded = new ExpectedResultsCache(this.cacheFile.getPath(), 2);
+        assertEquals(2, loaded.size());
+        assertEquals(7, loaded.getNanos("sol", "func", tests.get(0)));
+
+        // Test 1 was the least recently used when the cache was saved
+        loaded.put("sol", "func", tests.get(2), 9, "2");
+        assertNull(loaded.get("sol", "func", tests.get(1)));
+        assertEquals("[0, 'a\\tb']", loaded.get("sol", "func", tests.get(0)));
+    }
+
+    /**
+     * Tests that sets built in different orders have the same canonical representation,
+     * and therefore hit the same entry, but that dictionaries whose entries are in
+     * different orders don't.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(5)
+    void testCanonicalRepr() throws IOException {
+        Set<PyIntObj> forward = new LinkedHashSet<>();
+        Set<PyIntObj> backward = new LinkedHashSet<>();
+        Map<PyIntObj, PyStringObj> forwardMap = new LinkedHashMap<>();
+        Map<PyIntObj, PyStringObj> backwardMap = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            forward.add(new PyIntObj(i));
+            backward.add(new PyIntObj(19 - i));
+            forwardMap.put(new PyIntObj(i), new PyStringObj(String.valueOf(i)));
+            backwardMap.put(new PyIntObj(19 - i), new PyStringObj(String.valueOf(19 - i)));
+        }
+        TestCase test1 = new TestCase(List.of(new PyListObj<>(List.of(
+            new PySetObj<>(forward))), new PyDictObj<>(forwardMap)));
+        TestCase test2 = new TestCase(List.of(new PyListObj<>(List.of(
+            new PySetObj<>(backward))), new PyDictObj<>(forwardMap)));
+        assertEquals(ExpectedResultsCache.canonicalRepr(test1),
+            ExpectedResultsCache.canonicalRepr(test2));
+
+        ExpectedResultsCache cache = new ExpectedResultsCache(this.cacheFile.getPath(), 10);
+        cache.put("sol", "func", test1, 1, "result");
+        assertEquals("result", cache.get("sol", "func", test2));
+
+        // e.g. list(d) differs between the two dictionaries
+        TestCase test3 = new TestCase(List.of(new PyListObj<>(List.of(
+            new PySetObj<>(forward))), new PyDictObj<>(backwardMap)));
+        assertNotEquals(ExpectedResultsCache.canonicalRepr(test1),
+            ExpectedResultsCache.canonicalRepr(test3));
+        assertNull(cache.get("sol", "func", test3));
+    }
+}
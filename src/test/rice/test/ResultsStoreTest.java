@@ -0,0 +1,89 @@
+package test.rice.test;
+
+import main.rice.test.ResultsStore;
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test cases for the ResultsStore class.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class ResultsStoreTest {
+
+    /**
+     * The file backing the store under test; deleted after each test.
+     */
+    private File storeFile;
+
+    /**
+     * Picks a fresh path for the store file.
+     *
+     * @throws IOException if the temporary file cannot be created
+     */
+    @BeforeEach
+    void setUpFile() throws IOException {
+        this.storeFile = File.createTempFile("outcomes", ".txt");
+        this.storeFile.delete();
+    }
+
+    /**
+     * Deletes the store file.
+     */
+    @AfterEach
+    void tearDownFile() {
+        this.storeFile.delete();
+    }
+
+    /**
+     * Tests that stored outcomes can be retrieved, and that hits and misses are counted.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(1)
+    void testGetPut() throws IOException {
+        ResultsStore store = new ResultsStore(this.storeFile.getPath());
+        assertNull(store.get("impl", "test", "expected"));
+        store.put("impl", "test", "expected", true);
+        store.put("impl", "test2", "expected", false);
+        assertEquals(true, store.get("impl", "test", "expected"));
+        assertEquals(false, store.get("impl", "test2", "expected"));
+        assertEquals(2, store.getHits());
+        assertEquals(1, store.getMisses());
+    }
+
+    /**
+     * Tests that a change to any part of the key misses.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(2)
+    void testKeyParts() throws IOException {
+        ResultsStore store = new ResultsStore(this.storeFile.getPath());
+        store.put("impl", "test", "expected", true);
+        assertNull(store.get("impl2", "test", "expected"));
+        assertNull(store.get("impl", "test2", "expected"));
+        assertNull(store.get("impl", "test", "expected2"));
+    }
+
+    /**
+     * Tests that the store survives being saved and reloaded.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(3)
+    void testSaveLoad() throws IOException {
+        ResultsStore store = new ResultsStore(this.storeFile.getPath());
+        store.put("impl", "test", "expected", true);
+        store.put("impl", "test2", "expected", false);
+        store.save();
+
+        ResultsStore loaded = new ResultsStore(this.storeFile.getPath());
+        assertEquals(2, loaded.size());
+        assertEquals(true, loaded.get("impl", "test", "expected"));
+        assertEquals(false, loaded.get("impl", "test2", "expected"));
+    }
+}
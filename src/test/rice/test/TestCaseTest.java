@@ -349,6 +349,25 @@ class TestCaseTest {
         assertNotEquals(oneArgSimple.hashCode(), multipleArgsSimple.hashCode());
     }
 
+    /**
+     * Tests that a test case is unaffected by later changes to the list of arguments it
+     * was built from, and that its arguments cannot be modified.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(26)
+    void testImmutable() {
+        List<APyObj> args = new ArrayList<>(List.of(new PyIntObj(17)));
+        TestCase test = new TestCase(args);
+        int hash = test.hashCode();
+
+        args.add(new PyIntObj(18));
+        assertEquals(oneArgSimple, test);
+        assertEquals(hash, test.hashCode());
+        assertThrows(UnsupportedOperationException.class,
+            () -> test.getArgs().add(new PyIntObj(18)));
+    }
+
     /**
      * Set up oneArgSimple, oneArgSimple2, and oneArgSimpleVal for use in the test cases.
      */
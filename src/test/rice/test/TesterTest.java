@@ -1,6 +1,9 @@
 package test.rice.test;
 
 import main.rice.obj.*;
+import main.rice.test.ExecMode;
+import main.rice.test.ExpectedResultsCache;
+import main.rice.test.ResultsStore;
 import main.rice.test.TestCase;
 import main.rice.test.TestResults;
 import main.rice.test.Tester;
@@ -12,8 +15,12 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -717,6 +724,515 @@ class TesterTest {
             f3resultStr, Set.of(0, 1, 2), expected, 1);
     }
 
+    /**
+     * Tests that pool mode gives the same results as the per-process path on a mix of
+     * passing and failing tests on implementations of a function that takes one simple
+     * argument.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(37)
+    void testRunTestsPoolMixed() {
+        compareModesHelper("func0", f0Tests, "f0multipleMixed",
+            "results = [0, 1, 2, 3, 4]", tester -> {
+                tester.setExecMode(ExecMode.POOL);
+                tester.setPoolSize(2);
+            });
+    }
+
+    /**
+     * Tests that pool mode gives the same results as the per-process path on
+     * implementations of a function that takes multiple nested arguments.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(38)
+    void testRunTestsPoolMixedComplex() {
+        compareModesHelper("func3", f3Tests, "f3multipleMixed", f3resultStr,
+            tester -> tester.setExecMode(ExecMode.POOL));
+    }
+
+    /**
+     * Tests that pool mode gives the same results as the per-process path on malformed
+     * implementations, which crash on every test.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(39)
+    void testRunTestsPoolMalformed() {
+        compareModesHelper("func3", f3Tests, "f3malformed", f3resultStr, tester -> {
+            tester.setExecMode(ExecMode.POOL);
+            tester.setPoolSize(1);
+        });
+    }
+
+    /**
+     * Tests that running the tests concurrently gives the same results as running them
+     * one at a time.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(40)
+    void testRunTestsConcurrentMixedComplex() {
+        compareModesHelper("func3", f3Tests, "f3multipleMixed", f3resultStr,
+            tester -> tester.setNumThreads(4));
+    }
+
+    /**
+     * Tests that running the tests concurrently through the worker pool gives the same
+     * results as running them one at a time in separate processes.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(41)
+    void testRunTestsConcurrentPool() {
+        compareModesHelper("func0", f0Tests, "f0multipleMixedDeterministic",
+            "results = [0, 1, 2, 3, 4]", tester -> {
+                tester.setExecMode(ExecMode.POOL);
+                tester.setPoolSize(3);
+                tester.setNumThreads(3);
+            });
+    }
+
+    /**
+     * Tests that batch mode, with all of each implementation's tests in a single
+     * process, gives the same results as the per-process path.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(42)
+    void testRunTestsBatchMixedComplex() {
+        compareModesHelper("func3", f3Tests, "f3multipleMixed", f3resultStr,
+            tester -> tester.setExecMode(ExecMode.BATCH));
+    }
+
+    /**
+     * Tests that batch mode with small chunks, run concurrently, gives the same results
+     * as the per-process path.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(43)
+    void testRunTestsBatchChunked() {
+        compareModesHelper("func0", f0Tests, "f0multipleMixedDeterministic",
+            "results = [0, 1, 2, 3, 4]", tester -> {
+                tester.setExecMode(ExecMode.BATCH);
+                tester.setChunkSize(2);
+                tester.setNumThreads(2);
+            });
+    }
+
+    /**
+     * Tests that batch mode gives the same results as the per-process path on malformed
+     * implementations, which crash on every test.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(44)
+    void testRunTestsBatchMalformed() {
+        compareModesHelper("func3", f3Tests, "f3malformed", f3resultStr,
+            tester -> tester.setExecMode(ExecMode.BATCH));
+    }
+
+    /**
+     * Tests that batch mode recovers when an implementation kills its process partway
+     * through a chunk: the test that killed it is counted as caught, and the rest of the
+     * chunk is still run.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(45)
+    void testRunTestsBatchCrashMidChunk() {
+        runTestsHelper("func0", f0Tests, "f0crashing", "results = [0, 1, 2, 3, 4]",
+            Set.of(0, 1), List.of(Set.of(1), Set.of(), Set.of(0, 1), Set.of(), Set.of(1)),
+            1, tester -> tester.setExecMode(ExecMode.BATCH));
+    }
+
+    /**
+     * Tests that a test case that never finishes is killed once it runs out of time and
+     * counted as catching the implementation, when each test gets its own process.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(46)
+    void testRunTestsTimeoutProcess() {
+        timeoutHelper(tester -> { });
+    }
+
+    /**
+     * Tests that a test case that never finishes is killed once it runs out of time and
+     * counted as catching the implementation, in pool mode.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(47)
+    void testRunTestsTimeoutPool() {
+        timeoutHelper(tester -> tester.setExecMode(ExecMode.POOL));
+    }
+
+    /**
+     * Tests that a test case that never finishes is killed once it runs out of time and
+     * counted as catching the implementation, in batch mode; the tests after it in the
+     * same chunk must still be run.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(48)
+    void testRunTestsTimeoutBatch() {
+        timeoutHelper(tester -> tester.setExecMode(ExecMode.BATCH));
+    }
+
+    /**
+     * Tests that timeouts can be set relative to the time the reference solution takes.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(49)
+    void testRunTestsRelativeTimeout() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0hanging";
+        Tester tester = new Tester("func0",
+            userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py", implDirPath,
+            f0Tests);
+        tester.setRelativeTimeout(20);
+        try {
+            tester.computeExpectedResults();
+            TestResults results = tester.runTests();
+            assertEquals(Set.of(0), results.getWrongSet());
+            assertEquals(List.of(Set.of(), Set.of(), Set.of(), Set.of(0), Set.of()),
+                results.getCaseToFiles());
+            assertEquals(1, tester.getNumTimeouts());
+        } catch (Exception e) {
+            fail();
+        } finally {
+            deletedExpected("f0hanging");
+        }
+    }
+
+    /**
+     * Tests that once an implementation's budget runs out, its remaining tests are
+     * counted as catching it.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(50)
+    void testRunTestsImplBudget() {
+        runTestsHelper("func0", f0Tests, "f0multipleRight", "results = [0, 1, 2, 3, 4]",
+            Set.of(0, 1), List.of(Set.of(0, 1), Set.of(0, 1), Set.of(0, 1), Set.of(0, 1),
+                Set.of(0, 1)), 1, tester -> tester.setImplBudget(1));
+    }
+
+    /**
+     * Tests that an implementation that prints far more than a pipe can hold, to both
+     * stdout and stderr, doesn't block; the time limit turns a regression into a failure
+     * rather than a hang.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(51)
+    void testRunTestsChattyOutput() {
+        runTestsHelper("func0", f0Tests, "f0chatty", "results = [0, 1, 2, 3, 4]",
+            Set.of(), List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()), 1,
+            tester -> tester.setTimeout(20000));
+    }
+
+    /**
+     * Tests that the result is still read correctly when only a small tail of the
+     * output is kept.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(52)
+    void testRunTestsSmallOutputTail() {
+        runTestsHelper("func0", f0Tests, "f0chatty", "results = [0, 1, 2, 3, 4]",
+            Set.of(), List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()), 1,
+            tester -> {
+                tester.setTimeout(20000);
+                tester.setOutputTailSize(16);
+            });
+    }
+
+    /**
+     * Tests that computing the expected results a second time with a cache doesn't run
+     * the reference solution at all, and yields the same results.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(53)
+    void testGetExpectedResultsCached() {
+        File cacheFile = null;
+        Tester tester = new Tester("func0",
+            userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py",
+            userDir + "/src/test/rice/test/pyfiles/f0oneRight", f0Tests);
+        try {
+            cacheFile = File.createTempFile("expected", ".cache");
+            cacheFile.delete();
+
+            // The first pass misses on every test case and fills the cache
+            ExpectedResultsCache cache = new ExpectedResultsCache(cacheFile.getPath(), 100);
+            tester.setExpectedCache(cache);
+            List<String> first = tester.computeExpectedResults();
+            assertEquals(0, cache.getHits());
+            assertEquals(5, cache.getMisses());
+
+            // The second pass, with the cache reloaded from disk, hits on every one
+            cache = new ExpectedResultsCache(cacheFile.getPath(), 100);
+            tester.setExpectedCache(cache);
+            List<String> second = tester.computeExpectedResults();
+            assertEquals(5, cache.getHits());
+            assertEquals(0, cache.getMisses());
+            assertEquals(first, second);
+            assertEquals(List.of("0", "1", "2", "3", "4"), second);
+        } catch (Exception e) {
+            fail();
+        } finally {
+            if (cacheFile != null) {
+                cacheFile.delete();
+            }
+        }
+    }
+
+    /**
+     * Tests that regrading with a results store only re-runs the implementations that
+     * changed, and still produces the full results.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(54)
+    void testRunTestsIncremental() {
+        File implDir = null;
+        try {
+            implDir = Files.createTempDirectory("impls").toFile();
+            String implDirPath = implDir.getPath();
+            String storePath = implDirPath + "/outcomes.txt";
+            Files.writeString(Paths.get(implDirPath, "expected.py"),
+                "results = [0, 1, 2, 3, 4]");
+            Files.writeString(Paths.get(implDirPath, "student0.py"),
+                "def func0(intval):\n    return intval\n");
+            Files.writeString(Paths.get(implDirPath, "student1.py"),
+                "def func0(intval):\n    return intval + 1\n");
+
+            // The first pass runs everything
+            ResultsStore store = new ResultsStore(storePath);
+            Tester tester = new Tester("func0", "", implDirPath, f0Tests);
+            tester.setResultsStore(store);
+            TestResults results = tester.runTests();
+            assertEquals(Set.of(1), results.getWrongSet());
+            assertEquals(0, store.getHits());
+            assertEquals(10, store.getMisses());
+
+            // Nothing changed, so the second pass runs nothing
+            store = new ResultsStore(storePath);
+            tester.setResultsStore(store);
+            assertEquals(results.getCaseToFiles(), tester.runTests().getCaseToFiles());
+            assertEquals(10, store.getHits());
+            assertEquals(0, store.getMisses());
+
+            // After a resubmission, only the resubmitted implementation is run
+            Files.writeString(Paths.get(implDirPath, "student1.py"),
+                "def func0(intval):\n    return intval * 1\n");
+            store = new ResultsStore(storePath);
+            tester.setResultsStore(store);
+            results = tester.runTests();
+            assertEquals(Set.of(), results.getWrongSet());
+            assertEquals(5, store.getHits());
+            assertEquals(5, store.getMisses());
+
+            // Changing the execution mode or the time limits invalidates every outcome
+            store = new ResultsStore(storePath);
+            tester.setResultsStore(store);
+            tester.setExecMode(ExecMode.BATCH);
+            tester.runTests();
+            assertEquals(0, store.getHits());
+            assertEquals(10, store.getMisses());
+            store = new ResultsStore(storePath);
+            tester.setResultsStore(store);
+            tester.setTimeout(60_000);
+            tester.runTests();
+            assertEquals(0, store.getHits());
+            assertEquals(10, store.getMisses());
+        } catch (Exception e) {
+            fail();
+        } finally {
+            if (implDir != null) {
+                for (File file : Objects.requireNonNull(implDir.listFiles())) {
+                    file.delete();
+                }
+                implDir.delete();
+            }
+        }
+    }
+
+    /**
+     * Tests that regrading with a relative timeout reuses the stored outcomes, even
+     * though the reference solution takes a different amount of time on each run.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(60)
+    void testRunTestsIncrementalRelativeTimeout() {
+        File implDir = null;
+        File solDir = null;
+        try {
+            implDir = Files.createTempDirectory("impls").toFile();
+            solDir = Files.createTempDirectory("sols").toFile();
+            String implDirPath = implDir.getPath();
+            String storePath = solDir.getPath() + "/outcomes.txt";
+            String solPath = solDir.getPath() + "/sol.py";
+            Files.writeString(Paths.get(solPath), "import random\nimport time\n\n"
+                + "def func0(intval):\n    time.sleep(random.random() / 20)\n"
+                + "    return intval\n");
+            Files.writeString(Paths.get(implDirPath, "student0.py"),
+                "def func0(intval):\n    return intval\n");
+            Files.writeString(Paths.get(implDirPath, "student1.py"),
+                "def func0(intval):\n    return intval + 1\n");
+
+            for (int pass = 0; pass < 2; pass++) {
+                ResultsStore store = new ResultsStore(storePath);
+                Tester tester = new Tester("func0", solPath, implDirPath, f0Tests);
+                tester.setRelativeTimeout(1000);
+                tester.setResultsStore(store);
+                tester.computeExpectedResults();
+                assertEquals(Set.of(1), tester.runTests().getWrongSet());
+                assertEquals((pass == 0) ? 0 : 10, store.getHits());
+                assertEquals((pass == 0) ? 10 : 0, store.getMisses());
+            }
+        } catch (Exception e) {
+            fail();
+        } finally {
+            for (File dir : new File[]{implDir, solDir}) {
+                if (dir != null) {
+                    for (File file : Objects.requireNonNull(dir.listFiles())) {
+                        file.delete();
+                    }
+                    dir.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that computeExpectedResults() fails, rather than writing an empty expected
+     * result, when the reference solution runs out of time on a test case.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(61)
+    void testExpectedResultsTimeout() {
+        File implDir = null;
+        File solDir = null;
+        try {
+            implDir = Files.createTempDirectory("impls").toFile();
+            solDir = Files.createTempDirectory("sols").toFile();
+            String solPath = solDir.getPath() + "/sol.py";
+            Files.writeString(Paths.get(solPath), "def func0(intval):\n"
+                + "    while intval == 2:\n        pass\n    return intval\n");
+
+            Tester tester = new Tester("func0", solPath, implDir.getPath(), f0Tests);
+            tester.setTimeout(500);
+            IOException e = assertThrows(IOException.class,
+                tester::computeExpectedResults);
+            assertTrue(e.getMessage().contains("test 2"));
+            assertFalse(new File(implDir, "expected.py").exists());
+        } catch (IOException e) {
+            fail();
+        } finally {
+            for (File dir : new File[]{implDir, solDir}) {
+                if (dir != null) {
+                    for (File file : Objects.requireNonNull(dir.listFiles())) {
+                        file.delete();
+                    }
+                    dir.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests that forkserver mode gives the same results as the per-process path on
+     * multiple implementations of a function that takes multiple nested arguments.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(55)
+    void testRunTestsForkserverMixedComplex() {
+        compareModesHelper("func3", f3Tests, "f3multipleMixed", f3resultStr,
+            tester -> tester.setExecMode(ExecMode.FORKSERVER));
+    }
+
+    /**
+     * Tests that in forkserver mode, state that an implementation keeps in a global
+     * variable doesn't leak from one test case into the next, as it does in batch mode.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(56)
+    void testRunTestsForkserverIsolation() {
+        runTestsHelper("func0", f0Tests, "f0stateful", "results = [0, 1, 2, 3, 4]",
+            Set.of(), List.of(Set.of(), Set.of(), Set.of(), Set.of(), Set.of()), 1,
+            tester -> tester.setExecMode(ExecMode.FORKSERVER));
+        runTestsHelper("func0", f0Tests, "f0stateful", "results = [0, 1, 2, 3, 4]",
+            Set.of(0), List.of(Set.of(), Set.of(0), Set.of(0), Set.of(0), Set.of(0)), 1,
+            tester -> tester.setExecMode(ExecMode.BATCH));
+    }
+
+    /**
+     * Tests that in forkserver mode, an implementation that kills its process only
+     * takes down the child for that test case.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(57)
+    void testRunTestsForkserverCrash() {
+        runTestsHelper("func0", f0Tests, "f0crashing", "results = [0, 1, 2, 3, 4]",
+            Set.of(0, 1), List.of(Set.of(1), Set.of(), Set.of(0, 1), Set.of(), Set.of(1)),
+            1, tester -> tester.setExecMode(ExecMode.FORKSERVER));
+    }
+
+    /**
+     * Tests that a test case that never finishes is killed once it runs out of time and
+     * counted as catching the implementation, in forkserver mode.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(58)
+    void testRunTestsTimeoutForkserver() {
+        timeoutHelper(tester -> tester.setExecMode(ExecMode.FORKSERVER));
+    }
+
+    /**
+     * Tests that the wrapper looks up the expected results through the index written by
+     * computeExpectedResults(), and that the index is ignored once expected.py has been
+     * written by someone else.
+     */
+    @Test
+    @Tag("1.0")
+    @Order(59)
+    void testRunTestsExpectedIndex() {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0multipleMixed";
+        Tester tester = new Tester("func0",
+            userDir + "/src/test/rice/test/pyfiles/sols/func0sol.py", implDirPath,
+            f0Tests);
+        try {
+            tester.computeExpectedResults();
+            assertTrue(new File(implDirPath + "/expected.idx").exists());
+            TestResults results = tester.runTests();
+            assertEquals(List.of(Set.of(0), Set.of(1), Set.of(0), Set.of(1), Set.of(0)),
+                results.getCaseToFiles());
+
+            // Overwrite expected.py by hand; the stale index must not be used
+            Files.writeString(Paths.get(implDirPath, "expected.py"),
+                "results = [1, 2, 3, 4, 5]");
+            results = tester.runTests();
+            assertEquals(List.of(Set.of(1), Set.of(0), Set.of(1), Set.of(0), Set.of(1)),
+                results.getCaseToFiles());
+            assertTrue(!new File(implDirPath + "/expected.idx").exists());
+        } catch (Exception e) {
+            fail();
+        } finally {
+            deletedExpected("f0multipleMixed");
+        }
+    }
+
     /**
      * Sets up the test cases for function f0, which takes one simple argument.
      */
@@ -806,8 +1322,29 @@ class TesterTest {
     private void runTestsHelper(String funcName, List<TestCase> tests, String implDir,
         String solResults, Set<Integer> expWrongSet, List<Set<Integer>> expResults,
         int outputToCheck) {
+        runTestsHelper(funcName, tests, implDir, solResults, expWrongSet, expResults,
+            outputToCheck, tester -> { });
+    }
+
+    /**
+     * Helper function for testing the runTests() function using a non-default
+     * configuration of the Tester; otherwise identical to the helper above.
+     *
+     * @param funcName    name of the function under test
+     * @param tests       the set of tests to be run
+     * @param implDir     the path to the directory containing the buggy implementations
+     * @param solResults  the expected contents of expected.py, assuming
+     *                    computeExpectedResults() is correct
+     * @param expWrongSet the expected wrongSet
+     * @param expResults  the expected caseToFile list
+     * @param configure   applies the configuration under test to the Tester
+     */
+    private void runTestsHelper(String funcName, List<TestCase> tests, String implDir,
+        String solResults, Set<Integer> expWrongSet, List<Set<Integer>> expResults,
+        int outputToCheck, Consumer<Tester> configure) {
         Tester tester = new Tester(funcName, null,
             userDir + "/src/test/rice/test/pyfiles/" + implDir, tests);
+        configure.accept(tester);
         try {
             // Generate the expected.py file (to fake computing the expected results
             // without creating a dependency on computeExpectedResults())
@@ -836,6 +1373,72 @@ class TesterTest {
         }
     }
 
+    /**
+     * Helper function for testing alternative configurations of the Tester; runs the
+     * tests once using the default configuration and once using the given configuration,
+     * and checks that both the wrongSet and caseToFiles mappings agree.
+     *
+     * @param funcName   name of the function under test
+     * @param tests      the set of tests to be run
+     * @param implDir    the path to the directory containing the buggy implementations
+     * @param solResults the expected contents of expected.py
+     * @param configure  applies the configuration under test to a Tester
+     */
+    private void compareModesHelper(String funcName, List<TestCase> tests,
+        String implDir, String solResults, Consumer<Tester> configure) {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/" + implDir;
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write(solResults);
+            writer.close();
+
+            // Run once using the per-process path, and once using the configuration
+            // under test
+            TestResults expected =
+                new Tester(funcName, null, implDirPath, tests).runTests();
+            Tester tester = new Tester(funcName, null, implDirPath, tests);
+            configure.accept(tester);
+            TestResults actual = tester.runTests();
+
+            assertEquals(expected.getWrongSet(), actual.getWrongSet());
+            assertEquals(expected.getCaseToFiles(), actual.getCaseToFiles());
+        } catch (Exception e) {
+            fail();
+        } finally {
+            deletedExpected(implDir);
+        }
+    }
+
+    /**
+     * Helper function for testing timeouts; runs the f0 tests on a pair of
+     * implementations, one of which never finishes on one of the tests, and checks that
+     * exactly that test catches it.
+     *
+     * @param configure applies the configuration under test to the Tester
+     */
+    private void timeoutHelper(Consumer<Tester> configure) {
+        String implDirPath = userDir + "/src/test/rice/test/pyfiles/f0hanging";
+        Tester tester = new Tester("func0", null, implDirPath, f0Tests);
+        tester.setTimeout(1000);
+        configure.accept(tester);
+        try {
+            FileWriter writer = new FileWriter(implDirPath + "/expected.py");
+            writer.write("results = [0, 1, 2, 3, 4]");
+            writer.close();
+
+            TestResults results = tester.runTests();
+            assertEquals(Set.of(0), results.getWrongSet());
+            assertEquals(List.of(Set.of(), Set.of(), Set.of(), Set.of(0), Set.of()),
+                results.getCaseToFiles());
+            assertEquals(1, tester.getNumTimeouts());
+            assertTrue(tester.getTimeoutMillis() >= 1000);
+        } catch (Exception e) {
+            fail();
+        } finally {
+            deletedExpected("f0hanging");
+        }
+    }
+
     /**
      * Helper function for testing the computeExpectedResults() function; instantiates a
      * Tester object, computes the expected results, and compares those to the
@@ -862,13 +1465,15 @@ class TesterTest {
     }
 
     /**
-     * Deletes the file containing the expected results.
+     * Deletes the files containing the expected results, including the index.
      *
      * @param implDir the path to the directory containing the expected results
      */
     private void deletedExpected(String implDir) {
-        File expFile = new File(userDir + "/src/test/rice/test/pyfiles/" +
-                implDir + "/expected.py");
-        expFile.delete();
+        for (String name : new String[]{"expected.py", "expected.idx", "expected.dat"}) {
+            File expFile = new File(userDir + "/src/test/rice/test/pyfiles/" +
+                    implDir + "/" + name);
+            expFile.delete();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+import sys
+
+def func0(intval):
+    for i in range(20000):
+        print("chatty output line " + str(i))
+        print("chatty error line " + str(i), file=sys.stderr)
+    return intval
@@ -0,0 +1,4 @@
+def func0(intval):
+    if (intval % 2):
+        return intval
+    return intval + 1
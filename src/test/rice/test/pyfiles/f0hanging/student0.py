@@ -0,0 +1,4 @@
+def func0(intval):
+    while intval == 3:
+        pass
+    return intval
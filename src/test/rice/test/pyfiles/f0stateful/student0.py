@@ -0,0 +1,7 @@
+calls = 0
+
+
+def func0(intval):
+    global calls
+    calls += 1
+    return intval + calls - 1